@@ -0,0 +1,133 @@
+package app;
+
+import app.sql.SpillStatistics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Minimal harness for the {@code main}-based benchmarks in this source folder.
+ * <p>A task is run a few times to warm up the JIT and then measured a number of times. The median wall-clock time
+ * and the median number of bytes allocated by the measuring thread are reported. Allocations are read from the
+ * HotSpot {@link com.sun.management.ThreadMXBean}; on other virtual machines they are reported as unavailable.</p>
+ * The benchmarks are compiled and run by {@code src/script/benchmarkLinux.sh}.
+ */
+public final class Benchmark {
+
+    /**
+     * The number of runs before the measured runs.
+     */
+    private static final int WARMUP_RUNS = 3;
+
+    /**
+     * The number of measured runs.
+     */
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * A benchmarked task. The returned value is consumed so the work cannot be optimized away.
+     */
+    public interface Task {
+        Object run() throws Exception;
+    }
+
+    /**
+     * The median time and allocation of a benchmarked task.
+     */
+    public static final class Result {
+        private final long nanos;
+        private final long allocatedBytes;
+
+        private Result(long nanos, long allocatedBytes) {
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        /**
+         * @return the allocated bytes, or -1 if allocations cannot be measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    /**
+     * Consumed results, so the JIT cannot drop the work of a task.
+     */
+    private static int sink = 0;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Warms up and measures the given task and prints its median time and allocation.
+     *
+     * @param name the name printed with the measurement
+     * @param task the task to measure
+     * @return the median {@link Result} of the measured runs
+     * @throws Exception if the task fails
+     */
+    public static Result measure(String name, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            consume(task.run());
+        }
+
+        long[] times = new long[MEASURED_RUNS];
+        long[] allocations = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            consume(task.run());
+            times[i] = System.nanoTime() - start;
+            long allocatedAfter = allocatedBytes();
+            allocations[i] = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+        }
+
+        Result result = new Result(median(times), median(allocations));
+        System.out.printf("%-44s %10.1f ms %14s allocated%n", name, result.getMillis(),
+                result.getAllocatedBytes() < 0 ? "n/a" : SpillStatistics.formatBytes(result.getAllocatedBytes()));
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far.
+     *
+     * @return the allocated bytes, or -1 if the virtual machine does not report them
+     */
+    public static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Prints the ratio of two measurements, e.g. the reduction of allocations of a new implementation.
+     *
+     * @param label    the label of the ratio
+     * @param baseline the measurement of the old implementation
+     * @param measured the measurement of the new implementation
+     */
+    public static void printRatio(String label, Result baseline, Result measured) {
+        String time = String.format("%.1fx time", baseline.getMillis() / Math.max(measured.getMillis(), 0.001));
+        String allocations = baseline.getAllocatedBytes() < 0 || measured.getAllocatedBytes() <= 0 ? "n/a"
+                : String.format("%.1fx allocations", baseline.getAllocatedBytes() / (double) measured.getAllocatedBytes());
+        System.out.println(label + ": " + time + ", " + allocations);
+    }
+
+    private static void consume(Object value) {
+        sink += value == null ? 0 : value.hashCode();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,68 @@
+package app.sql;
+
+import app.Benchmark;
+
+/**
+ * Benchmark of parsing long SELECT statements with {@link SQLParser}.
+ * <p>Statements of 1 to 40 KB are parsed, each with a long select list, a long IN list in the WHERE clause and
+ * long GROUP BY and ORDER BY clauses. The time per KB stays about the same as the statements grow, which shows
+ * that lexing and parsing are linear in the length of the statement. The 10 KB statement is the reference size.</p>
+ * Usage: {@code SQLParserBenchmark [parses per run]}, 100 by default.
+ */
+public class SQLParserBenchmark {
+
+    private static final int DEFAULT_PARSES = 100;
+
+    private static final int[] SIZES_KB = {1, 2, 5, 10, 20, 40};
+
+    public static void main(String[] args) throws Exception {
+        int parses = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PARSES;
+        System.out.println("Parsing every statement " + parses + " times per run");
+
+        double reference = 0;
+        for (int sizeKb : SIZES_KB) {
+            String statement = createStatement(sizeKb * 1024);
+            Benchmark.Result result = Benchmark.measure(sizeKb + " KB statement", () -> {
+                int items = 0;
+                for (int i = 0; i < parses; i++) {
+                    items += SQLParser.parseSelect(statement).getOrderByClauses().size();
+                }
+                return items;
+            });
+            double microsPerKb = result.getMillis() * 1000 / parses / (statement.length() / 1024.0);
+            if (sizeKb == 10) {
+                reference = microsPerKb;
+            }
+            System.out.printf("    %.1f us per parse, %.2f us per KB%n", result.getMillis() * 1000 / parses, microsPerKb);
+        }
+        System.out.printf("10 KB statement: %.2f us per KB%n", reference);
+    }
+
+    /**
+     * Creates a SELECT statement of about the given length in characters.
+     */
+    private static String createStatement(int length) {
+        // A quarter of the statement for each of the select list, the IN list, the GROUP BY and the ORDER BY clause
+        int columns = length / 4 / "column_0000, ".length();
+        int values = length / 4 / "'value_0000', ".length();
+
+        StringBuilder statement = new StringBuilder("SELECT ");
+        appendColumns(statement, columns, "");
+        statement.append(" FROM orders JOIN customers ON orders.customer_id = customers.id WHERE customers.city IN (");
+        for (int i = 0; i < values; i++) {
+            statement.append(i > 0 ? ", " : "").append(String.format("'value_%04d'", i));
+        }
+        statement.append(") AND (orders.amount > 100 OR orders.status = 'open') GROUP BY ");
+        appendColumns(statement, columns, "");
+        statement.append(" HAVING COUNT(column_0000) > 1 ORDER BY ");
+        appendColumns(statement, columns, " DESC");
+        statement.append(" LIMIT 100 OFFSET 10");
+        return statement.toString();
+    }
+
+    private static void appendColumns(StringBuilder statement, int columns, String suffix) {
+        for (int i = 0; i < columns; i++) {
+            statement.append(i > 0 ? ", " : "").append(String.format("column_%04d", i)).append(suffix);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package app.util;
+
+import app.Benchmark;
+import javafx.scene.text.TextFlow;
+
+/**
+ * Benchmark of parsing ANSI console output into a {@link TextFlow} with {@link AnsiTextParser} and the previous
+ * {@link RegexAnsiTextParser}.
+ * <p>Two outputs are parsed: error messages, where every line has a colored, bold tag, a bold name and plain text
+ * separated by redundant reset sequences, and a table dump, where every cell of a row is written with its own
+ * sequences of the same color. The previous parser created a node for every piece of text between two sequences,
+ * while {@link AnsiTextParser} merges the pieces with the same style. The number of nodes and the time to create them
+ * and add them to the text flow are reported for both parsers.</p>
+ * Usage: {@code AnsiTextParserBenchmark [lines]}, 10,000 lines by default.
+ */
+public class AnsiTextParserBenchmark {
+
+    private static final int DEFAULT_LINES = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+
+        StringBuilder errors = new StringBuilder();
+        StringBuilder table = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            errors.append("\u001B[1;31m[ERROR]\u001B[0m Table \u001B[0m\u001B[1mtable_").append(i)
+                    .append("\u001B[0m\u001B[0m: row ").append(i).append("\u001B[0m\n");
+            table.append("\u001B[94m| \u001B[0m\u001B[94m").append(i).append("\u001B[0m\u001B[94m | \u001B[0m\u001B[94mname_").append(i)
+                    .append("\u001B[0m\u001B[94m | \u001B[0m\u001B[94m").append(i % 1000).append(".25\u001B[0m\u001B[94m |\u001B[0m\n");
+        }
+
+        for (String[] input : new String[][]{{"error messages", errors.toString()}, {"table dump", table.toString()}}) {
+            String text = input[1];
+            System.out.println(lines + " lines of " + input[0] + " (" + text.length() / 1024 + " KB)");
+
+            TextFlow regexFlow = new TextFlow();
+            RegexAnsiTextParser.parseAnsiText(text, regexFlow);
+            TextFlow flow = new TextFlow();
+            AnsiTextParser.parseAnsiText(text, flow);
+            System.out.printf("    nodes: %,d with RegexAnsiTextParser, %,d with AnsiTextParser%n",
+                    regexFlow.getChildren().size(), flow.getChildren().size());
+
+            Benchmark.Result regex = Benchmark.measure("RegexAnsiTextParser", () -> {
+                TextFlow textFlow = new TextFlow();
+                RegexAnsiTextParser.parseAnsiText(text, textFlow);
+                return textFlow.getChildren().size();
+            });
+            Benchmark.Result parser = Benchmark.measure("AnsiTextParser", () -> {
+                TextFlow textFlow = new TextFlow();
+                AnsiTextParser.parseAnsiText(text, textFlow);
+                return textFlow.getChildren().size();
+            });
+            Benchmark.printRatio("AnsiTextParser vs RegexAnsiTextParser", regex, parser);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package app.util;
+
+import javafx.scene.Node;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that {@link AnsiTextParser} styles random ANSI text the same as the previous {@link RegexAnsiTextParser}.
+ * <p>Every input is a random mix of text, line breaks, SGR sequences (including combined codes such as {@code 1;31})
+ * and escape sequences that are not SGR sequences. The nodes of the previous parser are merged into runs of the same
+ * style, since the new parser merges them while parsing, and the text, fill and CSS style of every run are compared.
+ * Zero-padded codes (e.g. {@code 01}) are not generated: the previous parser ignored them.</p>
+ * Usage: {@code AnsiTextParserEquivalence [inputs] [seed]}, 20,000 inputs by default. Exits with status 1 on the first difference.
+ */
+public class AnsiTextParserEquivalence {
+
+    private static final int DEFAULT_INPUTS = 20_000;
+
+    private static final String[] CODES = {"0", "1", "3", "4", "7", "31", "32", "33", "34", "35", "36", "37", "90", "92", "94",
+            "40", "41", "42", "43", "44", "45", "46", "47", "100", "1;31", "1;4", "3;32;41", "0;1"};
+
+    public static void main(String[] args) {
+        int inputs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_INPUTS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 3;
+        Random random = new Random(seed);
+
+        for (int i = 0; i < inputs; i++) {
+            String input = randomInput(random);
+            TextFlow textFlow = new TextFlow();
+            RegexAnsiTextParser.parseAnsiText(input, textFlow);
+            List<String> expected = mergeRuns(textFlow.getChildren());
+
+            List<String> actual = new ArrayList<>();
+            for (Text text : AnsiTextParser.createTextNodes(input)) {
+                actual.add(describe(text));
+            }
+
+            if (!expected.equals(actual)) {
+                System.out.println("Difference for input " + i + ": " + input.replace("\u001B", "ESC"));
+                System.out.println("  previous parser: " + expected);
+                System.out.println("  AnsiTextParser:  " + actual);
+                System.exit(1);
+            }
+        }
+        System.out.println("AnsiTextParser matches the previous parser on " + inputs + " random inputs (seed " + seed + ")");
+    }
+
+    /**
+     * Creates a random input of up to 12 pieces.
+     */
+    private static String randomInput(Random random) {
+        StringBuilder input = new StringBuilder();
+        int pieces = random.nextInt(13);
+        for (int i = 0; i < pieces; i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    input.append("\u001B[").append(CODES[random.nextInt(CODES.length)]).append('m');
+                    break;
+                case 2:
+                    // Not an SGR sequence, kept as text
+                    input.append(random.nextBoolean() ? "\u001B[x" : "\u001B[2");
+                    break;
+                case 3:
+                    input.append('\n');
+                    break;
+                default:
+                    input.append("ab", 0, 1 + random.nextInt(2));
+            }
+        }
+        return input.toString();
+    }
+
+    /**
+     * Merges adjacent nodes with the same style into runs.
+     */
+    private static List<String> mergeRuns(List<Node> nodes) {
+        List<String> runs = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        String runStyle = null;
+        for (Node node : nodes) {
+            Text text = (Text) node;
+            String style = text.getFill() + "|" + text.getStyle();
+            if (runStyle != null && !runStyle.equals(style)) {
+                runs.add(run + "|" + runStyle);
+                run.setLength(0);
+            }
+            runStyle = style;
+            run.append(text.getText());
+        }
+        if (runStyle != null) {
+            runs.add(run + "|" + runStyle);
+        }
+        return runs;
+    }
+
+    private static String describe(Text text) {
+        return text.getText() + "|" + text.getFill() + "|" + text.getStyle();
+    }
+}
@@ -0,0 +1,94 @@
+package app.util;
+
+import app.Benchmark;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Benchmark of reading a large SELECT result in the output file format.
+ * <p>The line-based parsing the file helpers used before {@link ResultReader} (reading every line with
+ * {@link Files#readAllLines} or {@link BufferedReader#readLine()} and splitting it with {@link String#split(String)})
+ * is compared with a single pass of {@link ResultReader} over the same file. Every value is consumed but no row is kept,
+ * so the allocations are those of parsing alone.</p>
+ * Usage: {@code ResultReaderBenchmark [rows]}, 1,000,000 rows by default.
+ */
+public class ResultReaderBenchmark {
+
+    private static final int DEFAULT_ROWS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        File file = writeResult(rows);
+        try {
+            System.out.println("Reading a result of " + rows + " rows (" + file.length() / (1024 * 1024) + " MB)");
+
+            Benchmark.Result readAllLines = Benchmark.measure("Files.readAllLines + String.split", () -> {
+                List<String> lines = Files.readAllLines(file.toPath());
+                long chars = 0;
+                for (String line : lines.subList(1, lines.size())) {
+                    for (String value : line.split("~")) {
+                        chars += value.length();
+                    }
+                }
+                return chars;
+            });
+
+            Benchmark.Result readLine = Benchmark.measure("BufferedReader.readLine + String.split", () -> {
+                long chars = 0;
+                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                    reader.readLine();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        for (String value : line.split("~")) {
+                            chars += value.length();
+                        }
+                    }
+                }
+                return chars;
+            });
+
+            Benchmark.Result resultReader = Benchmark.measure("ResultReader", () -> {
+                long chars = 0;
+                try (ResultReader reader = ResultReader.open(file)) {
+                    while (reader.nextTable()) {
+                        for (String header : reader.getHeaders()) {
+                            chars += header.length();
+                        }
+                        Iterator<String[]> iterator = reader.rows();
+                        while (iterator.hasNext()) {
+                            for (String value : iterator.next()) {
+                                chars += value.length();
+                            }
+                        }
+                    }
+                }
+                return chars;
+            });
+
+            Benchmark.printRatio("ResultReader vs Files.readAllLines", readAllLines, resultReader);
+            Benchmark.printRatio("ResultReader vs BufferedReader.readLine", readLine, resultReader);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes a result table with the given number of rows to a temporary file.
+     */
+    private static File writeResult(int rows) throws IOException {
+        File file = Files.createTempFile("sqleditor-benchmark-", ".txt").toFile();
+        file.deleteOnExit();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("\tResult\n");
+            writer.write("id~name~city~amount~\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + "~name" + i + "~city" + (i % 100) + "~" + (i % 1000) + ".25~\n");
+            }
+        }
+        return file;
+    }
+}
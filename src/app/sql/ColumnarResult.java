@@ -0,0 +1,370 @@
+package app.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Column-oriented representation of the result data of a SELECT query, used by {@link ResultModifier}.
+ * <p>Rows are split into columns once. Each column infers its type from its values: columns whose values are all
+ * integers are stored as {@code long[]}, columns whose values are all numbers as {@code double[]}, and the remaining
+ * columns as strings. The original strings are kept for display, so the result is shown exactly as returned by the database.</p>
+ * A result can be a view over a subset of the rows of another result (see {@link #select(int[])}).
+ */
+public class ColumnarResult {
+
+    /**
+     * The type of the values in a column.
+     */
+    public enum ColumnType {
+        LONG,
+        DOUBLE,
+        STRING
+    }
+
+    /**
+     * The columns of the result.
+     */
+    private final List<Column> columns;
+
+    /**
+     * The rows of the columns visible in this result, or {@code null} if all rows are visible in their original order.
+     */
+    private final int[] rowIndices;
+
+    /**
+     * The number of rows in the columns.
+     */
+    private final int columnLength;
+
+    /**
+     * Creates a new instance of {@link ColumnarResult}.
+     *
+     * @param columns      the columns of the result
+     * @param columnLength the number of rows in the columns
+     * @param rowIndices   the visible rows, or {@code null} for all rows
+     */
+    private ColumnarResult(List<Column> columns, int columnLength, int[] rowIndices) {
+        this.columns = columns;
+        this.columnLength = columnLength;
+        this.rowIndices = rowIndices;
+    }
+
+    /**
+     * Creates a columnar result from the given column names and rows.
+     * Missing values in short rows are treated as empty strings.
+     *
+     * @param headers the column names
+     * @param rows    the rows, each row holding one value per column
+     * @return the {@link ColumnarResult}
+     */
+    public static ColumnarResult fromRows(List<String> headers, List<String[]> rows) {
+        List<Column> columns = new ArrayList<>(headers.size());
+        for (int c = 0; c < headers.size(); c++) {
+            String[] values = new String[rows.size()];
+            for (int r = 0; r < values.length; r++) {
+                String[] row = rows.get(r);
+                values[r] = c < row.length ? row[c] : "";
+            }
+            columns.add(new Column(headers.get(c), values));
+        }
+        return new ColumnarResult(columns, rows.size(), null);
+    }
+
+    /**
+     * Returns a view of this result containing only the given rows, in the given order.
+     *
+     * @param rows the indices of the rows of the columns (see {@link #rowIndex(int)})
+     * @return the {@link ColumnarResult} view
+     */
+    public ColumnarResult select(int[] rows) {
+        return new ColumnarResult(columns, columnLength, rows);
+    }
+
+    /**
+     * Returns the number of visible rows.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowIndices != null ? rowIndices.length : columnLength;
+    }
+
+    /**
+     * Returns the index in the columns of the given visible row.
+     *
+     * @param row the visible row
+     * @return the index of the row in the columns
+     */
+    public int rowIndex(int row) {
+        return rowIndices != null ? rowIndices[row] : row;
+    }
+
+    /**
+     * Returns the indices in the columns of all visible rows.
+     *
+     * @return the row indices
+     */
+    public int[] rowIndices() {
+        int[] rows = new int[getRowCount()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = rowIndex(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the columns of the result.
+     *
+     * @return the {@link List} of columns
+     */
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Returns the column at the given index.
+     *
+     * @param index the index of the column
+     * @return the {@link Column}
+     */
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * Returns the index of the column with the given name.
+     *
+     * @param name the name of the column
+     * @return the index of the column, or -1 if the result has no such column
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the column names of the result.
+     *
+     * @return the {@link List} of column names
+     */
+    public List<String> getColumnNames() {
+        List<String> names = new ArrayList<>(columns.size());
+        for (Column column : columns) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Converts the visible rows back to rows of strings.
+     *
+     * @return the {@link List} of rows, each row holding one value per column
+     */
+    public List<String[]> toRows() {
+        int rowCount = getRowCount();
+        List<String[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            int row = rowIndex(i);
+            String[] values = new String[columns.size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = columns.get(c).getString(row);
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    /**
+     * A single typed column of the result.
+     */
+    public static class Column {
+
+        /**
+         * The name of the column.
+         */
+        private final String name;
+        /**
+         * The type inferred from the values of the column.
+         */
+        private final ColumnType type;
+        /**
+         * The values of the column as returned by the database.
+         */
+        private final String[] values;
+        /**
+         * The values of a {@link ColumnType#LONG} column, {@code null} for other types.
+         */
+        private final long[] longValues;
+        /**
+         * The values of a {@link ColumnType#DOUBLE} column, {@code null} for other types.
+         */
+        private final double[] doubleValues;
+
+        /**
+         * Creates a new column and infers its type from the given values.
+         *
+         * @param name   the name of the column
+         * @param values the values of the column
+         */
+        Column(String name, String[] values) {
+            this.name = name;
+            this.values = values;
+
+            long[] longs = new long[values.length];
+            int parsedLongs = 0;
+            while (parsedLongs < values.length && isLong(values[parsedLongs])) {
+                longs[parsedLongs] = Long.parseLong(values[parsedLongs]);
+                parsedLongs++;
+            }
+            if (values.length > 0 && parsedLongs == values.length) {
+                this.type = ColumnType.LONG;
+                this.longValues = longs;
+                this.doubleValues = null;
+                return;
+            }
+
+            double[] doubles = values.length > 0 ? parseDoubles(values) : null;
+            this.type = doubles != null ? ColumnType.DOUBLE : ColumnType.STRING;
+            this.longValues = null;
+            this.doubleValues = doubles;
+        }
+
+        /**
+         * Returns the name of the column.
+         *
+         * @return the name of the column
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the type of the column.
+         *
+         * @return the {@link ColumnType} of the column
+         */
+        public ColumnType getType() {
+            return type;
+        }
+
+        /**
+         * Checks if the column is numeric ({@link ColumnType#LONG} or {@link ColumnType#DOUBLE}).
+         *
+         * @return {@code true} if the column is numeric, {@code false} otherwise
+         */
+        public boolean isNumeric() {
+            return type != ColumnType.STRING;
+        }
+
+        /**
+         * Returns the value of the given row as returned by the database.
+         *
+         * @param row the index of the row in the column
+         * @return the value
+         */
+        public String getString(int row) {
+            return values[row];
+        }
+
+        /**
+         * Returns the value of the given row of a {@link ColumnType#LONG} column.
+         *
+         * @param row the index of the row in the column
+         * @return the value
+         */
+        public long getLong(int row) {
+            return longValues[row];
+        }
+
+        /**
+         * Returns the numeric value of the given row.
+         * Values of a {@link ColumnType#STRING} column are parsed, and {@link Double#NaN} is returned if that fails.
+         *
+         * @param row the index of the row in the column
+         * @return the numeric value, or {@link Double#NaN} if the value is not a number
+         */
+        public double getDouble(int row) {
+            switch (type) {
+                case LONG:
+                    return longValues[row];
+                case DOUBLE:
+                    return doubleValues[row];
+                default:
+                    try {
+                        return Double.parseDouble(values[row]);
+                    } catch (NumberFormatException e) {
+                        return Double.NaN;
+                    }
+            }
+        }
+
+        /**
+         * Compares the values of two rows of the column, numerically for numeric columns.
+         *
+         * @param row1 the index of the first row in the column
+         * @param row2 the index of the second row in the column
+         * @return a negative number, zero, or a positive number if the first value is less than, equal to, or greater than the second
+         */
+        public int compare(int row1, int row2) {
+            switch (type) {
+                case LONG:
+                    return Long.compare(longValues[row1], longValues[row2]);
+                case DOUBLE:
+                    return Double.compare(doubleValues[row1], doubleValues[row2]);
+                default:
+                    return values[row1].compareTo(values[row2]);
+            }
+        }
+
+        /**
+         * Checks if the given value is an integer that fits in a {@code long}, without throwing exceptions.
+         *
+         * @param value the value to check
+         * @return {@code true} if the value is an integer, {@code false} otherwise
+         */
+        private static boolean isLong(String value) {
+            int length = value.length();
+            int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+            // Up to 18 digits always fit in a long
+            if (length == start || length - start > 18) {
+                return false;
+            }
+            for (int i = start; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Parses all values as doubles.
+         *
+         * @param values the values to parse
+         * @return the parsed values, or {@code null} if any value is not a number
+         */
+        private static double[] parseDoubles(String[] values) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                String value = values[i];
+                // Reject values that Double.parseDouble accepts but are not numbers in a result ("NaN", "1d", " 1", ...)
+                if (value.isEmpty() || !Character.isDigit(value.charAt(value.length() - 1))
+                        || Character.isWhitespace(value.charAt(0))) {
+                    return null;
+                }
+                try {
+                    doubles[i] = Double.parseDouble(value);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return doubles;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package app.sql;
+
+import app.sql.exceptions.SpillException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Memory-bounded DISTINCT over the rows of a {@link ColumnarResult}.
+ * <p>Each row is reduced to a 128-bit fingerprint of its key values, which is kept in a primitive open-addressing
+ * hash table together with the first row that produced it. Full rows are compared only when two fingerprints match,
+ * so the result is exact and no key strings are built. The first row of every distinct combination is kept,
+ * in the order the rows were given.</p>
+ * When the table would exceed {@link ExecutionConfig#getDistinctMemoryLimit()}, the fingerprints are partitioned
+ * into temporary files and every partition is deduplicated on its own. Equal rows always have equal fingerprints
+ * and end up in the same partition, so the result is the same as without spilling.
+ */
+public class DistinctFilter {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(DistinctFilter.class.getName());
+
+    /**
+     * The memory used by one slot of the hash table (two fingerprint halves and a row).
+     */
+    private static final int BYTES_PER_SLOT = 2 * Long.BYTES + Integer.BYTES;
+
+    /**
+     * The size of one record in a spill partition (the position of the row and its fingerprint).
+     */
+    private static final int RECORD_BYTES = Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * The initial capacity of the hash table.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The maximum number of spill partitions.
+     */
+    private static final int MAX_PARTITIONS = 256;
+
+    /**
+     * Seeds of the two halves of the fingerprint.
+     */
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * The columns whose values are compared.
+     */
+    private final ColumnarResult.Column[] keyColumns;
+
+    /**
+     * The maximum number of distinct fingerprints kept in memory at once.
+     */
+    private final int maxEntries;
+
+    /**
+     * Creates a new instance of {@link DistinctFilter}.
+     *
+     * @param keyColumns the columns whose values are compared
+     */
+    public DistinctFilter(List<ColumnarResult.Column> keyColumns) {
+        this.keyColumns = keyColumns.toArray(new ColumnarResult.Column[0]);
+        // The table is kept at most half full
+        long entries = ExecutionConfig.getDistinctMemoryLimit() / (2L * BYTES_PER_SLOT);
+        this.maxEntries = (int) Math.max(1024, Math.min(entries, Integer.MAX_VALUE / 4));
+    }
+
+    /**
+     * Returns the first row of every distinct combination of key values, in the order of the given rows.
+     *
+     * @param rows the indices of the rows in the columns
+     * @return the indices of the distinct rows
+     * @throws SpillException if the temporary files cannot be written or read
+     */
+    public int[] filter(int[] rows) throws SpillException {
+        FingerprintTable table = new FingerprintTable();
+        int[] distinctRows = new int[rows.length];
+        int count = 0;
+        for (int row : rows) {
+            if (table.size() >= maxEntries) {
+                return filterWithSpill(rows);
+            }
+            if (table.add(fingerprint(row, SEED_HIGH), fingerprint(row, SEED_LOW), row)) {
+                distinctRows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(distinctRows, count);
+    }
+
+    /**
+     * Deduplicates the rows by writing their fingerprints to partition files and processing one partition at a time.
+     *
+     * @param rows the indices of the rows in the columns
+     * @return the indices of the distinct rows
+     * @throws SpillException if the temporary files cannot be written or read
+     */
+    private int[] filterWithSpill(int[] rows) throws SpillException {
+        int partitionCount = (int) Math.min(MAX_PARTITIONS, Math.max(2, 2L * rows.length / maxEntries));
+        LOGGER.info("DISTINCT exceeded the memory limit, spilling " + rows.length + " rows to " + partitionCount + " partitions");
+
+        File[] partitions = new File[partitionCount];
+        try {
+            DataOutputStream[] outputs = new DataOutputStream[partitionCount];
+            try {
+                for (int p = 0; p < partitionCount; p++) {
+                    partitions[p] = Files.createTempFile("sqleditor-distinct-", ".tmp").toFile();
+                    partitions[p].deleteOnExit();
+                    outputs[p] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partitions[p])));
+                }
+                for (int position = 0; position < rows.length; position++) {
+                    long high = fingerprint(rows[position], SEED_HIGH);
+                    long low = fingerprint(rows[position], SEED_LOW);
+                    // The low half selects the partition, the high half the slot in the hash table
+                    DataOutputStream output = outputs[(int) ((low >>> 1) % partitionCount)];
+                    output.writeInt(position);
+                    output.writeLong(high);
+                    output.writeLong(low);
+                }
+            } finally {
+                for (DataOutputStream output : outputs) {
+                    if (output != null) {
+                        output.close();
+                    }
+                }
+            }
+            for (File partition : partitions) {
+                SpillStatistics.recordRun(partition.length());
+            }
+
+            // Positions are written in increasing order, so every partition keeps the first row of each combination
+            BitSet kept = new BitSet(rows.length);
+            for (File partition : partitions) {
+                long records = partition.length() / RECORD_BYTES;
+                FingerprintTable table = new FingerprintTable();
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(partition)))) {
+                    for (long r = 0; r < records; r++) {
+                        int position = input.readInt();
+                        long high = input.readLong();
+                        long low = input.readLong();
+                        if (table.add(high, low, rows[position])) {
+                            kept.set(position);
+                        }
+                    }
+                }
+                if (table.size() > maxEntries) {
+                    LOGGER.warning("DISTINCT partition with " + table.size() + " distinct rows exceeds the memory limit");
+                }
+            }
+
+            int[] distinctRows = new int[kept.cardinality()];
+            int count = 0;
+            for (int position = kept.nextSetBit(0); position >= 0; position = kept.nextSetBit(position + 1)) {
+                distinctRows[count++] = rows[position];
+            }
+            return distinctRows;
+        } catch (IOException e) {
+            LOGGER.severe("[ERROR] Error spilling DISTINCT rows: " + e.getMessage());
+            throw new SpillException("Unable to spill DISTINCT rows to disk.", e.getMessage());
+        } finally {
+            for (File partition : partitions) {
+                if (partition != null && !partition.delete()) {
+                    LOGGER.warning("Unable to delete temporary file " + partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes one 64-bit half of the fingerprint of the key values of a row.
+     * The length of every value is mixed in, so values shifted between columns produce different fingerprints.
+     *
+     * @param row  the index of the row in the columns
+     * @param seed the seed of the half
+     * @return the fingerprint half
+     */
+    private long fingerprint(int row, long seed) {
+        long hash = seed;
+        for (ColumnarResult.Column column : keyColumns) {
+            String value = column.getString(row);
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            hash = mix(hash ^ length);
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizes a hash so that every input bit affects every output bit.
+     *
+     * @param hash the hash to mix
+     * @return the mixed hash
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Checks if two rows have equal key values.
+     *
+     * @param row1 the index of the first row in the columns
+     * @param row2 the index of the second row in the columns
+     * @return {@code true} if the key values are equal, {@code false} otherwise
+     */
+    private boolean sameKey(int row1, int row2) {
+        for (ColumnarResult.Column column : keyColumns) {
+            if (!column.getString(row1).equals(column.getString(row2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open-addressing hash table of fingerprints with linear probing, stored in primitive arrays.
+     * Each slot holds a fingerprint and the first row that produced it.
+     */
+    private class FingerprintTable {
+        private long[] highs;
+        private long[] lows;
+        private int[] rows;
+        private int size = 0;
+
+        FingerprintTable() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Adds the fingerprint of a row unless a row with the same key values is already in the table.
+         *
+         * @param high the high half of the fingerprint
+         * @param low  the low half of the fingerprint
+         * @param row  the index of the row in the columns
+         * @return {@code true} if the row is the first with its key values, {@code false} otherwise
+         */
+        boolean add(long high, long low, int row) {
+            int mask = rows.length - 1;
+            int slot = (int) high & mask;
+            while (rows[slot] != -1) {
+                // Fingerprints are only a filter, equal fingerprints of different rows are kept apart
+                if (highs[slot] == high && lows[slot] == low && sameKey(rows[slot], row)) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            highs[slot] = high;
+            lows[slot] = low;
+            rows[slot] = row;
+            if (++size * 2 > rows.length) {
+                resize();
+            }
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void allocate(int capacity) {
+            highs = new long[capacity];
+            lows = new long[capacity];
+            rows = new int[capacity];
+            Arrays.fill(rows, -1);
+        }
+
+        private void resize() {
+            long[] oldHighs = highs;
+            long[] oldLows = lows;
+            int[] oldRows = rows;
+            allocate(oldRows.length * 2);
+            int mask = rows.length - 1;
+            for (int i = 0; i < oldRows.length; i++) {
+                if (oldRows[i] != -1) {
+                    int slot = (int) oldHighs[i] & mask;
+                    while (rows[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    highs[slot] = oldHighs[i];
+                    lows[slot] = oldLows[i];
+                    rows[slot] = oldRows[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package app.sql;
+
+/**
+ * Utility class for storing the settings of the query execution in the application.
+ * <p>The initial values can be overridden with system properties (e.g. {@code -Dsqleditor.parallelSort=false}),
+ * which allows comparing the execution strategies without rebuilding the application.</p>
+ */
+public class ExecutionConfig {
+
+    /**
+     * The default minimum number of rows for sorting in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_SORT_THRESHOLD = 100_000;
+    /**
+     * The default minimum number of rows for aggregating in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_AGGREGATION_THRESHOLD = 100_000;
+    /**
+     * The default memory limit of DISTINCT in bytes.
+     */
+    public static final long DEFAULT_DISTINCT_MEMORY_LIMIT = 64L * 1024 * 1024;
+    /**
+     * The default memory limit of ORDER BY in bytes.
+     */
+    public static final long DEFAULT_SORT_MEMORY_LIMIT = 128L * 1024 * 1024;
+    /**
+     * The default maximum number of statements in the plan cache.
+     */
+    public static final int DEFAULT_PLAN_CACHE_SIZE = 256;
+    /**
+     * The default memory limit of the result cache in bytes.
+     */
+    public static final long DEFAULT_RESULT_CACHE_MEMORY_LIMIT = 64L * 1024 * 1024;
+    /**
+     * The default maximum number of INSERT statements executed in one native call.
+     */
+    public static final int DEFAULT_INSERT_BATCH_SIZE = 1000;
+    /**
+     * The default minimum number of rows of a displayed result for paging its rows from disk.
+     */
+    public static final int DEFAULT_RESULT_PAGING_THRESHOLD = 50_000;
+    /**
+     * The default number of rows of a SELECT result fetched at once into the result grid.
+     */
+    public static final int DEFAULT_RESULT_FETCH_SIZE = 1000;
+
+    /**
+     * Flag indicating whether large results are sorted in parallel.
+     */
+    private static volatile boolean parallelSortEnabled;
+    /**
+     * The minimum number of rows for sorting in parallel.
+     */
+    private static volatile int parallelSortThreshold;
+    /**
+     * Flag indicating whether large inputs of GROUP BY and aggregate functions are aggregated in parallel.
+     */
+    private static volatile boolean parallelAggregationEnabled;
+    /**
+     * The minimum number of rows for aggregating in parallel.
+     */
+    private static volatile int parallelAggregationThreshold;
+    /**
+     * The memory DISTINCT may use before spilling to temporary files, in bytes.
+     */
+    private static volatile long distinctMemoryLimit;
+    /**
+     * The memory the ORDER BY sort state may use before sorting externally, in bytes.
+     */
+    private static volatile long sortMemoryLimit;
+    /**
+     * The maximum number of prepared statements kept in the {@link PlanCache}.
+     */
+    private static volatile int planCacheSize;
+    /**
+     * Flag indicating whether the results of SELECT statements are cached until their tables are modified.
+     */
+    private static volatile boolean resultCacheEnabled;
+    /**
+     * The memory the cached results may use, in bytes.
+     */
+    private static volatile long resultCacheMemoryLimit;
+    /**
+     * The maximum number of consecutive INSERT statements into the same table executed in one native call.
+     */
+    private static volatile int insertBatchSize;
+    /**
+     * The minimum number of rows of a displayed SELECT result for spooling its rows to disk and paging them into the result grid.
+     */
+    private static volatile int resultPagingThreshold;
+    /**
+     * The number of rows of a SELECT result without query modifiers shown first and then fetched at once as the grid is scrolled.
+     */
+    private static volatile int resultFetchSize;
+
+    static {
+        parallelSortEnabled = Boolean.parseBoolean(System.getProperty("sqleditor.parallelSort", "true"));
+        parallelSortThreshold = Integer.getInteger("sqleditor.parallelSortThreshold", DEFAULT_PARALLEL_SORT_THRESHOLD);
+        parallelAggregationEnabled = Boolean.parseBoolean(System.getProperty("sqleditor.parallelAggregation", "true"));
+        parallelAggregationThreshold = Integer.getInteger("sqleditor.parallelAggregationThreshold", DEFAULT_PARALLEL_AGGREGATION_THRESHOLD);
+        distinctMemoryLimit = Long.getLong("sqleditor.distinctMemoryLimit", DEFAULT_DISTINCT_MEMORY_LIMIT);
+        sortMemoryLimit = Long.getLong("sqleditor.sortMemoryLimit", DEFAULT_SORT_MEMORY_LIMIT);
+        planCacheSize = Integer.getInteger("sqleditor.planCacheSize", DEFAULT_PLAN_CACHE_SIZE);
+        resultCacheEnabled = Boolean.parseBoolean(System.getProperty("sqleditor.resultCache", "true"));
+        resultCacheMemoryLimit = Long.getLong("sqleditor.resultCacheMemoryLimit", DEFAULT_RESULT_CACHE_MEMORY_LIMIT);
+        insertBatchSize = Integer.getInteger("sqleditor.insertBatchSize", DEFAULT_INSERT_BATCH_SIZE);
+        resultPagingThreshold = Integer.getInteger("sqleditor.resultPagingThreshold", DEFAULT_RESULT_PAGING_THRESHOLD);
+        resultFetchSize = Integer.getInteger("sqleditor.resultFetchSize", DEFAULT_RESULT_FETCH_SIZE);
+    }
+
+    /**
+     * Checks if large results are sorted in parallel.
+     *
+     * @return {@code true} if parallel sorting is enabled, {@code false} otherwise
+     */
+    public static boolean isParallelSortEnabled() {
+        return parallelSortEnabled;
+    }
+
+    /**
+     * Enables or disables sorting large results in parallel.
+     *
+     * @param enabled {@code true} to enable parallel sorting, {@code false} to always sort sequentially
+     */
+    public static void setParallelSortEnabled(boolean enabled) {
+        ExecutionConfig.parallelSortEnabled = enabled;
+    }
+
+    /**
+     * Retrieves the minimum number of rows for sorting in parallel.
+     *
+     * @return the minimum number of rows for sorting in parallel
+     */
+    public static int getParallelSortThreshold() {
+        return parallelSortThreshold;
+    }
+
+    /**
+     * Sets the minimum number of rows for sorting in parallel.
+     *
+     * @param threshold the new minimum number of rows for sorting in parallel
+     */
+    public static void setParallelSortThreshold(int threshold) {
+        ExecutionConfig.parallelSortThreshold = threshold;
+    }
+
+    /**
+     * Checks if large inputs of GROUP BY and aggregate functions are aggregated in parallel.
+     *
+     * @return {@code true} if parallel aggregation is enabled, {@code false} otherwise
+     */
+    public static boolean isParallelAggregationEnabled() {
+        return parallelAggregationEnabled;
+    }
+
+    /**
+     * Enables or disables aggregating large inputs in parallel.
+     *
+     * @param enabled {@code true} to enable parallel aggregation, {@code false} to always aggregate sequentially
+     */
+    public static void setParallelAggregationEnabled(boolean enabled) {
+        ExecutionConfig.parallelAggregationEnabled = enabled;
+    }
+
+    /**
+     * Retrieves the minimum number of rows for aggregating in parallel.
+     *
+     * @return the minimum number of rows for aggregating in parallel
+     */
+    public static int getParallelAggregationThreshold() {
+        return parallelAggregationThreshold;
+    }
+
+    /**
+     * Sets the minimum number of rows for aggregating in parallel.
+     *
+     * @param threshold the new minimum number of rows for aggregating in parallel
+     */
+    public static void setParallelAggregationThreshold(int threshold) {
+        ExecutionConfig.parallelAggregationThreshold = threshold;
+    }
+
+    /**
+     * Retrieves the memory DISTINCT may use before spilling to temporary files.
+     *
+     * @return the memory limit of DISTINCT in bytes
+     */
+    public static long getDistinctMemoryLimit() {
+        return distinctMemoryLimit;
+    }
+
+    /**
+     * Sets the memory DISTINCT may use before spilling to temporary files.
+     *
+     * @param limit the new memory limit of DISTINCT in bytes
+     */
+    public static void setDistinctMemoryLimit(long limit) {
+        ExecutionConfig.distinctMemoryLimit = limit;
+    }
+
+    /**
+     * Retrieves the memory the ORDER BY sort state may use before sorting externally.
+     * <p>The sort state consists of the sort keys and row positions. A result whose sort state exceeds the limit
+     * is sorted by {@link ExternalSorter}, which also writes the values of the rows to disk and pages the sorted result
+     * back from there.</p>
+     *
+     * @return the memory limit of ORDER BY in bytes
+     */
+    public static long getSortMemoryLimit() {
+        return sortMemoryLimit;
+    }
+
+    /**
+     * Sets the memory the ORDER BY sort state may use before sorting externally.
+     *
+     * @param limit the new memory limit of ORDER BY in bytes
+     */
+    public static void setSortMemoryLimit(long limit) {
+        ExecutionConfig.sortMemoryLimit = limit;
+    }
+
+    /**
+     * Retrieves the maximum number of prepared statements kept in the plan cache.
+     *
+     * @return the size of the plan cache
+     */
+    public static int getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of prepared statements kept in the plan cache.
+     * The least recently used statements are evicted when the cache is full.
+     *
+     * @param size the new size of the plan cache, 0 disables caching
+     */
+    public static void setPlanCacheSize(int size) {
+        ExecutionConfig.planCacheSize = size;
+    }
+
+    /**
+     * Checks if the results of SELECT statements are cached.
+     *
+     * @return {@code true} if the result cache is enabled, {@code false} otherwise
+     */
+    public static boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    /**
+     * Enables or disables caching the results of SELECT statements.
+     *
+     * @param enabled {@code true} to enable the result cache, {@code false} to always execute SELECT statements
+     */
+    public static void setResultCacheEnabled(boolean enabled) {
+        ExecutionConfig.resultCacheEnabled = enabled;
+        if (!enabled) {
+            ResultCache.clear();
+        }
+    }
+
+    /**
+     * Retrieves the memory the cached results may use.
+     *
+     * @return the memory limit of the result cache in bytes
+     */
+    public static long getResultCacheMemoryLimit() {
+        return resultCacheMemoryLimit;
+    }
+
+    /**
+     * Sets the memory the cached results may use.
+     * The least recently used results are evicted when the limit is exceeded.
+     *
+     * @param limit the new memory limit of the result cache in bytes
+     */
+    public static void setResultCacheMemoryLimit(long limit) {
+        ExecutionConfig.resultCacheMemoryLimit = limit;
+    }
+
+    /**
+     * Retrieves the maximum number of INSERT statements executed in one native call.
+     *
+     * @return the size of the INSERT batches
+     */
+    public static int getInsertBatchSize() {
+        return insertBatchSize;
+    }
+
+    /**
+     * Sets the maximum number of consecutive INSERT statements into the same table executed in one native call.
+     *
+     * @param size the new size of the INSERT batches, 1 or less executes every statement separately
+     */
+    public static void setInsertBatchSize(int size) {
+        ExecutionConfig.insertBatchSize = size;
+    }
+
+    /**
+     * Retrieves the minimum number of rows of a displayed result for paging its rows from disk.
+     *
+     * @return the minimum number of rows for paging
+     */
+    public static int getResultPagingThreshold() {
+        return resultPagingThreshold;
+    }
+
+    /**
+     * Sets the minimum number of rows of a displayed SELECT result for spooling its rows to disk and paging them into the result grid.
+     *
+     * @param threshold the new minimum number of rows for paging, 0 or less keeps all results in memory
+     */
+    public static void setResultPagingThreshold(int threshold) {
+        ExecutionConfig.resultPagingThreshold = threshold;
+    }
+
+    /**
+     * Retrieves the number of rows of a SELECT result fetched at once into the result grid.
+     *
+     * @return the number of rows fetched at once
+     */
+    public static int getResultFetchSize() {
+        return resultFetchSize;
+    }
+
+    /**
+     * Sets the number of rows of a SELECT result without query modifiers shown first and then fetched at once as the grid is scrolled.
+     *
+     * @param size the new number of rows fetched at once, 0 or less always returns all rows at once
+     */
+    public static void setResultFetchSize(int size) {
+        ExecutionConfig.resultFetchSize = size;
+    }
+}
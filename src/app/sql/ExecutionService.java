@@ -0,0 +1,90 @@
+package app.sql;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Runs SQL scripts on a single background worker thread, so the JavaFX application thread
+ * stays responsive while statements are executed in the native database.
+ * <p>Only one script runs at a time. A running script can be asked to stop with {@link #requestStop()};
+ * the script checks {@link #isStopRequested()} between statements, so the statement being executed is always completed.</p>
+ */
+public class ExecutionService {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ExecutionService.class.getName());
+
+    /**
+     * The worker thread executing the scripts. All native calls of a script are made on this thread.
+     */
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sql-execution");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Flag indicating whether a script is being executed.
+     */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Flag indicating whether the running script should stop at the next statement boundary.
+     */
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+
+    /**
+     * Submits the given script to the worker thread.
+     *
+     * @param script the script to execute
+     * @return {@code true} if the script was submitted, {@code false} if another script is still running
+     */
+    public boolean submit(Runnable script) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested.set(false);
+        worker.execute(() -> {
+            try {
+                script.run();
+            } catch (Throwable e) {
+                // The worker thread is kept alive for the next script
+                LOGGER.severe("[ERROR] Script execution failed: " + e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Asks the running script to stop after the statement that is currently being executed.
+     */
+    public void requestStop() {
+        if (running.get()) {
+            stopRequested.set(true);
+        }
+    }
+
+    /**
+     * Checks if the running script was asked to stop.
+     *
+     * @return {@code true} if the script should stop at the next statement boundary, {@code false} otherwise
+     */
+    public boolean isStopRequested() {
+        return stopRequested.get();
+    }
+
+    /**
+     * Checks if a script is being executed.
+     *
+     * @return {@code true} if a script is running, {@code false} otherwise
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,268 @@
+package app.sql;
+
+import app.sql.exceptions.SpillException;
+import app.util.PagedRows;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+/**
+ * External merge sort for ORDER BY results whose sort state does not fit in {@link ExecutionConfig#getSortMemoryLimit()}.
+ * <p>The rows are split into runs that are sorted in memory by {@link RowSorter} and written to temporary files
+ * in a compact binary format: the sort keys (a {@code long}, a {@code double} or a length-prefixed UTF-8 string,
+ * depending on the column type) followed by all values of the row. The runs are then merged with a k-way merge
+ * that writes the rows in the LIMIT and OFFSET range straight to a {@link PagedRows} file, so at most one record per run
+ * is held in memory and the sorted result is paged from disk by the result grid instead of being copied to the heap.</p>
+ * <p>The input is still a whole result returned by the native database, so the unsorted {@link ColumnarResult}
+ * is in memory while the runs are written; it is released as soon as the sort returns.</p>
+ * Runs hold consecutive rows and ties are broken by the run, so the sort is stable like {@link RowSorter#sort}.
+ */
+public class ExternalSorter {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ExternalSorter.class.getName());
+
+    /**
+     * The size of the buffers of the run files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Sorts the given rows by the given columns, writing sorted runs of at most {@code runLength} rows to disk,
+     * and returns the sorted rows from {@code from} (inclusive) to {@code to} (exclusive).
+     *
+     * @param data      the result holding the rows
+     * @param rows      the indices of the rows in the columns
+     * @param columns   the columns to sort by, in order of precedence
+     * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+     * @param runLength the maximum number of rows sorted in memory at once
+     * @param from      the position of the first sorted row to return
+     * @param to        the position after the last sorted row to return
+     * @return the values of the sorted rows, paged from disk
+     * @throws SpillException if the run files or the result file cannot be written or read
+     */
+    public static PagedRows sort(ColumnarResult data, int[] rows, ColumnarResult.Column[] columns, boolean[] ascending,
+                                 int runLength, int from, int to) throws SpillException {
+        int runCount = (rows.length + runLength - 1) / runLength;
+        LOGGER.info("ORDER BY exceeded the memory limit, sorting " + rows.length + " rows in " + runCount + " runs");
+
+        List<ColumnarResult.Column> values = data.getColumns();
+        List<File> runFiles = new ArrayList<>(runCount);
+        List<RunReader> readers = new ArrayList<>(runCount);
+        PagedRows.Writer writer = null;
+        try {
+            for (int start = 0; start < rows.length; start += runLength) {
+                int end = Math.min(start + runLength, rows.length);
+                int[] run = new int[end - start];
+                System.arraycopy(rows, start, run, 0, run.length);
+                File runFile = Files.createTempFile("sqleditor-sort-", ".tmp").toFile();
+                runFile.deleteOnExit();
+                runFiles.add(runFile);
+                writeRun(runFile, RowSorter.sortInMemory(run, columns, ascending), columns, values);
+                SpillStatistics.recordRun(runFile.length());
+            }
+
+            PriorityQueue<RunReader> heads = new PriorityQueue<>(Math.max(1, runCount), (reader1, reader2) -> {
+                int comparison = reader1.compareTo(reader2, ascending);
+                return comparison != 0 ? comparison : Integer.compare(reader1.run, reader2.run);
+            });
+            for (int run = 0; run < runFiles.size(); run++) {
+                RunReader reader = new RunReader(runFiles.get(run), run, columns, values.size());
+                readers.add(reader);
+                if (reader.next()) {
+                    heads.add(reader);
+                }
+            }
+
+            writer = new PagedRows.Writer();
+            for (int position = 0; position < to && !heads.isEmpty(); position++) {
+                RunReader reader = heads.poll();
+                if (position >= from) {
+                    writer.write(reader.values);
+                }
+                if (reader.next()) {
+                    heads.add(reader);
+                }
+            }
+            PagedRows sortedRows = writer.finish();
+            writer = null;
+            return sortedRows;
+        } catch (IOException e) {
+            LOGGER.severe("[ERROR] Error spilling ORDER BY rows: " + e.getMessage());
+            throw new SpillException("Unable to spill ORDER BY rows to disk.", e.getMessage());
+        } finally {
+            if (writer != null) {
+                writer.abort();
+            }
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+            for (File runFile : runFiles) {
+                if (!runFile.delete()) {
+                    LOGGER.warning("Unable to delete temporary file " + runFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a sorted run to a file.
+     *
+     * @param file    the run file
+     * @param rows    the indices of the rows in sorted order
+     * @param columns the columns to sort by
+     * @param values  all columns of the result
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeRun(File file, int[] rows, ColumnarResult.Column[] columns, List<ColumnarResult.Column> values) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE))) {
+            for (int row : rows) {
+                for (ColumnarResult.Column column : columns) {
+                    switch (column.getType()) {
+                        case LONG:
+                            output.writeLong(column.getLong(row));
+                            break;
+                        case DOUBLE:
+                            output.writeDouble(column.getDouble(row));
+                            break;
+                        default:
+                            writeString(output, column.getString(row));
+                    }
+                }
+                for (ColumnarResult.Column column : values) {
+                    writeString(output, column.getString(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string, or a length of -1 for {@code null}.
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the records of a run file one at a time.
+     */
+    private static class RunReader {
+        private final DataInputStream input;
+        private final int run;
+        private final ColumnarResult.Column[] columns;
+
+        /**
+         * The current record: its sort keys (only the array matching the column type is used) and the values of the row.
+         */
+        private final long[] longKeys;
+        private final double[] doubleKeys;
+        private final String[] stringKeys;
+        private String[] values;
+        private final int valueCount;
+
+        RunReader(File file, int run, ColumnarResult.Column[] columns, int valueCount) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            this.run = run;
+            this.columns = columns;
+            this.longKeys = new long[columns.length];
+            this.doubleKeys = new double[columns.length];
+            this.stringKeys = new String[columns.length];
+            this.valueCount = valueCount;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return {@code true} if a record was read, {@code false} at the end of the run
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                try {
+                    switch (columns[i].getType()) {
+                        case LONG:
+                            longKeys[i] = input.readLong();
+                            break;
+                        case DOUBLE:
+                            doubleKeys[i] = input.readDouble();
+                            break;
+                        default:
+                            stringKeys[i] = readString(input);
+                    }
+                } catch (EOFException e) {
+                    if (i == 0) {
+                        return false;
+                    }
+                    throw e;
+                }
+            }
+            // A new array per row, the written row is not read back while the merge runs
+            values = new String[valueCount];
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = readString(input);
+            }
+            return true;
+        }
+
+        /**
+         * Compares the current records of two runs by their sort keys.
+         *
+         * @param other     the other run
+         * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+         * @return a negative number, zero, or a positive number if this record sorts before, equal to, or after the other
+         */
+        int compareTo(RunReader other, boolean[] ascending) {
+            for (int i = 0; i < columns.length; i++) {
+                int comparison;
+                switch (columns[i].getType()) {
+                    case LONG:
+                        comparison = Long.compare(longKeys[i], other.longKeys[i]);
+                        break;
+                    case DOUBLE:
+                        comparison = Double.compare(doubleKeys[i], other.doubleKeys[i]);
+                        break;
+                    default:
+                        comparison = stringKeys[i].compareTo(other.stringKeys[i]);
+                }
+                if (comparison != 0) {
+                    return ascending[i] ? comparison : -comparison;
+                }
+            }
+            return 0;
+        }
+
+        void close() {
+            try {
+                input.close();
+            } catch (IOException e) {
+                LOGGER.warning("Unable to close run file: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package app.sql;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntPredicate;
+
+/**
+ * Single-pass hash aggregation for GROUP BY and aggregate functions.
+ * <p>Rows are added one by one with {@link #accumulate(int)}. Each group is identified by the values of the key columns
+ * and holds only primitive accumulators (row count, numeric count and sum, and the rows holding the minimum and maximum)
+ * in arrays indexed by the group id, so the memory used is proportional to the number of groups, not rows.</p>
+ * Without key columns all rows form a single group, which is also reported for an empty input (e.g. COUNT(*) = 0).
+ * <p>Large inputs are split into chunks that are aggregated into partial aggregators on the common {@link ForkJoinPool}
+ * and merged with {@link #merge(HashAggregator)} (see {@link #aggregate}).</p>
+ * The columns of the groups can be read as typed values with {@link #getColumn(int)}, so the groups can be filtered
+ * (e.g. by HAVING) on the exact accumulated values before their result rows are formatted.
+ */
+public class HashAggregator {
+
+    /**
+     * Typed view of one column of the aggregated groups, read directly from the accumulators of the groups.
+     */
+    public interface GroupColumn {
+
+        /**
+         * Checks if the values of the column are numbers (COUNT, SUM, AVG, and other columns over numeric columns).
+         *
+         * @return {@code true} if the column is numeric, {@code false} otherwise
+         */
+        boolean isNumeric();
+
+        /**
+         * Returns the exact numeric value of the column for a group, e.g. the unrounded average for AVG.
+         *
+         * @param group the id of the group
+         * @return the numeric value, or {@link Double#NaN} if the value is not a number
+         */
+        double getDouble(int group);
+
+        /**
+         * Returns the value of the column for a group as shown in the result.
+         *
+         * @param group the id of the group
+         * @return the value
+         */
+        String getString(int group);
+    }
+
+    /**
+     * The initial capacity of the accumulator arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Chunks shorter than this are never split into parallel tasks.
+     */
+    private static final int MIN_PARALLEL_CHUNK = 16384;
+
+    /**
+     * The columns whose values identify a group.
+     */
+    private final ColumnarResult.Column[] keyColumns;
+    /**
+     * The aggregate functions and the columns they are applied to ({@code null} if the column does not exist).
+     */
+    private final AggregateFunction[] functions;
+    private final ColumnarResult.Column[] functionColumns;
+
+    /**
+     * The ids of the groups by their key.
+     */
+    private final Map<String, Integer> groupIds = new HashMap<>();
+    /**
+     * Builder for the keys of groups with more than one key column.
+     */
+    private final StringBuilder keyBuilder = new StringBuilder();
+    /**
+     * The number of groups.
+     */
+    private int groupCount = 0;
+
+    /**
+     * For each group: the key, the first row of the group and the number of rows.
+     */
+    private String[] groupKeys = new String[INITIAL_CAPACITY];
+    private int[] firstRows = new int[INITIAL_CAPACITY];
+    private long[] rowCounts = new long[INITIAL_CAPACITY];
+    /**
+     * For each function and group: the number and sum of the numeric values (SUM, AVG)
+     * and the row holding the minimum or maximum value (MIN, MAX).
+     */
+    private final long[][] numericCounts;
+    private final double[][] sums;
+    private final int[][] bestRows;
+
+    /**
+     * Creates a new instance of {@link HashAggregator}.
+     *
+     * @param keyColumns      the columns whose values identify a group, empty to aggregate all rows into one group
+     * @param functions       the aggregate functions
+     * @param functionColumns the columns the functions are applied to ({@code null} if the column does not exist)
+     */
+    public HashAggregator(List<ColumnarResult.Column> keyColumns, List<AggregateFunction> functions, List<ColumnarResult.Column> functionColumns) {
+        this.keyColumns = keyColumns.toArray(new ColumnarResult.Column[0]);
+        this.functions = functions.toArray(new AggregateFunction[0]);
+        this.functionColumns = functionColumns.toArray(new ColumnarResult.Column[0]);
+        this.numericCounts = new long[this.functions.length][];
+        this.sums = new double[this.functions.length][];
+        this.bestRows = new int[this.functions.length][];
+        for (int f = 0; f < this.functions.length; f++) {
+            switch (this.functions[f].getFunction()) {
+                case "SUM":
+                case "AVG":
+                    numericCounts[f] = new long[INITIAL_CAPACITY];
+                    sums[f] = new double[INITIAL_CAPACITY];
+                    break;
+                case "MIN":
+                case "MAX":
+                    bestRows[f] = new int[INITIAL_CAPACITY];
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Aggregates the rows of the given result, in parallel chunks if the result has at least
+     * {@link ExecutionConfig#getParallelAggregationThreshold()} rows and parallel aggregation is enabled.
+     *
+     * @param data            the result data
+     * @param keyColumns      the columns whose values identify a group, empty to aggregate all rows into one group
+     * @param functions       the aggregate functions
+     * @param functionColumns the columns the functions are applied to ({@code null} if the column does not exist)
+     * @return the {@link HashAggregator} holding the aggregated groups
+     */
+    public static HashAggregator aggregate(ColumnarResult data, List<ColumnarResult.Column> keyColumns, List<AggregateFunction> functions, List<ColumnarResult.Column> functionColumns) {
+        int rowCount = data.getRowCount();
+        if (ExecutionConfig.isParallelAggregationEnabled() && rowCount >= ExecutionConfig.getParallelAggregationThreshold()) {
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            int chunkSize = Math.max(MIN_PARALLEL_CHUNK, rowCount / (parallelism * 4));
+            return ForkJoinPool.commonPool().invoke(new ParallelAggregation(data, keyColumns, functions, functionColumns, 0, rowCount, chunkSize));
+        }
+
+        HashAggregator aggregator = new HashAggregator(keyColumns, functions, functionColumns);
+        for (int i = 0; i < rowCount; i++) {
+            aggregator.accumulate(data.rowIndex(i));
+        }
+        return aggregator;
+    }
+
+    /**
+     * Adds a row to its group and updates the accumulators of the group.
+     *
+     * @param row the index of the row in the columns
+     */
+    public void accumulate(int row) {
+        int group = groupOf(row);
+        rowCounts[group]++;
+
+        for (int f = 0; f < functions.length; f++) {
+            ColumnarResult.Column column = functionColumns[f];
+            if (column == null) {
+                continue;
+            }
+            switch (functions[f].getFunction()) {
+                case "SUM":
+                case "AVG":
+                    double value = column.getDouble(row);
+                    if (!Double.isNaN(value)) {
+                        sums[f][group] += value;
+                        numericCounts[f][group]++;
+                    }
+                    break;
+                case "MIN":
+                    if (column.compare(row, bestRows[f][group]) < 0) {
+                        bestRows[f][group] = row;
+                    }
+                    break;
+                case "MAX":
+                    if (column.compare(row, bestRows[f][group]) > 0) {
+                        bestRows[f][group] = row;
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Merges the groups of another aggregator over the same columns into this one.
+     * <p>The other aggregator must have aggregated rows that come after the rows of this one,
+     * so the groups stay in the order they were first seen and ties of MIN and MAX keep the earlier row.</p>
+     *
+     * @param other the aggregator to merge
+     */
+    public void merge(HashAggregator other) {
+        for (int otherGroup = 0; otherGroup < other.groupCount; otherGroup++) {
+            Integer existing = groupIds.get(other.groupKeys[otherGroup]);
+            int group = existing != null ? existing : addGroup(other.groupKeys[otherGroup], other.firstRows[otherGroup]);
+            rowCounts[group] += other.rowCounts[otherGroup];
+
+            for (int f = 0; f < functions.length; f++) {
+                ColumnarResult.Column column = functionColumns[f];
+                if (column == null) {
+                    continue;
+                }
+                switch (functions[f].getFunction()) {
+                    case "SUM":
+                    case "AVG":
+                        sums[f][group] += other.sums[f][otherGroup];
+                        numericCounts[f][group] += other.numericCounts[f][otherGroup];
+                        break;
+                    case "MIN":
+                        if (existing == null || column.compare(other.bestRows[f][otherGroup], bestRows[f][group]) < 0) {
+                            bestRows[f][group] = other.bestRows[f][otherGroup];
+                        }
+                        break;
+                    case "MAX":
+                        if (existing == null || column.compare(other.bestRows[f][otherGroup], bestRows[f][group]) > 0) {
+                            bestRows[f][group] = other.bestRows[f][otherGroup];
+                        }
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of groups.
+     *
+     * @return the number of groups
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Returns a typed view of a column of the result rows.
+     *
+     * @param index the index of the column in the result rows: the key columns followed by the aggregate functions
+     * @return the {@link GroupColumn}
+     */
+    public GroupColumn getColumn(int index) {
+        if (index < keyColumns.length) {
+            return new KeyColumn(keyColumns[index]);
+        }
+        return new FunctionColumn(index - keyColumns.length);
+    }
+
+    /**
+     * Returns the result rows, one per group in the order the groups were first seen.
+     * Each row contains the values of the key columns followed by the results of the aggregate functions.
+     *
+     * @return the {@link List} of result rows
+     */
+    public List<String[]> results() {
+        return results(group -> true);
+    }
+
+    /**
+     * Returns the result rows of the groups accepted by the given filter, in the order the groups were first seen.
+     * Rows are only built for the accepted groups.
+     *
+     * @param filter the filter testing the id of a group (-1 for the empty group of an empty input)
+     * @return the {@link List} of result rows
+     */
+    public List<String[]> results(IntPredicate filter) {
+        List<String[]> results = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (filter.test(group)) {
+                results.add(resultRow(group));
+            }
+        }
+        if (groupCount == 0 && keyColumns.length == 0 && filter.test(-1)) {
+            results.add(resultRow(-1));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the id of the group of the given row, creating the group if it does not exist yet.
+     *
+     * @param row the index of the row in the columns
+     * @return the id of the group
+     */
+    private int groupOf(int row) {
+        String key;
+        if (keyColumns.length == 1) {
+            key = keyColumns[0].getString(row);
+        } else {
+            keyBuilder.setLength(0);
+            for (ColumnarResult.Column column : keyColumns) {
+                keyBuilder.append(column.getString(row)).append('~');
+            }
+            key = keyBuilder.toString();
+        }
+
+        Integer group = groupIds.get(key);
+        return group != null ? group : addGroup(key, row);
+    }
+
+    /**
+     * Creates a new group with empty accumulators.
+     *
+     * @param key      the key of the group
+     * @param firstRow the first row of the group
+     * @return the id of the new group
+     */
+    private int addGroup(String key, int firstRow) {
+        int newGroup = groupCount++;
+        ensureCapacity(groupCount);
+        groupIds.put(key, newGroup);
+        groupKeys[newGroup] = key;
+        firstRows[newGroup] = firstRow;
+        for (int f = 0; f < functions.length; f++) {
+            if (bestRows[f] != null) {
+                bestRows[f][newGroup] = firstRow;
+            }
+        }
+        return newGroup;
+    }
+
+    /**
+     * Grows the accumulator arrays to hold at least the given number of groups.
+     *
+     * @param capacity the number of groups
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= firstRows.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, firstRows.length * 2);
+        groupKeys = Arrays.copyOf(groupKeys, newCapacity);
+        firstRows = Arrays.copyOf(firstRows, newCapacity);
+        rowCounts = Arrays.copyOf(rowCounts, newCapacity);
+        for (int f = 0; f < functions.length; f++) {
+            if (sums[f] != null) {
+                sums[f] = Arrays.copyOf(sums[f], newCapacity);
+                numericCounts[f] = Arrays.copyOf(numericCounts[f], newCapacity);
+            }
+            if (bestRows[f] != null) {
+                bestRows[f] = Arrays.copyOf(bestRows[f], newCapacity);
+            }
+        }
+    }
+
+    /**
+     * Builds the result row of a group.
+     *
+     * @param group the id of the group, or -1 for the empty group of an empty input
+     * @return the values of the key columns followed by the results of the aggregate functions
+     */
+    private String[] resultRow(int group) {
+        String[] values = new String[keyColumns.length + functions.length];
+        int index = 0;
+        for (ColumnarResult.Column column : keyColumns) {
+            values[index++] = column.getString(firstRows[group]);
+        }
+        for (int f = 0; f < functions.length; f++) {
+            values[index++] = functionResult(f, group);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the result of an aggregate function for a group.
+     *
+     * @param f     the index of the function
+     * @param group the id of the group, or -1 for the empty group of an empty input
+     * @return the result of the function
+     */
+    private String functionResult(int f, int group) {
+        AggregateFunction func = functions[f];
+        ColumnarResult.Column column = functionColumns[f];
+        boolean empty = group < 0;
+        switch (func.getFunction()) {
+            case "NONE":
+                return column != null && !empty ? column.getString(firstRows[group]) : "";
+            case "COUNT":
+                return String.valueOf((long) functionValue(f, group));
+            case "SUM":
+            case "AVG":
+                // Formatted independently of the default locale, so the result parses back as a number
+                return String.format(Locale.ROOT, "%.2f", functionValue(f, group));
+            case "MIN":
+            case "MAX":
+                return column != null && !empty ? column.getString(bestRows[f][group]) : "";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Returns the exact numeric result of an aggregate function for a group.
+     *
+     * @param f     the index of the function
+     * @param group the id of the group, or -1 for the empty group of an empty input
+     * @return the result of the function, or {@link Double#NaN} if it is not a number
+     */
+    private double functionValue(int f, int group) {
+        AggregateFunction func = functions[f];
+        ColumnarResult.Column column = functionColumns[f];
+        boolean empty = group < 0;
+        switch (func.getFunction()) {
+            case "NONE":
+                return column != null && !empty ? column.getDouble(firstRows[group]) : Double.NaN;
+            case "COUNT":
+                return !empty && (column != null || func.getArgument().equals("*")) ? rowCounts[group] : 0;
+            case "SUM":
+                return empty ? 0.0 : sums[f][group];
+            case "AVG":
+                return empty ? 0.0 : sums[f][group] / Math.max(numericCounts[f][group], 1);
+            case "MIN":
+            case "MAX":
+                return column != null && !empty ? column.getDouble(bestRows[f][group]) : Double.NaN;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * A key column of the groups, read from the first row of each group.
+     */
+    private class KeyColumn implements GroupColumn {
+        private final ColumnarResult.Column column;
+
+        KeyColumn(ColumnarResult.Column column) {
+            this.column = column;
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return column.isNumeric();
+        }
+
+        @Override
+        public double getDouble(int group) {
+            return column.getDouble(firstRows[group]);
+        }
+
+        @Override
+        public String getString(int group) {
+            return column.getString(firstRows[group]);
+        }
+    }
+
+    /**
+     * The result of an aggregate function, read from the accumulators of each group.
+     */
+    private class FunctionColumn implements GroupColumn {
+        private final int f;
+        private final boolean numeric;
+
+        FunctionColumn(int f) {
+            this.f = f;
+            switch (functions[f].getFunction()) {
+                case "COUNT":
+                case "SUM":
+                case "AVG":
+                    numeric = true;
+                    break;
+                default:
+                    numeric = functionColumns[f] != null && functionColumns[f].isNumeric();
+            }
+        }
+
+        @Override
+        public boolean isNumeric() {
+            return numeric;
+        }
+
+        @Override
+        public double getDouble(int group) {
+            return functionValue(f, group);
+        }
+
+        @Override
+        public String getString(int group) {
+            return functionResult(f, group);
+        }
+    }
+
+    /**
+     * Aggregates a range of rows: ranges longer than the chunk size are split in two halves that are aggregated
+     * as separate tasks, and the partial aggregator of the second half is merged into the one of the first half.
+     */
+    private static class ParallelAggregation extends RecursiveTask<HashAggregator> {
+        private final ColumnarResult data;
+        private final List<ColumnarResult.Column> keyColumns;
+        private final List<AggregateFunction> functions;
+        private final List<ColumnarResult.Column> functionColumns;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ParallelAggregation(ColumnarResult data, List<ColumnarResult.Column> keyColumns, List<AggregateFunction> functions,
+                            List<ColumnarResult.Column> functionColumns, int from, int to, int chunkSize) {
+            this.data = data;
+            this.keyColumns = keyColumns;
+            this.functions = functions;
+            this.functionColumns = functionColumns;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected HashAggregator compute() {
+            if (to - from <= chunkSize) {
+                HashAggregator aggregator = new HashAggregator(keyColumns, functions, functionColumns);
+                for (int i = from; i < to; i++) {
+                    aggregator.accumulate(data.rowIndex(i));
+                }
+                return aggregator;
+            }
+
+            int middle = (from + to) >>> 1;
+            ParallelAggregation second = new ParallelAggregation(data, keyColumns, functions, functionColumns, middle, to, chunkSize);
+            second.fork();
+            HashAggregator first = new ParallelAggregation(data, keyColumns, functions, functionColumns, from, middle, chunkSize).compute();
+            first.merge(second.join());
+            return first;
+        }
+    }
+}
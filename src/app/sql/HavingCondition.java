@@ -0,0 +1,484 @@
+package app.sql;
+
+import app.sql.exceptions.ColumnAccessException;
+import app.sql.exceptions.MySQLSyntaxErrorException;
+import app.sql.exceptions.SQLException;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed HAVING clause.
+ * <p>The clause is parsed once by {@link #parse(String)} into a tree of conditions supporting comparisons
+ * ({@code =, <>, !=, <, >, <=, >=}), {@code [NOT] IN}, {@code [NOT] BETWEEN}, {@code [NOT] LIKE}, {@code AND},
+ * {@code OR}, {@code NOT} and parentheses. Before the groups are filtered the tree is compiled with
+ * {@link #compile(List, HashAggregator)}, which binds the columns once to the accumulators of the groups and returns
+ * a predicate over the group ids, so nothing is parsed or looked up per group.</p>
+ * Values are compared numerically if both sides are numbers, otherwise as strings. Aggregates are compared with their
+ * exact accumulated values (e.g. the unrounded AVG), not with the values formatted for the result.
+ */
+public abstract class HavingCondition {
+
+    /**
+     * The names of the aggregate functions that can be used in the HAVING clause.
+     */
+    private static final Set<String> FUNCTIONS = new HashSet<>(Arrays.asList("COUNT", "SUM", "AVG", "MIN", "MAX"));
+
+    /**
+     * Parses the given HAVING clause.
+     *
+     * @param clause the HAVING clause (without the HAVING keyword)
+     * @return the parsed {@link HavingCondition}
+     * @throws SQLException (MySQLSyntaxErrorException) if the clause is not valid
+     */
+    public static HavingCondition parse(String clause) throws SQLException {
+        return new Parser(clause).parse();
+    }
+
+    /**
+     * Compiles the condition into a predicate over the groups of the given aggregator.
+     *
+     * @param columnNames the names of the columns of the group result (see {@link HashAggregator#getColumn(int)})
+     * @param groups      the aggregator holding the groups
+     * @return the predicate testing the id of a group
+     * @throws SQLException (ColumnAccessException) if a column used in the condition does not exist
+     */
+    public abstract IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException;
+
+    /**
+     * Adds the columns and aggregate functions used in the condition to the given list (e.g. "price", "COUNT(*)").
+     *
+     * @param operands the list to add the operands to
+     */
+    public abstract void collectOperands(List<String> operands);
+
+    /**
+     * Finds the column of the group result referenced by the given operand.
+     * Function names are matched case-insensitively, and a plain column name also matches a function applied to it.
+     *
+     * @param names   the names of the columns of the group result
+     * @param groups  the aggregator holding the groups
+     * @param operand the column or aggregate function
+     * @return the {@link HashAggregator.GroupColumn}
+     * @throws SQLException (ColumnAccessException) if the group result has no such column
+     */
+    private static HashAggregator.GroupColumn resolveColumn(List<String> names, HashAggregator groups, String operand) throws SQLException {
+        int index = names.indexOf(operand);
+        for (int i = 0; index == -1 && i < names.size(); i++) {
+            if (names.get(i).equalsIgnoreCase(operand)) {
+                index = i;
+            }
+        }
+        for (int i = 0; index == -1 && i < names.size(); i++) {
+            if (names.get(i).contains("(" + operand + ")")) {
+                index = i;
+            }
+        }
+        if (index == -1) {
+            throw new ColumnAccessException("Cannot access column with the provided name.", "\u001B[1m\u001B[31mColumn: \u001B[0m" + operand + "\u001B[1m\u001B[31m does not exist in the table\u001B[0m");
+        }
+        return groups.getColumn(index);
+    }
+
+    /**
+     * Returns the value of a group as compared with string literals, without quotes.
+     *
+     * @param column the column
+     * @param group  the id of the group
+     * @return the value without quotes
+     */
+    private static String unquoted(HashAggregator.GroupColumn column, int group) {
+        String value = column.getString(group);
+        return value.indexOf('\'') == -1 && value.indexOf('"') == -1 ? value : value.replace("'", "").replace("\"", "");
+    }
+
+    /**
+     * A constant in the HAVING clause, with its numeric value if it is a number.
+     */
+    private static class Literal {
+        private final String text;
+        private final double number;
+
+        Literal(String text) {
+            this.text = text;
+            double parsed;
+            try {
+                parsed = Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                parsed = Double.NaN;
+            }
+            this.number = parsed;
+        }
+
+        boolean isNumber() {
+            return !Double.isNaN(number);
+        }
+    }
+
+    /**
+     * Comparison of a column with a literal.
+     */
+    private static class Comparison extends HavingCondition {
+        private final String operand;
+        private final String operator;
+        private final Literal literal;
+
+        Comparison(String operand, String operator, Literal literal) {
+            this.operand = operand;
+            this.operator = operator;
+            this.literal = literal;
+        }
+
+        @Override
+        public IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException {
+            HashAggregator.GroupColumn column = resolveColumn(columnNames, groups, operand);
+            IntPredicate result = resultTest(operator);
+            String text = literal.text;
+            if (!literal.isNumber()) {
+                return group -> result.test(unquoted(column, group).compareTo(text));
+            }
+
+            double number = literal.number;
+            if (column.isNumeric()) {
+                return group -> result.test(Double.compare(column.getDouble(group), number));
+            }
+            return group -> {
+                double value = column.getDouble(group);
+                return result.test(Double.isNaN(value) ? unquoted(column, group).compareTo(text) : Double.compare(value, number));
+            };
+        }
+
+        @Override
+        public void collectOperands(List<String> operands) {
+            operands.add(operand);
+        }
+
+        /**
+         * Returns the test of the result of a comparison for the given operator.
+         *
+         * @param operator the comparison operator
+         * @return the predicate testing the sign of the comparison result
+         */
+        private static IntPredicate resultTest(String operator) {
+            switch (operator) {
+                case "=":
+                    return comparison -> comparison == 0;
+                case "<>":
+                case "!=":
+                    return comparison -> comparison != 0;
+                case "<":
+                    return comparison -> comparison < 0;
+                case "<=":
+                    return comparison -> comparison <= 0;
+                case ">":
+                    return comparison -> comparison > 0;
+                default:
+                    return comparison -> comparison >= 0;
+            }
+        }
+    }
+
+    /**
+     * Membership of a column value in a list of literals.
+     */
+    private static class In extends HavingCondition {
+        private final String operand;
+        private final List<Literal> literals;
+
+        In(String operand, List<Literal> literals) {
+            this.operand = operand;
+            this.literals = literals;
+        }
+
+        @Override
+        public IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException {
+            HashAggregator.GroupColumn column = resolveColumn(columnNames, groups, operand);
+            boolean allNumbers = literals.stream().allMatch(Literal::isNumber);
+            if (column.isNumeric() && allNumbers) {
+                double[] numbers = literals.stream().mapToDouble(literal -> literal.number).sorted().toArray();
+                return group -> Arrays.binarySearch(numbers, column.getDouble(group)) >= 0;
+            }
+
+            Set<String> texts = new HashSet<>();
+            literals.forEach(literal -> texts.add(literal.text));
+            return group -> texts.contains(unquoted(column, group));
+        }
+
+        @Override
+        public void collectOperands(List<String> operands) {
+            operands.add(operand);
+        }
+    }
+
+    /**
+     * Pattern match of a column value, where '%' matches any sequence of characters and '_' any single character.
+     */
+    private static class Like extends HavingCondition {
+        private final String operand;
+        private final Literal pattern;
+
+        Like(String operand, Literal pattern) {
+            this.operand = operand;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException {
+            HashAggregator.GroupColumn column = resolveColumn(columnNames, groups, operand);
+            StringBuilder regex = new StringBuilder();
+            for (char c : pattern.text.toCharArray()) {
+                if (c == '%') {
+                    regex.append(".*");
+                } else if (c == '_') {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            Pattern compiled = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+            return group -> compiled.matcher(unquoted(column, group)).matches();
+        }
+
+        @Override
+        public void collectOperands(List<String> operands) {
+            operands.add(operand);
+        }
+    }
+
+    /**
+     * Conjunction or disjunction of two conditions.
+     */
+    private static class Logical extends HavingCondition {
+        private final HavingCondition left;
+        private final HavingCondition right;
+        private final boolean and;
+
+        Logical(HavingCondition left, HavingCondition right, boolean and) {
+            this.left = left;
+            this.right = right;
+            this.and = and;
+        }
+
+        @Override
+        public IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException {
+            IntPredicate leftPredicate = left.compile(columnNames, groups);
+            IntPredicate rightPredicate = right.compile(columnNames, groups);
+            return and ? leftPredicate.and(rightPredicate) : leftPredicate.or(rightPredicate);
+        }
+
+        @Override
+        public void collectOperands(List<String> operands) {
+            left.collectOperands(operands);
+            right.collectOperands(operands);
+        }
+    }
+
+    /**
+     * Negation of a condition.
+     */
+    private static class Not extends HavingCondition {
+        private final HavingCondition condition;
+
+        Not(HavingCondition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public IntPredicate compile(List<String> columnNames, HashAggregator groups) throws SQLException {
+            return condition.compile(columnNames, groups).negate();
+        }
+
+        @Override
+        public void collectOperands(List<String> operands) {
+            condition.collectOperands(operands);
+        }
+    }
+
+    /**
+     * Recursive descent parser of the HAVING clause:
+     * <pre>
+     * or         := and (OR and)*
+     * and        := not (AND not)*
+     * not        := NOT not | '(' or ')' | predicate
+     * predicate  := operand ( comparison literal | [NOT] IN '(' literal (',' literal)* ')'
+     *                       | [NOT] BETWEEN literal AND literal | [NOT] LIKE literal )
+     * operand    := column | function '(' (column | '*') ')'
+     * </pre>
+     * The clause is split into tokens by {@link SQLLexer}.
+     */
+    private static class Parser {
+        private final String clause;
+        private List<SQLLexer.Token> tokens;
+        private int index = 0;
+
+        Parser(String clause) {
+            this.clause = clause;
+        }
+
+        HavingCondition parse() throws SQLException {
+            tokens = SQLLexer.tokenize(clause);
+            if (tokens.isEmpty()) {
+                throw error();
+            }
+            HavingCondition condition = parseOr();
+            if (index < tokens.size()) {
+                throw error();
+            }
+            return condition;
+        }
+
+        private HavingCondition parseOr() throws SQLException {
+            HavingCondition condition = parseAnd();
+            while (acceptKeyword("OR")) {
+                condition = new Logical(condition, parseAnd(), false);
+            }
+            return condition;
+        }
+
+        private HavingCondition parseAnd() throws SQLException {
+            HavingCondition condition = parseNot();
+            while (acceptKeyword("AND")) {
+                condition = new Logical(condition, parseNot(), true);
+            }
+            return condition;
+        }
+
+        private HavingCondition parseNot() throws SQLException {
+            if (acceptKeyword("NOT")) {
+                return new Not(parseNot());
+            }
+            if (accept("(")) {
+                HavingCondition condition = parseOr();
+                expect(")");
+                return condition;
+            }
+            return parsePredicate();
+        }
+
+        private HavingCondition parsePredicate() throws SQLException {
+            String operand = parseOperand();
+
+            SQLLexer.Token token = peek();
+            if (token != null && token.getType() == SQLLexer.TokenType.OPERATOR) {
+                index++;
+                return new Comparison(operand, token.getText(), parseLiteral());
+            }
+
+            boolean negated = acceptKeyword("NOT");
+            HavingCondition condition;
+            if (acceptKeyword("IN")) {
+                expect("(");
+                List<Literal> literals = new ArrayList<>();
+                do {
+                    literals.add(parseLiteral());
+                } while (accept(","));
+                expect(")");
+                condition = new In(operand, literals);
+            } else if (acceptKeyword("BETWEEN")) {
+                Literal low = parseLiteral();
+                if (!acceptKeyword("AND")) {
+                    throw error();
+                }
+                Literal high = parseLiteral();
+                condition = new Logical(new Comparison(operand, ">=", low), new Comparison(operand, "<=", high), true);
+            } else if (acceptKeyword("LIKE")) {
+                condition = new Like(operand, parseLiteral());
+            } else {
+                throw error();
+            }
+            return negated ? new Not(condition) : condition;
+        }
+
+        private String parseOperand() throws SQLException {
+            SQLLexer.Token name = peek();
+            if (!isValue(name)) {
+                throw error();
+            }
+            index++;
+            if (FUNCTIONS.contains(name.getText().toUpperCase()) && accept("(")) {
+                SQLLexer.Token argument = peek();
+                if (argument == null || (!argument.is("*") && !isValue(argument))) {
+                    throw error();
+                }
+                index++;
+                expect(")");
+                return name.getText().toUpperCase() + "(" + argument.getText() + ")";
+            }
+            return name.getText();
+        }
+
+        private Literal parseLiteral() throws SQLException {
+            SQLLexer.Token token = peek();
+            if (token != null && token.getType() == SQLLexer.TokenType.STRING) {
+                index++;
+                return new Literal(token.getText().substring(1, token.getText().length() - 1));
+            }
+            if (!isValue(token)) {
+                throw error();
+            }
+            index++;
+            return new Literal(token.getText());
+        }
+
+        /**
+         * Checks if the token is a name or a number (but not a keyword of the clause).
+         */
+        private static boolean isValue(SQLLexer.Token token) {
+            return token != null && (token.getType() == SQLLexer.TokenType.NUMBER
+                    || (token.getType() == SQLLexer.TokenType.WORD && !isKeyword(token.getText())));
+        }
+
+        private static boolean isKeyword(String token) {
+            switch (token.toUpperCase()) {
+                case "AND":
+                case "OR":
+                case "NOT":
+                case "IN":
+                case "BETWEEN":
+                case "LIKE":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private SQLLexer.Token peek() {
+            return index < tokens.size() ? tokens.get(index) : null;
+        }
+
+        private boolean accept(String symbol) {
+            SQLLexer.Token token = peek();
+            if (token != null && token.is(symbol)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            SQLLexer.Token token = peek();
+            if (token != null && token.isKeyword(keyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) throws SQLException {
+            if (!accept(symbol)) {
+                throw error();
+            }
+        }
+
+        /**
+         * Creates the syntax error pointing at the current token.
+         */
+        private SQLException error() {
+            if (index >= tokens.size()) {
+                return new MySQLSyntaxErrorException("Invalid HAVING clause syntax", "Unexpected end of the clause: \u001B[3m" + clause + "\u001B[0m");
+            }
+            return new MySQLSyntaxErrorException("Invalid HAVING clause syntax", "Place where error occurred: \u001B[3m" + clause.substring(tokens.get(index).getStart()) + "\u001B[0m");
+        }
+    }
+}
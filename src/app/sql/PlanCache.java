@@ -0,0 +1,104 @@
+package app.sql;
+
+import app.sql.exceptions.SQLException;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LRU cache of prepared statements, keyed on the statement text with whitespace normalized.
+ * <p>Statements are formatted by {@link SQLFormatter}, parsed and validated by {@link QueryProcessor} once,
+ * and later executions only bind their parameters (see {@link PreparedQuery}).
+ * Since the validation depends on the columns of the tables, the cache is cleared whenever
+ * the {@link SchemaCatalog} changes. The size of the cache is set by {@link ExecutionConfig#getPlanCacheSize()}.</p>
+ */
+public class PlanCache {
+
+    /**
+     * The prepared statements in access order, the least recently used first.
+     */
+    private static final LinkedHashMap<String, PreparedQuery> plans = new LinkedHashMap<String, PreparedQuery>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedQuery> eldest) {
+            return size() > ExecutionConfig.getPlanCacheSize();
+        }
+    };
+
+    /**
+     * Incremented on every {@link #clear()}, so plans prepared against an older catalog are not cached.
+     */
+    private static long generation = 0;
+
+    /**
+     * The number of statements found in the cache.
+     */
+    private static long hits = 0;
+
+    /**
+     * The number of statements that had to be prepared.
+     */
+    private static long misses = 0;
+
+    /**
+     * Returns the prepared statement for the given statement text, preparing it if it is not in the cache.
+     *
+     * @param statement the statement, optionally with {@code ?} placeholders
+     * @return the {@link PreparedQuery}
+     * @throws SQLException if there is an error in the statement
+     */
+    public static PreparedQuery prepare(String statement) throws SQLException {
+        String key = SQLFormatter.trimCode(statement);
+        long preparedGeneration;
+        synchronized (PlanCache.class) {
+            PreparedQuery plan = plans.get(key);
+            if (plan != null) {
+                hits++;
+                return plan;
+            }
+            misses++;
+            preparedGeneration = generation;
+        }
+
+        // Prepared without holding the lock, since the validation may look up the columns in the native database
+        String formattedQuery = SQLFormatter.formatSQLQuery(key);
+        QueryModifiers modifiers = new QueryModifiers();
+        Set<String> tableNames = new LinkedHashSet<>();
+        String nativeQuery = QueryProcessor.processQuery(formattedQuery, modifiers, tableNames);
+        PreparedQuery plan = new PreparedQuery(formattedQuery, nativeQuery, modifiers, tableNames);
+
+        synchronized (PlanCache.class) {
+            if (preparedGeneration == generation) {
+                plans.put(key, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Removes all prepared statements from the cache (e.g. when a table is created or dropped).
+     */
+    public static synchronized void clear() {
+        plans.clear();
+        generation++;
+    }
+
+    /**
+     * Returns the number of statements found in the cache.
+     *
+     * @return the number of plan cache hits
+     */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of statements that had to be prepared.
+     *
+     * @return the number of plan cache misses
+     */
+    public static synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,235 @@
+package app.sql;
+
+import app.sql.exceptions.MySQLSyntaxErrorException;
+import app.sql.exceptions.SQLException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Prepared statement: a statement that has been formatted, parsed and validated once,
+ * with {@code ?} placeholders for the values that change between executions.
+ * <p>Prepared statements are obtained from {@link PlanCache#prepare(String)}. Binding the parameters
+ * only splices the values into the formatted and the native statement at the placeholder positions,
+ * so the statement is never formatted, parsed or validated again.</p>
+ * Placeholders can only be used where the native engine evaluates the statement (e.g. in the WHERE clause,
+ * the VALUES list or the SET clause), not in clauses evaluated by the editor such as LIMIT or HAVING.
+ */
+public class PreparedQuery {
+
+    /**
+     * The formatted statement shown in the history, with placeholders.
+     */
+    private final String formattedQuery;
+
+    /**
+     * The statement executed by the native engine, with placeholders.
+     */
+    private final String nativeQuery;
+
+    /**
+     * The query modifiers applied to the result by the editor, shared by all executions.
+     */
+    private final QueryModifiers modifiers;
+
+    /**
+     * The names of the tables read by a SELECT statement (empty for other statements).
+     */
+    private final Set<String> tableNames;
+
+    /**
+     * The positions of the placeholders in the formatted and the native statement.
+     */
+    private final int[] formattedPlaceholders;
+    private final int[] nativePlaceholders;
+
+    /**
+     * Creates a new instance of {@link PreparedQuery}.
+     *
+     * @param formattedQuery the formatted statement
+     * @param nativeQuery    the statement executed by the native engine
+     * @param modifiers      the query modifiers of the statement
+     * @param tableNames     the names of the tables read by the statement
+     * @throws SQLException (MySQLSyntaxErrorException) if a placeholder is used in a clause evaluated by the editor
+     */
+    PreparedQuery(String formattedQuery, String nativeQuery, QueryModifiers modifiers, Set<String> tableNames) throws SQLException {
+        this.formattedQuery = formattedQuery;
+        this.nativeQuery = nativeQuery;
+        this.modifiers = modifiers;
+        this.tableNames = Collections.unmodifiableSet(tableNames);
+        this.formattedPlaceholders = findPlaceholders(formattedQuery);
+        this.nativePlaceholders = findPlaceholders(nativeQuery);
+        if (formattedPlaceholders.length != nativePlaceholders.length) {
+            throw new MySQLSyntaxErrorException("Parameters can only be used in values evaluated by the database.", "Place where error occurred: \u001B[3m" + formattedQuery + "\u001B[0m");
+        }
+    }
+
+    /**
+     * Binds the given values to the placeholders, in order.
+     * {@code null} is bound as NULL, numbers and booleans as written, and any other value as a string literal.
+     *
+     * @param values the values of the parameters
+     * @return the statement with the values bound
+     * @throws SQLException (MySQLSyntaxErrorException) if the number of values does not match the number of placeholders,
+     *                      or a string contains both kinds of quotes
+     */
+    public Binding bind(Object... values) throws SQLException {
+        List<String> literals = new ArrayList<>(values.length);
+        for (Object value : values) {
+            literals.add(toLiteral(value));
+        }
+        return bindLiterals(literals);
+    }
+
+    /**
+     * Binds the given SQL literals (e.g. {@code 42}, {@code 'text'}, {@code NULL}) to the placeholders, in order.
+     *
+     * @param literals the literals as written in SQL
+     * @return the statement with the literals bound
+     * @throws SQLException (MySQLSyntaxErrorException) if the number of literals does not match the number of placeholders
+     */
+    public Binding bindLiterals(List<String> literals) throws SQLException {
+        if (literals.size() != nativePlaceholders.length) {
+            throw new MySQLSyntaxErrorException("Incorrect number of parameters.", "Expected " + nativePlaceholders.length + " parameters, but " + literals.size() + " were given for: \u001B[3m" + formattedQuery + "\u001B[0m");
+        }
+        return new Binding(splice(formattedQuery, formattedPlaceholders, literals), splice(nativeQuery, nativePlaceholders, literals));
+    }
+
+    /**
+     * Returns the number of placeholders in the statement.
+     *
+     * @return the number of parameters
+     */
+    public int getParameterCount() {
+        return nativePlaceholders.length;
+    }
+
+    /**
+     * Returns the formatted statement with placeholders.
+     *
+     * @return the formatted statement
+     */
+    public String getFormattedQuery() {
+        return formattedQuery;
+    }
+
+    /**
+     * Returns the query modifiers of the statement.
+     * <p>The modifiers are shared by all executions of the statement and must not be changed.</p>
+     *
+     * @return the {@link QueryModifiers}
+     */
+    public QueryModifiers getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Converts a Java value to an SQL literal.
+     *
+     * @param value the value
+     * @return the literal
+     * @throws SQLException (MySQLSyntaxErrorException) if a string contains both single and double quotes
+     */
+    public static String toLiteral(Object value) throws SQLException {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        String text = value.toString();
+        if (text.indexOf('\'') == -1) {
+            return "'" + text + "'";
+        }
+        if (text.indexOf('"') == -1) {
+            return "\"" + text + "\"";
+        }
+        throw new MySQLSyntaxErrorException("Parameter cannot be bound.", "Strings cannot contain both single and double quotes: \u001B[3m" + text + "\u001B[0m");
+    }
+
+    /**
+     * Finds the positions of the {@code ?} placeholders in the given statement, skipping string literals.
+     *
+     * @param query the statement
+     * @return the positions of the placeholders
+     * @throws SQLException (MySQLSyntaxErrorException) if a string literal is not terminated
+     */
+    private static int[] findPlaceholders(String query) throws SQLException {
+        return SQLLexer.tokenize(query).stream()
+                .filter(token -> token.is("?"))
+                .mapToInt(SQLLexer.Token::getStart)
+                .toArray();
+    }
+
+    /**
+     * Replaces the placeholders at the given positions with the literals.
+     *
+     * @param query        the statement
+     * @param placeholders the positions of the placeholders
+     * @param literals     the literals
+     * @return the statement with the literals
+     */
+    private static String splice(String query, int[] placeholders, List<String> literals) {
+        if (placeholders.length == 0) {
+            return query;
+        }
+        StringBuilder bound = new StringBuilder(query.length() + 16 * placeholders.length);
+        int from = 0;
+        for (int i = 0; i < placeholders.length; i++) {
+            bound.append(query, from, placeholders[i]).append(literals.get(i));
+            from = placeholders[i] + 1;
+        }
+        return bound.append(query, from, query.length()).toString();
+    }
+
+    /**
+     * A prepared statement with its parameters bound, ready to be executed.
+     */
+    public class Binding {
+        private final String formattedQuery;
+        private final String nativeQuery;
+
+        private Binding(String formattedQuery, String nativeQuery) {
+            this.formattedQuery = formattedQuery;
+            this.nativeQuery = nativeQuery;
+        }
+
+        /**
+         * Returns the formatted statement with the values, as shown in the history.
+         *
+         * @return the formatted statement
+         */
+        public String getFormattedQuery() {
+            return formattedQuery;
+        }
+
+        /**
+         * Returns the statement executed by the native engine, with the values.
+         *
+         * @return the native statement
+         */
+        public String getNativeQuery() {
+            return nativeQuery;
+        }
+
+        /**
+         * Returns the query modifiers of the prepared statement.
+         *
+         * @return the {@link QueryModifiers}
+         */
+        public QueryModifiers getModifiers() {
+            return modifiers;
+        }
+
+        /**
+         * Returns the names of the tables read by the statement (empty if it is not a SELECT statement).
+         *
+         * @return the table names
+         */
+        public Set<String> getTableNames() {
+            return tableNames;
+        }
+    }
+}
@@ -30,9 +30,13 @@ public class QueryModifiers {
      */
     private List<String> groupByColumns;
     /**
-     * The having clause.
+     * The parsed having clause, or {@code null} if the query has none.
      */
-    private String havingClause;
+    private HavingCondition havingCondition;
+    /**
+     * The warnings about the statement (e.g. a negative LIMIT), shown every time it is executed.
+     */
+    private final List<String> warnings;
 
     /**
      * Creates a new instance of {@link QueryModifiers} with the default values.
@@ -43,6 +47,17 @@ public class QueryModifiers {
         this.distinctColumns = new ArrayList<>();
         this.aggregateFunctions = new ArrayList<>();
         this.groupByColumns = new ArrayList<>();
+        this.warnings = new ArrayList<>();
+    }
+
+    /**
+     * Checks if the query has no modifiers, so its result is the result of the native database as is.
+     *
+     * @return {@code true} if there are no modifiers, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return orderByClauses.isEmpty() && limitOffsetClause == null && distinctColumns.isEmpty()
+                && aggregateFunctions.isEmpty() && groupByColumns.isEmpty() && havingCondition == null;
     }
 
     //region GETTERS AND SETTERS
@@ -127,21 +142,39 @@ public class QueryModifiers {
     }
 
     /**
-     * Returns the having clause.
+     * Returns the parsed having clause.
+     *
+     * @return the having condition, or {@code null} if the query has no having clause
+     */
+    public HavingCondition getHavingCondition() {
+        return havingCondition;
+    }
+
+    /**
+     * Sets the parsed having clause.
+     *
+     * @param havingCondition the having condition
+     */
+    public void setHavingCondition(HavingCondition havingCondition) {
+        this.havingCondition = havingCondition;
+    }
+
+    /**
+     * Returns the warnings about the statement.
      *
-     * @return the having clause
+     * @return the list of warnings, empty if there are none
      */
-    public String getHavingClause() {
-        return havingClause;
+    public List<String> getWarnings() {
+        return warnings;
     }
 
     /**
-     * Sets the having clause.
+     * Adds a warning about the statement, shown every time it is executed.
      *
-     * @param havingClause the having clause
+     * @param warning the warning message
      */
-    public void setHavingClause(String havingClause) {
-        this.havingClause = havingClause;
+    public void addWarning(String warning) {
+        warnings.add(warning);
     }
 
     //endregion
@@ -1,17 +1,9 @@
 package app.sql;
 
-import app.Window;
-import app.windows.mainwindow.MainWindowController;
 import app.sql.exceptions.ColumnAccessException;
-import app.sql.exceptions.MySQLSyntaxErrorException;
 import app.sql.exceptions.SQLException;
-import app.util.FileHelper;
-import app.util.TextFlowHelper;
-import cpp.JavaInterface;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for processing SQL queries.
@@ -20,6 +12,9 @@ public class QueryProcessor {
 
     /**
      * Processes the given SQL query with the specified query modifiers.
+     * <p>SELECT statements are parsed by {@link SQLParser}, the query modifiers are set from the parsed statement,
+     * and the statement for the native engine is regenerated from it (see {@link SelectStatement#toNativeQuery()}).
+     * Other statements are returned unchanged.</p>
      *
      * @param query     the SQL query to process
      * @param modifiers the query modifiers
@@ -27,277 +22,168 @@ public class QueryProcessor {
      * @throws SQLException if there is an error in the SQL query
      */
     public static String processQuery(String query, QueryModifiers modifiers) throws SQLException {
-        System.out.println("Original query: " + query);
-        query = processAggregateFunctions(query, modifiers);
-        System.out.println("After aggregate functions: " + query);
-        query = processDistinctQuery(query, modifiers);
-        System.out.println("After distinct: " + query);
-        query = processGroupByClause(query, modifiers);
-        System.out.println("After group by: " + query);
-        query = processOrderByClause(query, modifiers);
-        System.out.println("After order by: " + query);
-        query = processLimitOffsetClause(query, modifiers);
-        System.out.println("Final query: " + query);
-        return query;
+        return processQuery(query, modifiers, new HashSet<>());
     }
 
     /**
-     * Processes the aggregate functions in the SQL query and sets the aggregate functions in the query modifiers.
+     * Processes the given SQL query with the specified query modifiers and collects the tables it reads.
      *
-     * @param query     the SQL query to process
-     * @param modifiers the query modifiers
+     * @param query      the SQL query to process
+     * @param modifiers  the query modifiers
+     * @param tableNames the set to add the names of the tables in the FROM clause of a SELECT statement to
      * @return the processed SQL query
+     * @throws SQLException if there is an error in the SQL query
      */
-    private static String processAggregateFunctions(String query, QueryModifiers modifiers) {
-        Pattern pattern = Pattern.compile("SELECT\\s+(.*?)\\s+FROM", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            String selectPart = matcher.group(1);
-            List<String> columns = Arrays.asList(selectPart.split(","));
-            List<AggregateFunction> aggregateFunctions = new ArrayList<>();
-            List<String> newColumns = new ArrayList<>();
-
-            for (int i = 0; i < columns.size(); i++) {
-                String column = columns.get(i).trim();
-                if (column.toUpperCase().startsWith("SUM(") ||
-                        column.toUpperCase().startsWith("AVG(") ||
-                        column.toUpperCase().startsWith("MAX(") ||
-                        column.toUpperCase().startsWith("MIN(") ||
-                        column.toUpperCase().startsWith("COUNT(")) {
-                    String functionName = column.substring(0, column.indexOf('(')).toUpperCase();
-                    String argument = column.substring(column.indexOf('(') + 1, column.length() - 1).trim();
-                    aggregateFunctions.add(new AggregateFunction(functionName, argument, i));
-                    if (!argument.equals("*") || !functionName.equals("COUNT")) {
-                        newColumns.add(argument);
-                    }
-                } else {
-                    newColumns.add(column);
-                    aggregateFunctions.add(new AggregateFunction("NONE", column, i));
-                }
-            }
-
-            if (aggregateFunctions.stream().anyMatch(af -> !af.getFunction().equals("NONE"))) {
-                modifiers.setAggregateFunctions(aggregateFunctions);
-                String newSelectPart = newColumns.isEmpty() ? "*" : String.join(", ", newColumns);
-                return query.replace(selectPart, newSelectPart);
-            }
+    public static String processQuery(String query, QueryModifiers modifiers, Set<String> tableNames) throws SQLException {
+        System.out.println("Original query: " + query);
+        SelectStatement select = SQLParser.parseSelect(query);
+        if (select == null) {
+            return query;
         }
+        tableNames.addAll(select.getTableNames());
+
+        processAggregateFunctions(select, modifiers);
+        processDistinct(select, modifiers);
+        processGroupByClause(select, modifiers);
+        processOrderByClause(select, modifiers);
+        processLimitOffsetClause(select, modifiers);
 
+        query = select.toNativeQuery();
+        System.out.println("Final query: " + query);
         return query;
     }
 
     /**
-     * Processes the DISTINCT clause in the SQL query and sets the distinct columns in the query modifiers.
+     * Sets the aggregate functions of the select list in the query modifiers, if any aggregate function is used.
      *
-     * @param query     the SQL query to process
+     * @param select    the parsed SELECT statement
      * @param modifiers the query modifiers
-     * @return the processed SQL query
      */
-    private static String processDistinctQuery(String query, QueryModifiers modifiers) {
-        Pattern pattern = Pattern.compile("SELECT\\s+DISTINCT\\s*(\\((.*?)\\)\\s*(.*)|(\\S.*))", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            String distinctColumnsStr = matcher.group(1);
-            String restOfQuery = matcher.group(2);
-
-            System.out.println("Distinct columns: " + distinctColumnsStr);
-            System.out.println("Rest of query: " + restOfQuery);
-
-            if (distinctColumnsStr != null) {
-                modifiers.setDistinctColumns(Arrays.asList(distinctColumnsStr.split(",\\s*")));
-            } else {
-                modifiers.setDistinctColumns(Collections.singletonList("*"));
-            }
+    private static void processAggregateFunctions(SelectStatement select, QueryModifiers modifiers) {
+        if (!select.hasAggregates()) {
+            return;
+        }
 
-            return "SELECT " + (distinctColumnsStr != null ? distinctColumnsStr + " " : "") + restOfQuery;
+        List<AggregateFunction> aggregateFunctions = new ArrayList<>();
+        List<SelectStatement.SelectItem> items = select.getSelectItems();
+        for (int i = 0; i < items.size(); i++) {
+            aggregateFunctions.add(new AggregateFunction(items.get(i).getFunction(), items.get(i).getArgument(), i));
         }
-        return query;
+        modifiers.setAggregateFunctions(aggregateFunctions);
     }
 
     /**
-     * Processes the ORDER BY clause in the SQL query and sets the order by clauses in the query modifiers.
+     * Sets the distinct columns in the query modifiers: the columns listed in parentheses after DISTINCT,
+     * or all columns ("*") if DISTINCT applies to the whole row.
      *
-     * @param query     the SQL query to process
+     * @param select    the parsed SELECT statement
      * @param modifiers the query modifiers
-     * @return the processed SQL query
-     * @throws SQLException if there is an error in the ORDER BY clause
      */
-    private static String processOrderByClause(String query, QueryModifiers modifiers) throws SQLException {
-        Pattern pattern = Pattern.compile("(.*?)\\s+ORDER\\s+BY\\s+(.+?)(\\s+LIMIT\\s+.*|$)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            String beforeOrderBy = matcher.group(1);
-            String orderByClause = matcher.group(2);
-            String afterOrderBy = matcher.group(3);
-
-            // Validate the ORDER BY clause syntax
-            Pattern orderByPattern = Pattern.compile("^\\s*([\\w.]+\\s*(ASC|DESC)?\\s*(,\\s*[\\w.]+\\s*(ASC|DESC)?\\s*)*)$", Pattern.CASE_INSENSITIVE);
-            if (!orderByPattern.matcher(orderByClause).matches()) {
-                throw new MySQLSyntaxErrorException("Invalid ORDER BY clause syntax.", "Place where error occurred: \u001B[3m" + orderByClause + "\u001B[0m");
-            }
-
-            // Validate the columns in the ORDER BY clause
-            List<String> orderByColumns = new ArrayList<>();
-            String[] parts = orderByClause.split(",");
-            for (String part : parts) {
-                String column = part.trim().split("\\s+")[0];
-                orderByColumns.add(column);
-            }
-
-            validateColumns(beforeOrderBy, orderByColumns);
+    private static void processDistinct(SelectStatement select, QueryModifiers modifiers) {
+        if (!select.isDistinct()) {
+            return;
+        }
 
-            modifiers.setOrderByClauses(parseOrderByClauses(orderByClause));
-            return beforeOrderBy + afterOrderBy;
+        System.out.println("Distinct columns: " + select.getDistinctColumns());
+        if (!select.getDistinctColumns().isEmpty()) {
+            modifiers.setDistinctColumns(new ArrayList<>(select.getDistinctColumns()));
+        } else {
+            modifiers.setDistinctColumns(Collections.singletonList("*"));
         }
-        return query;
     }
 
     /**
-     * Parses the ORDER BY clauses from the given ORDER BY clause string.
+     * Validates the columns of the ORDER BY clause and sets the order by clauses in the query modifiers.
      *
-     * @param orderByClauseString the ORDER BY clause string
-     * @return the list of ORDER BY clauses
+     * @param select    the parsed SELECT statement
+     * @param modifiers the query modifiers
+     * @throws SQLException if a column in the ORDER BY clause does not exist
      */
-    private static List<OrderByClause> parseOrderByClauses(String orderByClauseString) {
-        List<OrderByClause> clauses = new ArrayList<>();
-        String[] parts = orderByClauseString.split(",");
-        for (String part : parts) {
-            String[] columnAndDirection = part.trim().split("\\s+");
-            String column = columnAndDirection[0];
-            boolean isAscending = true;
-            if (columnAndDirection.length > 1) {
-                String direction = columnAndDirection[columnAndDirection.length - 1].toUpperCase();
-                isAscending = !direction.equals("DESC");
-            }
-            clauses.add(new OrderByClause(column, isAscending));
+    private static void processOrderByClause(SelectStatement select, QueryModifiers modifiers) throws SQLException {
+        if (select.getOrderByClauses().isEmpty()) {
+            return;
         }
-        return clauses;
+
+        List<String> orderByColumns = new ArrayList<>();
+        for (OrderByClause clause : select.getOrderByClauses()) {
+            orderByColumns.add(clause.getColumn());
+        }
+        validateColumns(select.getTableNames(), orderByColumns);
+
+        modifiers.setOrderByClauses(new ArrayList<>(select.getOrderByClauses()));
     }
 
     /**
-     * Processes the LIMIT and OFFSET clauses in the SQL query and sets the limit offset clause in the query modifiers.
+     * Sets the limit offset clause in the query modifiers.
      *
-     * @param query     the SQL query to process
+     * @param select    the parsed SELECT statement
      * @param modifiers the query modifiers
-     * @return the processed SQL query
      */
-    private static String processLimitOffsetClause(String query, QueryModifiers modifiers) {
-        Pattern pattern = Pattern.compile("(.*?\\s+LIMIT\\s+)(-?\\d+)(?:\\s+OFFSET\\s+(-?\\d+))?$", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            String beforeLimit = matcher.group(1);
-            int limit = Integer.parseInt(matcher.group(2));
-            int offset = matcher.group(3) != null ? Integer.parseInt(matcher.group(3)) : 0;
-
-            // Negative values are treated as neutral
-            MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
-            if (limit < 0) {
-                TextFlowHelper.addWarningMessage(mainWindowController.consoleTextFlow, "Limit is negative");
-                limit = Integer.MAX_VALUE;
-            }
-            if (offset < 0) {
-                TextFlowHelper.addWarningMessage(mainWindowController.consoleTextFlow, "Offset is negative");
-                offset = 0;
-            }
+    private static void processLimitOffsetClause(SelectStatement select, QueryModifiers modifiers) {
+        if (select.getLimit() == null) {
+            return;
+        }
 
-            modifiers.setLimitOffsetClause(new LimitOffsetClause(limit, offset));
+        int limit = select.getLimit();
+        int offset = select.getOffset();
 
-            return beforeLimit.trim();
+        // Negative values are treated as neutral; the warnings are shown on every execution of the prepared statement
+        if (limit < 0) {
+            modifiers.addWarning("Limit is negative");
+            limit = Integer.MAX_VALUE;
         }
-        return query;
+        if (offset < 0) {
+            modifiers.addWarning("Offset is negative");
+            offset = 0;
+        }
+
+        modifiers.setLimitOffsetClause(new LimitOffsetClause(limit, offset));
     }
 
     /**
-     * Processes the GROUP BY clause in the SQL query and sets the group by columns in the query modifiers.
+     * Validates the columns of the GROUP BY clause and sets the group by columns in the query modifiers.
      * <p>Also processes the HAVING clause if present.</p>
      *
-     * @param query     the SQL query to process
+     * @param select    the parsed SELECT statement
      * @param modifiers the query modifiers
-     * @return the processed SQL query
-     * @throws SQLException if there is an error in the GROUP BY clause
+     * @throws SQLException if there is an error in the GROUP BY or HAVING clause
      */
-    private static String processGroupByClause(String query, QueryModifiers modifiers) throws SQLException {
-        Pattern pattern = Pattern.compile("(.*?)\\s+GROUP\\s+BY\\s+(.+?)(\\s+HAVING\\s+(.+?))?(\\s+ORDER\\s+BY\\s+.*|\\s+LIMIT\\s+.*|$)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            String beforeGroupBy = matcher.group(1);
-            String groupByClause = matcher.group(2);
-            String havingClause = matcher.group(4); // This will be null if HAVING is not present
-            String afterHaving = matcher.group(5);
-
-            // Validate the GROUP BY clause syntax
-            Pattern groupByPattern = Pattern.compile("^\\s*([\\w.]+\\s*(,\\s*[\\w.]+\\s*)*)$", Pattern.CASE_INSENSITIVE);
-            if (!groupByPattern.matcher(groupByClause).matches()) {
-                throw new MySQLSyntaxErrorException("Invalid GROUP BY clause syntax", "Place where error occurred: \u001B[3m" + groupByClause + "\u001B[0m");
-            }
-
-            List<String> groupByColumns = new ArrayList<>();
-            String[] parts = groupByClause.split("\\s*,\\s*");
-            for (String part : parts) {
-                String column = part.trim();
-                groupByColumns.add(column);
-            }
+    private static void processGroupByClause(SelectStatement select, QueryModifiers modifiers) throws SQLException {
+        if (select.getGroupByColumns().isEmpty()) {
+            return;
+        }
 
-            // Validate columns
-            Set<String> availableColumns = validateColumns(beforeGroupBy, groupByColumns);
+        List<String> groupByColumns = new ArrayList<>(select.getGroupByColumns());
+        Set<String> availableColumns = validateColumns(select.getTableNames(), groupByColumns);
 
-            // Validate HAVING clause if present
-            if (havingClause != null) {
-                System.out.println("Having clause: " + havingClause);
-                validateHavingClause(havingClause.trim(), availableColumns);
-            }
-
-            modifiers.setGroupByColumns(groupByColumns);
-            if (havingClause != null) {
-                modifiers.setHavingClause(havingClause.trim());
-                return beforeGroupBy + afterHaving;
-            }
-            return beforeGroupBy + afterHaving;
+        // Parse and validate HAVING clause if present
+        if (select.getHavingClause() != null) {
+            System.out.println("Having clause: " + select.getHavingClause());
+            modifiers.setHavingCondition(parseHavingClause(select.getHavingClause(), availableColumns));
         }
-        return query;
+
+        modifiers.setGroupByColumns(groupByColumns);
     }
 
     /**
-     * Validates the HAVING clause against the available columns.
+     * Parses the HAVING clause and validates the columns and functions it uses against the available columns.
      *
-     * @param havingClause     the HAVING clause to validate
+     * @param havingClause     the HAVING clause to parse
      * @param availableColumns the available columns
+     * @return the parsed {@link HavingCondition}
      * @throws SQLException if there is an error in the HAVING clause
      */
-    private static void validateHavingClause(String havingClause, Set<String> availableColumns) throws SQLException {
-        Pattern pattern = Pattern.compile(
-                "\\b([\\w.]+|(?:COUNT|SUM|AVG|MIN|MAX)\\([\\w.*]+\\))\\s*([<>=!]+|LIKE|NOT LIKE|IN|NOT IN|BETWEEN)\\s*(.+)",
-                Pattern.CASE_INSENSITIVE
-        );
-        Matcher matcher = pattern.matcher(havingClause);
-
-        if (!matcher.matches()) {
-            throw new MySQLSyntaxErrorException("Invalid HAVING clause syntax", "Place where error occurred: \u001B[3m" + havingClause + "\u001B[0m");
-        }
-
-        String columnOrFunction = matcher.group(1);
-        String operator = matcher.group(2);
-        String value = matcher.group(3);
-
-        // Validate column or function
-        if (!isValidColumnOrFunction(columnOrFunction, availableColumns)) {
-            throw new ColumnAccessException("Cannot access column or process the function.", "Place where error occurred: \u001B[1m" + columnOrFunction + "\u001B[0m");
-        }
-
-        // Validate operator
-        if (!isValidOperator(operator)) {
-            throw new MySQLSyntaxErrorException("Invalid operator in HAVING clause", "Invalid operator: \u001B[1m" + operator + "\u001B[0m");
-        }
-
-        // Validate value (basic check)
-        if (value.trim().isEmpty()) {
-            throw new MySQLSyntaxErrorException("Missing value in HAVING clause", "Place where error occurred: \u001B[3m" + havingClause + "\u001B[0m");
+    private static HavingCondition parseHavingClause(String havingClause, Set<String> availableColumns) throws SQLException {
+        HavingCondition condition = HavingCondition.parse(havingClause);
+
+        List<String> operands = new ArrayList<>();
+        condition.collectOperands(operands);
+        for (String columnOrFunction : operands) {
+            if (!isValidColumnOrFunction(columnOrFunction, availableColumns)) {
+                throw new ColumnAccessException("Cannot access column or process the function.", "Place where error occurred: \u001B[1m" + columnOrFunction + "\u001B[0m");
+            }
         }
+        return condition;
     }
 
     /**
@@ -311,46 +197,28 @@ public class QueryProcessor {
         if (availableColumns.contains(columnOrFunction)) {
             return true;
         }
-        Pattern functionPattern = Pattern.compile("(COUNT|SUM|AVG|MIN|MAX)\\(([\\w.*]+)\\)", Pattern.CASE_INSENSITIVE);
-        Matcher functionMatcher = functionPattern.matcher(columnOrFunction);
-        if (functionMatcher.matches()) {
-            String argument = functionMatcher.group(2);
+        // Functions are normalized by HavingCondition to FUNCTION(argument)
+        int open = columnOrFunction.indexOf('(');
+        if (open > 0 && columnOrFunction.endsWith(")")) {
+            String argument = columnOrFunction.substring(open + 1, columnOrFunction.length() - 1);
             return argument.equals("*") || availableColumns.contains(argument);
         }
         return false;
     }
 
-    /**
-     * Checks if the given operator is valid.
-     *
-     * @param operator The operator to check.
-     * @return {@code true} if the operator is valid, {@code false} otherwise.
-     */
-    private static boolean isValidOperator(String operator) {
-        Set<String> validOperators = new HashSet<>(Arrays.asList(
-                "=", "<>", "!=", ">", "<", ">=", "<="
-        ));
-        return validOperators.contains(operator.toUpperCase());
-    }
-
     /**
      * Validates columns against available columns in the specified tables.
      *
-     * @param query          The SQL query being processed.
+     * @param tableNames     The names of the tables in the FROM clause.
      * @param columnsToCheck List of column names to validate.
      * @return Set of available columns.
      * @throws SQLException If an invalid column is found.
      */
-    private static Set<String> validateColumns(String query, List<String> columnsToCheck) throws SQLException {
-        Set<String> tableNames = extractTableNamesFromFromStatement(query);
+    private static Set<String> validateColumns(Set<String> tableNames, List<String> columnsToCheck) throws SQLException {
         Set<String> availableColumns = new HashSet<>();
 
         for (String tableName : tableNames) {
-            JavaInterface.getInstance().executeQuery("SELECT * FROM " + tableName);
-            Map<String, List<String>> tableColumns = FileHelper.readTableColumnNames(FileHelper.FILE_NAME);
-            for (List<String> columns : tableColumns.values()) {
-                availableColumns.addAll(columns);
-            }
+            availableColumns.addAll(SchemaCatalog.getColumns(tableName));
         }
 
         for (String column : columnsToCheck) {
@@ -361,25 +229,4 @@ public class QueryProcessor {
 
         return availableColumns;
     }
-
-    /**
-     * Extracts table names from the FROM clause of a SQL query.
-     *
-     * @param query the SQL query to extract table names from
-     * @return a Set of table names extracted from the query
-     */
-    private static Set<String> extractTableNamesFromFromStatement(String query) {
-        Set<String> tableNames = new HashSet<>();
-        Pattern pattern = Pattern.compile("(?i)select\\s+[^;]+\\s+from\\s+([a-zA-Z0-9_]+)(?:\\s+as\\s+[a-zA-Z0-9_]+\\s+inner\\s+join\\s+([a-zA-Z0-9_]+)\\s+as\\s+[a-zA-Z0-9_]+\\s+on\\s+[a-zA-Z0-9_]+\\.[a-zA-Z0-9_]+\\s*=\\s*[a-zA-Z0-9_]+\\.[a-zA-Z0-9_]+)?\\s*.*", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
-
-        if (matcher.find()) {
-            tableNames.add(matcher.group(1));
-            if (matcher.group(2) != null) {
-                tableNames.add(matcher.group(2));
-            }
-        }
-
-        return tableNames;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,255 @@
+package app.sql;
+
+import app.util.CursorRows;
+import app.util.PagedRows;
+import cpp.QueryResult;
+
+import java.util.*;
+
+/**
+ * LRU cache of the results of SELECT statements, keyed on the formatted statement text.
+ * <p>Every result is stored with the tables the statement reads. A statement modifying a table
+ * (INSERT, UPDATE, DELETE, CREATE, DROP) evicts the results reading it, and importing or creating a database
+ * clears the cache. The cached results use at most {@link ExecutionConfig#getResultCacheMemoryLimit()} bytes
+ * (estimated from the sizes of the values), and the least recently used results are evicted first.</p>
+ * <p>A result whose rows are kept in a native cursor (see {@link CursorRows}) is cached with its headers, total row count
+ * and its own list reading the cursor, and every execution answered from the cache gets a new list reading the same
+ * cursor. Its size is estimated from the pages of rows the lists can keep in memory; the other rows stay in the native
+ * database. The list of the cache is released when the result is evicted, and the cursor is closed once the result
+ * grids reading it are closed too.</p>
+ * Results whose rows are paged from a file (see {@link PagedRows}) are not cached, since the file is deleted when
+ * the result grid reading it is closed.
+ * Cached results are shared by all executions of the statement and must not be changed.
+ */
+public class ResultCache {
+
+    /**
+     * The estimated memory used by a row and by a value, besides the characters of the value.
+     */
+    private static final int ROW_OVERHEAD = 32;
+    private static final int VALUE_OVERHEAD = 48;
+
+    /**
+     * The cached results in access order, the least recently used first.
+     */
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated memory used by the cached results in bytes.
+     */
+    private static long memoryUsed = 0;
+
+    /**
+     * The number of statements answered from the cache.
+     */
+    private static long hits = 0;
+
+    /**
+     * A cached result with the tables it was read from.
+     */
+    private static class Entry {
+        private final QueryResult result;
+        private final Set<String> tableNames;
+        private final long size;
+
+        Entry(QueryResult result, Set<String> tableNames, long size) {
+            this.result = result;
+            this.tableNames = tableNames;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Returns the cached result of the given statement.
+     *
+     * @param query the formatted SELECT statement
+     * @return the cached {@link QueryResult}, or {@code null} if the result is not in the cache
+     */
+    public static synchronized QueryResult get(String query) {
+        if (!ExecutionConfig.isResultCacheEnabled()) {
+            return null;
+        }
+        Entry entry = entries.get(query);
+        if (entry == null) {
+            return null;
+        }
+        hits++;
+        return share(entry.result);
+    }
+
+    /**
+     * Adds the result of the given statement to the cache, evicting the least recently used results if needed.
+     * Results of statements whose tables are not known, results paged from a file and results larger than the memory limit,
+     * are not cached.
+     *
+     * @param query      the formatted SELECT statement
+     * @param tableNames the names of the tables the statement reads
+     * @param result     the result of the statement, with the query modifiers applied
+     * @return {@code true} if the result was cached, {@code false} otherwise
+     */
+    public static synchronized boolean put(String query, Set<String> tableNames, QueryResult result) {
+        if (!ExecutionConfig.isResultCacheEnabled() || tableNames.isEmpty() || result.isError()) {
+            return false;
+        }
+        for (QueryResult.Table table : result.getTables()) {
+            if (table.getRows() instanceof PagedRows) {
+                return false;
+            }
+        }
+        long limit = ExecutionConfig.getResultCacheMemoryLimit();
+        long size = estimateSize(query, result);
+        if (size > limit) {
+            return false;
+        }
+
+        Entry previous = entries.put(query, new Entry(share(result), new HashSet<>(tableNames), size));
+        if (previous != null) {
+            memoryUsed -= previous.size;
+            release(previous);
+        }
+        memoryUsed += size;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (memoryUsed > limit && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            memoryUsed -= entry.size;
+            release(entry);
+            iterator.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Evicts the results of the statements reading the given table.
+     *
+     * @param tableName the name of the modified table (case-insensitive), or {@code null} to evict all results
+     */
+    public static synchronized void invalidate(String tableName) {
+        if (tableName == null) {
+            clear();
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.tableNames.stream().anyMatch(tableName::equalsIgnoreCase)) {
+                memoryUsed -= entry.size;
+                release(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Evicts all results (e.g. when a database is imported).
+     */
+    public static synchronized void clear() {
+        entries.values().forEach(ResultCache::release);
+        entries.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Returns the number of statements answered from the cache.
+     *
+     * @return the number of result cache hits
+     */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the name of the table modified by the given statement.
+     *
+     * @param query the formatted INSERT, UPDATE, DELETE, CREATE TABLE or DROP TABLE statement
+     * @return the name of the table without quotes, or {@code null} if it cannot be determined
+     */
+    public static String getModifiedTable(String query) {
+        String[] words = query.trim().split("\\s+", 4);
+        String tableName = null;
+        switch (words[0].toUpperCase()) {
+            case "INSERT":
+            case "DELETE":
+            case "CREATE":
+            case "DROP":
+                // INSERT INTO t, DELETE FROM t, CREATE TABLE t, DROP TABLE t
+                tableName = words.length > 2 && !words[2].equalsIgnoreCase("IF") ? words[2] : null;
+                break;
+            case "UPDATE":
+                tableName = words.length > 1 ? words[1] : null;
+                break;
+        }
+        if (tableName == null) {
+            return null;
+        }
+        // The name can be followed by the column list without a space, e.g. INSERT INTO t(a, b)
+        int parenthesis = tableName.indexOf('(');
+        if (parenthesis > 0) {
+            tableName = tableName.substring(0, parenthesis);
+        }
+        return tableName.replace("`", "").replace("'", "").replace("\"", "");
+    }
+
+    /**
+     * Returns a result with the same tables as the given one, in which the rows kept in a native cursor are read
+     * by a new list (see {@link CursorRows#share()}), so the result grid and the cache load their rows independently.
+     *
+     * @param result the result
+     * @return the given result if it has no cursor, otherwise a new result sharing its cursor
+     */
+    private static QueryResult share(QueryResult result) {
+        if (result.getCursor() < 0) {
+            return result;
+        }
+        QueryResult shared = new QueryResult(false, null, result.getDatabaseName());
+        shared.setCursor(result.getCursor(), result.getCursorRowCount());
+        for (QueryResult.Table table : result.getTables()) {
+            List<String[]> rows = table.getRows() instanceof CursorRows ? ((CursorRows) table.getRows()).share() : table.getRows();
+            shared.addTable(new QueryResult.Table(table.getName(), table.getHeaders(), rows));
+        }
+        return shared;
+    }
+
+    /**
+     * Releases the lists of an evicted result reading a native cursor.
+     *
+     * @param entry the evicted entry
+     */
+    private static void release(Entry entry) {
+        for (QueryResult.Table table : entry.result.getTables()) {
+            if (table.getRows() instanceof CursorRows) {
+                ((CursorRows) table.getRows()).close();
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory used by a cached result.
+     *
+     * @param query  the statement
+     * @param result the result
+     * @return the estimated size in bytes
+     */
+    private static long estimateSize(String query, QueryResult result) {
+        long size = 2L * query.length() + VALUE_OVERHEAD;
+        for (QueryResult.Table table : result.getTables()) {
+            for (String header : table.getHeaders()) {
+                size += VALUE_OVERHEAD + 2L * header.length();
+            }
+            long rowsSize = 0;
+            for (String[] row : table.getRows()) {
+                rowsSize += ROW_OVERHEAD;
+                for (String value : row) {
+                    rowsSize += VALUE_OVERHEAD + (value != null ? 2L * value.length() : 0);
+                }
+            }
+            if (table.getRows() instanceof CursorRows && !table.getRows().isEmpty()) {
+                // Only the first page is loaded, the pages the lists can keep in memory are estimated from it
+                CursorRows cursorRows = (CursorRows) table.getRows();
+                rowsSize = rowsSize * cursorRows.getMaxCachedRows() / cursorRows.size();
+            }
+            size += rowsSize;
+        }
+        return size;
+    }
+}
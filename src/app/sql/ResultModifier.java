@@ -2,479 +2,312 @@ package app.sql;
 
 import app.Window;
 import app.windows.mainwindow.MainWindowController;
-import app.sql.exceptions.ColumnAccessException;
 import app.sql.exceptions.SQLException;
+import app.sql.exceptions.SpillException;
 import app.util.TextFlowHelper;
+import cpp.QueryResult;
 import javafx.scene.paint.Color;
 
 import java.util.*;
+import java.util.function.IntPredicate;
 
 /**
  * Utility class for applying modifiers to the result data.
+ * <p>All stages work on the typed column vectors of a {@link ColumnarResult} and on arrays of row indices,
+ * so the rows are never joined or split again.</p>
  */
 public class ResultModifier {
 
     /**
-     * Applies the query modifiers to the result data.
+     * Applies the query modifiers to the rows of a result table, replacing its headers and rows.
+     * <p>If ORDER BY has to sort more rows than fit in {@link ExecutionConfig#getSortMemoryLimit()}, the rows are sorted
+     * by {@link ExternalSorter} and the table gets the sorted rows paged from disk.</p>
      *
-     * @param dataLines  the list of data lines
-     * @param headerLine the header line
-     * @param modifiers  the query modifiers
-     * @return the list of data lines with the query modifiers applied
+     * @param table     the result table
+     * @param modifiers the query modifiers
      * @throws SQLException if there is an error in the SQL query
      */
-    public static List<String> applyModifiers(List<String> dataLines, String headerLine, QueryModifiers modifiers) throws SQLException {
-        List<String> result = new ArrayList<>(dataLines);
-        String newHeaderLine = headerLine;
+    public static void applyModifiers(QueryResult.Table table, QueryModifiers modifiers) throws SQLException {
+        ColumnarResult result = ColumnarResult.fromRows(table.getHeaders(), table.getRows());
+        // The values are held by the columns now, the arrays of the rows can be released
+        table.setData(table.getHeaders(), Collections.emptyList());
 
         if (!modifiers.getAggregateFunctions().isEmpty()) {
             if (modifiers.getGroupByColumns().isEmpty()) {
                 // Apply aggregate functions without GROUP BY
-                List<String> aggregatedResult = applyAggregateFunctions(result, headerLine, modifiers.getAggregateFunctions());
-                newHeaderLine = aggregatedResult.get(0);
-                result = new ArrayList<>(aggregatedResult.subList(1, aggregatedResult.size()));
+                result = applyAggregateFunctions(result, modifiers.getAggregateFunctions());
             } else {
                 // Apply GROUP BY with aggregate functions
-                List<String> groupedResult = applyGroupBy(result, headerLine, modifiers.getGroupByColumns(), modifiers.getAggregateFunctions(), modifiers.getHavingClause());
-                newHeaderLine = groupedResult.get(0);
-                result = new ArrayList<>(groupedResult.subList(1, groupedResult.size()));
+                result = applyGroupBy(result, modifiers.getGroupByColumns(), modifiers.getAggregateFunctions(), modifiers.getHavingCondition());
             }
         }
 
+        int[] rows = result.rowIndices();
+
         if (!modifiers.getDistinctColumns().isEmpty()) {
-            result = applyDistinct(result, newHeaderLine, modifiers.getDistinctColumns());
+            rows = applyDistinct(result, rows, modifiers.getDistinctColumns());
         }
 
+        LimitOffsetClause limitOffsetClause = modifiers.getLimitOffsetClause();
         if (!modifiers.getOrderByClauses().isEmpty()) {
-            result = new ArrayList<>(applyOrderBy(result, newHeaderLine, modifiers.getOrderByClauses()));
+            List<OrderByClause> orderByClauses = modifiers.getOrderByClauses();
+            ColumnarResult.Column[] sortColumns = findSortColumns(result, orderByClauses);
+            if (sortColumns != null) {
+                boolean[] ascending = new boolean[orderByClauses.size()];
+                for (int i = 0; i < ascending.length; i++) {
+                    ascending[i] = orderByClauses.get(i).isAscending();
+                }
+                int limit = topKLimit(limitOffsetClause);
+                if ((limit < 0 || limit >= rows.length) && RowSorter.exceedsMemoryLimit(rows.length, sortColumns.length)) {
+                    // The sorted rows are written to disk by the merge, with the LIMIT and OFFSET applied
+                    int[] range = limitOffsetClause != null ? limitOffsetRange(rows.length, limitOffsetClause) : new int[]{0, rows.length};
+                    table.setData(result.getColumnNames(), ExternalSorter.sort(result, rows, sortColumns, ascending,
+                            RowSorter.runLength(sortColumns.length), range[0], range[1]));
+                    return;
+                }
+                rows = applyOrderBy(rows, sortColumns, ascending, limit);
+            }
         }
 
-        if (modifiers.getLimitOffsetClause() != null) {
-            result = applyLimitOffset(result, modifiers.getLimitOffsetClause());
+        if (limitOffsetClause != null) {
+            rows = applyLimitOffset(rows, limitOffsetClause);
         }
 
-        List<String> finalResult = new ArrayList<>();
-        finalResult.add(newHeaderLine);
-        finalResult.addAll(result);
-        return finalResult;
+        table.setData(result.getColumnNames(), result.select(rows).toRows());
     }
 
     /**
-     * Applies the aggregate functions to the result data.
+     * Returns the number of rows a SELECT query has to produce when only the LIMIT and OFFSET modifiers are applied.
+     * <p>Without ordering, DISTINCT or aggregation the result is simply the first offset + limit rows,
+     * so the rest of the rows never have to be produced or read.</p>
      *
-     * @param dataLines           the list of data lines
-     * @param headerLine          the header line
-     * @param aggregateFunctions  the list of aggregate functions
-     * @return the list of data lines with the aggregate functions applied
+     * @param modifiers the query modifiers
+     * @return the number of rows needed, or -1 if all rows are needed
      */
-    private static List<String> applyAggregateFunctions(List<String> dataLines, String headerLine, List<AggregateFunction> aggregateFunctions) {
-        List<String> headers = Arrays.asList(headerLine.split("~"));
-        Map<String, Double> sums = new HashMap<>();
-        Map<String, Integer> counts = new HashMap<>();
-        Map<String, String> mins = new HashMap<>();
-        Map<String, String> maxs = new HashMap<>();
-        Map<String, String> firstValues = new HashMap<>();
-
-        int totalCount = dataLines.size();
-
-        for (String line : dataLines) {
-            String[] values = line.split("~");
-            for (AggregateFunction func : aggregateFunctions) {
-                if (!(func.getFunction().equals("COUNT") && func.getArgument().equals("*"))) {
-                    // handle COUNT(*) separately
-                    int colIndex = headers.indexOf(func.getArgument());
-                    if (colIndex != -1 && colIndex < values.length) {
-                        String value = values[colIndex];
-                        if (func.getFunction().equals("NONE")) {
-                            if (!firstValues.containsKey(func.getArgument())) {
-                                firstValues.put(func.getArgument(), value);
-                            }
-                        } else {
-                            switch (func.getFunction()) {
-                                case "SUM":
-                                case "AVG":
-                                    try {
-                                        double numericValue = Double.parseDouble(value);
-                                        sums.merge(func.getArgument(), numericValue, Double::sum);
-                                        counts.merge(func.getArgument(), 1, Integer::sum);
-                                    } catch (NumberFormatException e) {
-                                        // Ignore non-numeric values for SUM and AVG
-                                    }
-                                    break;
-                                case "MIN":
-                                    mins.merge(func.getArgument(), value, (oldVal, newVal) -> oldVal.compareTo(newVal) <= 0 ? oldVal : newVal);
-                                    break;
-                                case "MAX":
-                                    maxs.merge(func.getArgument(), value, (oldVal, newVal) -> oldVal.compareTo(newVal) >= 0 ? oldVal : newVal);
-                                    break;
-                                case "COUNT":
-                                    counts.merge(func.getArgument(), 1, Integer::sum);
-                                    break;
-                            }
-                        }
-                    }
-                }
-            }
+    public static int getStreamingRowLimit(QueryModifiers modifiers) {
+        if (!modifiers.getOrderByClauses().isEmpty() || !modifiers.getDistinctColumns().isEmpty()
+                || !modifiers.getAggregateFunctions().isEmpty() || !modifiers.getGroupByColumns().isEmpty()) {
+            return -1;
         }
+        return topKLimit(modifiers.getLimitOffsetClause());
+    }
 
-        StringBuilder resultLine = new StringBuilder();
-        StringBuilder newHeaderLine = new StringBuilder();
+    /**
+     * Applies the LIMIT and OFFSET modifiers directly to rows of strings,
+     * used for results read with {@link #getStreamingRowLimit(QueryModifiers)}.
+     *
+     * @param rows              the rows
+     * @param limitOffsetClause the LIMIT and OFFSET clauses
+     * @return the rows with the LIMIT and OFFSET applied
+     */
+    public static List<String[]> applyLimitOffset(List<String[]> rows, LimitOffsetClause limitOffsetClause) {
+        int[] range = limitOffsetRange(rows.size(), limitOffsetClause);
+        return new ArrayList<>(rows.subList(range[0], range[1]));
+    }
 
+    /**
+     * Applies the aggregate functions to the result data.
+     *
+     * @param data               the result data
+     * @param aggregateFunctions the list of aggregate functions
+     * @return the result with a single row containing the aggregate function results
+     */
+    private static ColumnarResult applyAggregateFunctions(ColumnarResult data, List<AggregateFunction> aggregateFunctions) {
+        List<String> newHeaders = new ArrayList<>();
+        List<ColumnarResult.Column> functionColumns = new ArrayList<>();
         for (AggregateFunction func : aggregateFunctions) {
-            if (func.getFunction().equals("NONE")) {
-                resultLine.append(firstValues.getOrDefault(func.getArgument(), "")).append("~");
-                newHeaderLine.append(func.getArgument()).append("~");
-            } else {
-                String value = "";
-                switch (func.getFunction()) {
-                    case "SUM":
-                        value = String.format("%.2f", sums.getOrDefault(func.getArgument(), 0.0));
-                        break;
-                    case "AVG":
-                        value = String.format("%.2f", sums.getOrDefault(func.getArgument(), 0.0) / counts.getOrDefault(func.getArgument(), 1));
-                        break;
-                    case "MIN":
-                        value = mins.getOrDefault(func.getArgument(), "");
-                        break;
-                    case "MAX":
-                        value = maxs.getOrDefault(func.getArgument(), "");
-                        break;
-                    case "COUNT":
-                        if (func.getArgument().equals("*")) {
-                            value = String.valueOf(totalCount);
-                        } else {
-                            value = String.valueOf(counts.getOrDefault(func.getArgument(), 0));
-                        }
-                        break;
-                }
-                resultLine.append(value).append("~");
-                newHeaderLine.append(func.getFunction()).append("(").append(func.getArgument()).append(")").append("~");
-            }
+            newHeaders.add(func.getFunction().equals("NONE") ? func.getArgument() : func.getFunction() + "(" + func.getArgument() + ")");
+            functionColumns.add(findColumn(data, func.getArgument()));
         }
 
-        if (resultLine.length() > 0) {
-            resultLine.setLength(resultLine.length() - 1); // Remove last ~
-            newHeaderLine.setLength(newHeaderLine.length() - 1); // Remove last ~
-        }
-
-        List<String> result = new ArrayList<>();
-        result.add(newHeaderLine.toString());
-        result.add(resultLine.toString());
+        HashAggregator aggregator = HashAggregator.aggregate(data, Collections.emptyList(), aggregateFunctions, functionColumns);
 
-        return result;
+        return ColumnarResult.fromRows(newHeaders, aggregator.results());
     }
 
     /**
      * Applies the DISTINCT modifier to the result data.
+     * For each distinct combination of values, the first row containing it is kept (see {@link DistinctFilter}).
      *
-     * @param dataLines        the list of data lines
-     * @param headerLine       the header line
-     * @param distinctColumns  the list of distinct columns
-     * @return the list of data lines with distinct rows
+     * @param data            the result data
+     * @param rows            the indices of the rows to process
+     * @param distinctColumns the list of distinct columns
+     * @return the indices of the distinct rows
+     * @throws SpillException if the rows cannot be spilled to disk
      */
-    private static List<String> applyDistinct(List<String> dataLines, String headerLine, List<String> distinctColumns) {
-        List<String> headerList = Arrays.asList(headerLine.split("~"));
-        Set<String> uniqueRows = new LinkedHashSet<>();
-        boolean isAllColumns = distinctColumns.contains("*") || distinctColumns.size() == headerList.size();
-
-        for (String line : dataLines) {
-            String[] values = line.split("~");
-            StringBuilder distinctValues = new StringBuilder();
-
-            if (isAllColumns) {
-                distinctValues.append(line);
-            } else {
-                for (String column : distinctColumns) {
-                    int index = headerList.indexOf(column);
-                    if (index != -1 && index < values.length) {
-                        distinctValues.append(values[index]).append("~");
-                    }
+    private static int[] applyDistinct(ColumnarResult data, int[] rows, List<String> distinctColumns) throws SpillException {
+        List<ColumnarResult.Column> keyColumns = new ArrayList<>();
+        boolean isAllColumns = distinctColumns.contains("*") || distinctColumns.size() == data.getColumns().size();
+        if (isAllColumns) {
+            keyColumns.addAll(data.getColumns());
+        } else {
+            for (String columnName : distinctColumns) {
+                ColumnarResult.Column column = findColumn(data, columnName);
+                if (column != null) {
+                    keyColumns.add(column);
                 }
-                distinctValues.setLength(distinctValues.length() - 1); // Remove last ~
             }
-
-            uniqueRows.add(distinctValues.toString());
         }
 
-        return new ArrayList<>(uniqueRows);
+        return new DistinctFilter(keyColumns).filter(rows);
     }
 
     /**
-     * Applies the ORDER BY modifier to the result data.
+     * Resolves the columns of the ORDER BY clauses, showing an error if a column does not exist.
      *
-     * @param dataLines       the list of data lines
-     * @param headerLine      the header line
-     * @param orderByClauses  the list of ORDER BY clauses
-     * @return the list of data lines sorted by the ORDER BY clauses
+     * @param data           the result data
+     * @param orderByClauses the list of ORDER BY clauses
+     * @return the columns to sort by, or {@code null} if a column does not exist and the rows are left unsorted
      */
-    private static List<String> applyOrderBy(List<String> dataLines, String headerLine, List<OrderByClause> orderByClauses) {
-        List<String> headerList = Arrays.asList(headerLine.split("~"));
-        MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
-
-        // Checking if all columns in the ORDER BY clause exist
-        for (OrderByClause clause : orderByClauses) {
-            if (!headerList.contains(clause.getColumn())) {
+    private static ColumnarResult.Column[] findSortColumns(ColumnarResult data, List<OrderByClause> orderByClauses) {
+        ColumnarResult.Column[] sortColumns = new ColumnarResult.Column[orderByClauses.size()];
+        for (int i = 0; i < orderByClauses.size(); i++) {
+            OrderByClause clause = orderByClauses.get(i);
+            sortColumns[i] = findColumn(data, clause.getColumn());
+            if (sortColumns[i] == null) {
+                MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
                 TextFlowHelper.updateResultTextFlow(mainWindowController.consoleTextFlow,
                         "\n\nERROR: Column '" + clause.getColumn() + "' in ORDER BY clause does not exist in the result set.", Color.RED, true);
-                return dataLines; // Return original data without sorting
-
+                return null;
             }
         }
+        return sortColumns;
+    }
 
-        dataLines.sort((line1, line2) -> {
-            String[] values1 = line1.split("~");
-            String[] values2 = line2.split("~");
-            for (OrderByClause clause : orderByClauses) {
-                int columnIndex = headerList.indexOf(clause.getColumn());
-                if (columnIndex != -1 && columnIndex < values1.length && columnIndex < values2.length) {
-                    int comparison = values1[columnIndex].compareTo(values2[columnIndex]);
-                    if (comparison != 0) {
-                        return clause.isAscending() ? comparison : -comparison;
-                    }
-                }
-            }
-            return 0;
-        });
+    /**
+     * Applies the ORDER BY modifier to the result data in memory.
+     * The rows are sorted by {@link RowSorter}; numeric columns are compared numerically, other columns lexicographically.
+     * <p>If only the first {@code limit} rows are needed (ORDER BY with LIMIT), they are selected with
+     * {@link RowSorter#topK} instead of sorting all rows.</p>
+     *
+     * @param rows        the indices of the rows to sort
+     * @param sortColumns the columns to sort by, in order of precedence
+     * @param ascending   for each column, {@code true} for ascending and {@code false} for descending order
+     * @param limit       the number of rows needed, or -1 if all rows are needed
+     * @return the indices of the rows sorted by the ORDER BY clauses
+     */
+    private static int[] applyOrderBy(int[] rows, ColumnarResult.Column[] sortColumns, boolean[] ascending, int limit) {
+        if (limit >= 0 && limit < rows.length) {
+            return RowSorter.topK(rows, sortColumns, ascending, limit);
+        }
+        return RowSorter.sort(rows, sortColumns, ascending);
+    }
 
-        return dataLines;
+    /**
+     * Returns the number of sorted rows needed by the LIMIT and OFFSET modifiers (offset + limit).
+     *
+     * @param limitOffsetClause the LIMIT and OFFSET clauses, or {@code null} if the query has none
+     * @return the number of rows needed, or -1 if all rows are needed
+     */
+    private static int topKLimit(LimitOffsetClause limitOffsetClause) {
+        if (limitOffsetClause == null || limitOffsetClause.getLimit() < 0 || limitOffsetClause.getOffset() < 0) {
+            return -1;
+        }
+        long needed = (long) limitOffsetClause.getOffset() + limitOffsetClause.getLimit();
+        return needed <= Integer.MAX_VALUE ? (int) needed : -1;
     }
 
     /**
      * Applies the LIMIT and OFFSET modifiers to the result data.
      *
-     * @param dataLines        the list of data lines
-     * @param limitOffsetClause  the LIMIT and OFFSET clauses
-     * @return the list of data lines with the LIMIT and OFFSET applied
+     * @param rows              the indices of the rows
+     * @param limitOffsetClause the LIMIT and OFFSET clauses
+     * @return the indices of the rows with the LIMIT and OFFSET applied
      */
-    private static List<String> applyLimitOffset(List<String> dataLines, LimitOffsetClause limitOffsetClause) {
+    private static int[] applyLimitOffset(int[] rows, LimitOffsetClause limitOffsetClause) {
         if (limitOffsetClause == null) {
-            return dataLines;
+            return rows;
         }
 
+        int[] range = limitOffsetRange(rows.length, limitOffsetClause);
+        return Arrays.copyOfRange(rows, range[0], range[1]);
+    }
+
+    /**
+     * Returns the range of rows kept by the LIMIT and OFFSET modifiers and warns if the range is empty.
+     *
+     * @param rowCount          the number of rows
+     * @param limitOffsetClause the LIMIT and OFFSET clauses
+     * @return the start (inclusive) and end (exclusive) of the kept rows
+     */
+    private static int[] limitOffsetRange(int rowCount, LimitOffsetClause limitOffsetClause) {
         int offset = limitOffsetClause.getOffset();
         int limit = limitOffsetClause.getLimit();
 
         MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
 
         // If offset is greater than or equal to the number of rows, return empty result
-        if (offset >= dataLines.size()) {
+        if (offset >= rowCount) {
             TextFlowHelper.addWarningMessage(mainWindowController.consoleTextFlow, "OFFSET is greater than or equal to the number of rows. Returning empty result.");
-            return new ArrayList<>();
+            return new int[]{0, 0};
         }
 
         // If limit is 0, return empty result
         if (limit == 0) {
             TextFlowHelper.addWarningMessage(mainWindowController.consoleTextFlow, "LIMIT is 0. Returning empty result.");
-            return new ArrayList<>();
+            return new int[]{0, 0};
         }
 
-        int endIndex = Math.min(offset + limit, dataLines.size());
+        int endIndex = (int) Math.min((long) offset + limit, rowCount);
 
-        return new ArrayList<>(dataLines.subList(offset, endIndex));
+        return new int[]{offset, endIndex};
     }
 
     /**
      * Applies the GROUP BY modifier to the result data.
+     * <p>The rows are aggregated in a single pass by a {@link HashAggregator}, which keeps only
+     * primitive accumulators per group; large inputs are aggregated in parallel chunks.</p>
      *
-     * @param dataLines        the list of data lines
-     * @param headerLine       the header line
-     * @param groupByColumns   the list of GROUP BY columns
-     * @param aggregateFunctions  the list of aggregate functions
-     * @param havingClause     the HAVING clause
-     * @return the list of data lines with the GROUP BY clause applied
+     * @param data               the result data
+     * @param groupByColumns     the list of GROUP BY columns
+     * @param aggregateFunctions the list of aggregate functions
+     * @param havingCondition    the parsed HAVING clause, or {@code null} if the query has none
+     * @return the result with one row per group
      * @throws SQLException if there is an error in the SQL query
      */
-    private static List<String> applyGroupBy(List<String> dataLines, String headerLine, List<String> groupByColumns, List<AggregateFunction> aggregateFunctions, String havingClause) throws SQLException {
-        List<String> headers = Arrays.asList(headerLine.split("~"));
-        Map<String, List<String>> groupedData = new HashMap<>();
-
-        // Grouping data
-        for (String line : dataLines) {
-            String[] values = line.split("~");
-            StringBuilder groupKey = new StringBuilder();
-            for (String column : groupByColumns) {
-                int index = headers.indexOf(column);
-                if (index != -1 && index < values.length) {
-                    groupKey.append(values[index]).append("~");
-                }
+    private static ColumnarResult applyGroupBy(ColumnarResult data, List<String> groupByColumns, List<AggregateFunction> aggregateFunctions, HavingCondition havingCondition) throws SQLException {
+        List<ColumnarResult.Column> keyColumns = new ArrayList<>();
+        for (String columnName : groupByColumns) {
+            ColumnarResult.Column column = findColumn(data, columnName);
+            if (column != null) {
+                keyColumns.add(column);
             }
-            groupedData.computeIfAbsent(groupKey.toString(), k -> new ArrayList<>()).add(line);
         }
 
-        // Applying aggregate functions to each group
-        List<String> result = new ArrayList<>();
-        StringBuilder newHeaderLine = new StringBuilder();
-
-        // Building new header line
-        for (String column : groupByColumns) {
-            newHeaderLine.append(column).append("~");
-        }
+        // Building new headers
+        List<String> newHeaders = new ArrayList<>(groupByColumns);
+        List<AggregateFunction> appliedFunctions = new ArrayList<>();
+        List<ColumnarResult.Column> functionColumns = new ArrayList<>();
         for (AggregateFunction func : aggregateFunctions) {
             if (!func.getFunction().equals("NONE")) {
-                newHeaderLine.append(func.getFunction()).append("(").append(func.getArgument()).append(")").append("~");
+                newHeaders.add(func.getFunction() + "(" + func.getArgument() + ")");
+                appliedFunctions.add(func);
+                functionColumns.add(findColumn(data, func.getArgument()));
             }
         }
-        String finalHeaderLine = newHeaderLine.substring(0, newHeaderLine.length() - 1);
-        result.add(finalHeaderLine);
-
-        // Processing each group
-        for (List<String> group : groupedData.values()) {
-            StringBuilder resultLine = new StringBuilder();
-            String[] firstLineValues = group.get(0).split("~");
-
-            // Adding group by columns
-            for (String column : groupByColumns) {
-                int index = headers.indexOf(column);
-                if (index != -1 && index < firstLineValues.length) {
-                    resultLine.append(firstLineValues[index]).append("~");
-                }
-            }
 
-            // Calculating and adding aggregate function results
-            for (AggregateFunction func : aggregateFunctions) {
-                if (!func.getFunction().equals("NONE")) {
-                    String aggregateResult = calculateAggregate(group, headers, func);
-                    resultLine.append(aggregateResult).append("~");
-                }
-            }
-
-            String groupResult = resultLine.substring(0, resultLine.length() - 1);
+        // Grouping data and calculating the aggregate functions
+        HashAggregator aggregator = HashAggregator.aggregate(data, keyColumns, appliedFunctions, functionColumns);
 
-            // Applying HAVING clause
-            if (havingClause == null || evaluateHavingClause(groupResult, finalHeaderLine, havingClause)) {
-                result.add(groupResult);
-            }
+        if (havingCondition == null) {
+            return ColumnarResult.fromRows(newHeaders, aggregator.results());
         }
 
-        return result;
-    }
-
-    /**
-     * Calculates the aggregate result for a group.
-     *
-     * @param group  the group of data lines
-     * @param headers  the header line
-     * @param func  the aggregate function
-     * @return the aggregate result
-     */
-    private static String calculateAggregate(List<String> group, List<String> headers, AggregateFunction func) {
-        int columnIndex = headers.indexOf(func.getArgument());
-        switch (func.getFunction()) {
-            case "COUNT":
-                return String.valueOf(group.size());
-            case "SUM":
-            case "AVG":
-                double sum = 0;
-                int count = 0;
-                for (String line : group) {
-                    String[] values = line.split("~");
-                    if (columnIndex != -1 && columnIndex < values.length) {
-                        try {
-                            sum += Double.parseDouble(values[columnIndex]);
-                            count++;
-                        } catch (NumberFormatException ignored) {
-                        }
-                    }
-                }
-                return func.getFunction().equals("SUM") ? String.format("%.2f", sum) : String.format("%.2f", sum / count);
-            case "MIN":
-            case "MAX":
-                String result = null;
-                for (String line : group) {
-                    String[] values = line.split("~");
-                    if (columnIndex != -1 && columnIndex < values.length) {
-                        String value = values[columnIndex];
-                        if (result == null || (func.getFunction().equals("MIN") && value.compareTo(result) < 0) ||
-                                (func.getFunction().equals("MAX") && value.compareTo(result) > 0)) {
-                            result = value;
-                        }
-                    }
-                }
-                return result != null ? result : "";
-            default:
-                return "";
-        }
+        // Applying HAVING clause, compiled once against the accumulators of the groups,
+        // so only the rows of the matching groups are built
+        IntPredicate having = havingCondition.compile(newHeaders, aggregator);
+        return ColumnarResult.fromRows(newHeaders, aggregator.results(having));
     }
 
     /**
-     * Evaluates the HAVING clause for a group result.
+     * Finds the column with the given name.
      *
-     * @param groupResult  the group result
-     * @param headerLine   the header line
-     * @param havingClause the HAVING clause
-     * @return true if the group result satisfies the HAVING clause, false otherwise
-     * @throws SQLException (ColumnAccessException) if the column in the HAVING clause does not exist
+     * @param data the result data
+     * @param name the name of the column
+     * @return the {@link ColumnarResult.Column}, or {@code null} if the result has no such column
      */
-    private static boolean evaluateHavingClause(String groupResult, String headerLine, String havingClause) throws SQLException {
-        String[] headers = headerLine.split("~");
-        String[] values = groupResult.split("~");
-
-        // Parse the HAVING clause
-        String[] parts = havingClause.split("\\s+", 3); // Split into max 3 parts
-        if (parts.length != 3) {
-            // Invalid HAVING clause format
-            return true;
-        }
-
-        String column = parts[0];
-        String operator = parts[1];
-        String valueToCompare = parts[2].replace("'", "").replace("\"", "");
-
-        // Find the column index, considering aggregate functions
-        int columnIndex = -1;
-        for (int i = 0; i < headers.length; i++) {
-            if (headers[i].equals(column) || headers[i].contains("(" + column + ")")) {
-                columnIndex = i;
-                break;
-            }
-        }
-
-        if (columnIndex == -1) {
-            // Column not found
-            throw new ColumnAccessException("Cannot access column with the provided name.", "\u001B[1m\u001B[31mColumn: \u001B[0m" + column + "\u001B[1m\u001B[31m does not exist in the table\u001B[0m");
-        }
-
-        String actualValue = values[columnIndex].replace("'", "").replace("\"", "");
-
-        // Compare values based on the operator
-        try {
-            double actualDouble = Double.parseDouble(actualValue);
-            double compareDouble = Double.parseDouble(valueToCompare);
-
-            switch (operator) {
-                case ">":
-                    return actualDouble > compareDouble;
-                case "<":
-                    return actualDouble < compareDouble;
-                case "=":
-                    return actualDouble == compareDouble;
-                case ">=":
-                    return actualDouble >= compareDouble;
-                case "<=":
-                    return actualDouble <= compareDouble;
-                case "<>":
-                case "!=":
-                    return actualDouble != compareDouble;
-                default:
-                    // Unsupported operator
-                    TextFlowHelper.addWarningMessage(((MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController()).consoleTextFlow,
-                            "Unsupported operator: " + operator);
-                    return true;
-            }
-        } catch (NumberFormatException e) {
-            // If parsing to double fails, compare as strings
-            switch (operator) {
-                case "=":
-                    return actualValue.equals(valueToCompare);
-                case "<>":
-                case "!=":
-                    return !actualValue.equals(valueToCompare);
-                default:
-                    // Unsupported operator for string comparison
-                    TextFlowHelper.addWarningMessage(((MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController()).consoleTextFlow,
-                            "Unsupported operator for string comparison: " + operator);
-                    return true;
-            }
-        }
+    private static ColumnarResult.Column findColumn(ColumnarResult data, String name) {
+        int index = data.indexOf(name);
+        return index != -1 ? data.getColumn(index) : null;
     }
 }
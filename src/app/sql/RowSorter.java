@@ -0,0 +1,382 @@
+package app.sql;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorts rows of a {@link ColumnarResult} for the ORDER BY clause.
+ * <p>The sort keys are extracted once per row into arrays of primitive values (or strings for text columns),
+ * laid out in the order of the rows being sorted. The row positions are then sorted with a stable merge sort
+ * on an {@code int[]}, so comparisons only read the key arrays and nothing is boxed.</p>
+ * Results with at least {@link ExecutionConfig#getParallelSortThreshold()} rows are sorted in parallel
+ * on the common {@link ForkJoinPool} if {@link ExecutionConfig#isParallelSortEnabled()}.
+ * Results whose sort state would exceed {@link ExecutionConfig#getSortMemoryLimit()} (see {@link #exceedsMemoryLimit})
+ * are sorted by {@link ExternalSorter} instead.
+ */
+public class RowSorter {
+
+    /**
+     * Runs shorter than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    /**
+     * Ranges shorter than this are never split into parallel tasks.
+     */
+    private static final int MIN_PARALLEL_RANGE = 8192;
+
+    /**
+     * The memory used per row by the in-memory sort, besides the keys: the positions, the merge buffer and the result.
+     */
+    private static final int BYTES_PER_ROW = 3 * Integer.BYTES;
+
+    /**
+     * Compares two rows by their positions in the key arrays.
+     */
+    interface PositionComparator {
+        int compare(int position1, int position2);
+    }
+
+    /**
+     * Sorts the given rows by the given columns. The sort is stable, also when it runs in parallel.
+     *
+     * @param rows      the indices of the rows in the columns
+     * @param columns   the columns to sort by, in order of precedence
+     * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+     * @return the indices of the rows in sorted order
+     */
+    public static int[] sort(int[] rows, ColumnarResult.Column[] columns, boolean[] ascending) {
+        return sortInMemory(rows, columns, ascending);
+    }
+
+    /**
+     * Checks if sorting the given number of rows in memory would exceed {@link ExecutionConfig#getSortMemoryLimit()}.
+     *
+     * @param rowCount    the number of rows to sort
+     * @param columnCount the number of columns to sort by
+     * @return {@code true} if the rows have to be sorted by {@link ExternalSorter}
+     */
+    static boolean exceedsMemoryLimit(int rowCount, int columnCount) {
+        return rowCount * bytesPerRow(columnCount) > ExecutionConfig.getSortMemoryLimit();
+    }
+
+    /**
+     * Returns the number of rows {@link ExternalSorter} sorts in memory at once within {@link ExecutionConfig#getSortMemoryLimit()}.
+     *
+     * @param columnCount the number of columns to sort by
+     * @return the maximum length of a sorted run
+     */
+    static int runLength(int columnCount) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1024, ExecutionConfig.getSortMemoryLimit() / bytesPerRow(columnCount)));
+    }
+
+    /**
+     * Returns the memory used per row by the in-memory sort.
+     */
+    private static long bytesPerRow(int columnCount) {
+        // Key arrays hold a long, a double or a string reference per row and column
+        return BYTES_PER_ROW + (long) columnCount * Long.BYTES;
+    }
+
+    /**
+     * Sorts the given rows by the given columns in memory. The sort is stable, also when it runs in parallel.
+     *
+     * @param rows      the indices of the rows in the columns
+     * @param columns   the columns to sort by, in order of precedence
+     * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+     * @return the indices of the rows in sorted order
+     */
+    static int[] sortInMemory(int[] rows, ColumnarResult.Column[] columns, boolean[] ascending) {
+        PositionComparator comparator = createComparator(rows, columns, ascending);
+
+        int[] positions = new int[rows.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int[] buffer = new int[positions.length];
+        if (ExecutionConfig.isParallelSortEnabled() && positions.length >= ExecutionConfig.getParallelSortThreshold()) {
+            int parallelism = ForkJoinPool.getCommonPoolParallelism();
+            int minRange = Math.max(MIN_PARALLEL_RANGE, positions.length / (parallelism * 4));
+            ForkJoinPool.commonPool().invoke(new ParallelMergeSort(positions, buffer, 0, positions.length, minRange, comparator));
+        } else {
+            mergeSort(positions, buffer, 0, positions.length, comparator);
+        }
+
+        int[] sortedRows = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            sortedRows[i] = rows[positions[i]];
+        }
+        return sortedRows;
+    }
+
+    /**
+     * Returns the first {@code k} rows of the sorted order, without sorting all rows.
+     * <p>Keeps the {@code k} smallest rows seen so far in a bounded max-heap, which takes O(n log k) time
+     * and O(k) memory. Ties are broken by the position of the row, so the result is the same as the first
+     * {@code k} rows of {@link #sort}.</p>
+     *
+     * @param rows      the indices of the rows in the columns
+     * @param columns   the columns to sort by, in order of precedence
+     * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+     * @param k         the number of rows to return
+     * @return the indices of the first {@code k} rows in sorted order
+     */
+    public static int[] topK(int[] rows, ColumnarResult.Column[] columns, boolean[] ascending, int k) {
+        k = Math.min(k, rows.length);
+        if (k <= 0) {
+            return new int[0];
+        }
+
+        // Compares positions in rows directly on the columns, so no key arrays of size n are allocated
+        PositionComparator comparator = (position1, position2) -> {
+            for (int i = 0; i < columns.length; i++) {
+                int comparison = columns[i].compare(rows[position1], rows[position2]);
+                if (comparison != 0) {
+                    return ascending[i] ? comparison : -comparison;
+                }
+            }
+            return Integer.compare(position1, position2);
+        };
+
+        int[] heap = new int[k];
+        int size = 0;
+        for (int position = 0; position < rows.length; position++) {
+            if (size < k) {
+                heap[size] = position;
+                siftUp(heap, size++, comparator);
+            } else if (comparator.compare(position, heap[0]) < 0) {
+                heap[0] = position;
+                siftDown(heap, 0, size, comparator);
+            }
+        }
+
+        mergeSort(heap, new int[k], 0, k, comparator);
+        int[] topRows = new int[k];
+        for (int i = 0; i < k; i++) {
+            topRows[i] = rows[heap[i]];
+        }
+        return topRows;
+    }
+
+    /**
+     * Moves the element at the given index of a max-heap up to its place.
+     *
+     * @param heap       the heap
+     * @param index      the index of the element
+     * @param comparator the comparator of the positions
+     */
+    private static void siftUp(int[] heap, int index, PositionComparator comparator) {
+        int position = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(position, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = position;
+    }
+
+    /**
+     * Moves the element at the given index of a max-heap down to its place.
+     *
+     * @param heap       the heap
+     * @param index      the index of the element
+     * @param size       the number of elements in the heap
+     * @param comparator the comparator of the positions
+     */
+    private static void siftDown(int[] heap, int index, int size, PositionComparator comparator) {
+        int position = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (comparator.compare(position, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = position;
+    }
+
+    /**
+     * Extracts the sort keys of the given rows and creates a comparator over their positions.
+     *
+     * @param rows      the indices of the rows in the columns
+     * @param columns   the columns to sort by, in order of precedence
+     * @param ascending for each column, {@code true} for ascending and {@code false} for descending order
+     * @return the {@link PositionComparator} comparing positions in {@code rows}
+     */
+    static PositionComparator createComparator(int[] rows, ColumnarResult.Column[] columns, boolean[] ascending) {
+        PositionComparator[] keys = new PositionComparator[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            PositionComparator key = createKey(rows, columns[i]);
+            keys[i] = ascending[i] ? key : (position1, position2) -> key.compare(position2, position1);
+        }
+
+        if (keys.length == 1) {
+            return keys[0];
+        }
+        return (position1, position2) -> {
+            for (PositionComparator key : keys) {
+                int comparison = key.compare(position1, position2);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Extracts the values of the given rows of a column into a key array matching the type of the column.
+     *
+     * @param rows   the indices of the rows in the column
+     * @param column the column
+     * @return the {@link PositionComparator} comparing the extracted keys
+     */
+    private static PositionComparator createKey(int[] rows, ColumnarResult.Column column) {
+        switch (column.getType()) {
+            case LONG: {
+                long[] keys = new long[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = column.getLong(rows[i]);
+                }
+                return (position1, position2) -> Long.compare(keys[position1], keys[position2]);
+            }
+            case DOUBLE: {
+                double[] keys = new double[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = column.getDouble(rows[i]);
+                }
+                return (position1, position2) -> Double.compare(keys[position1], keys[position2]);
+            }
+            default: {
+                String[] keys = new String[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = column.getString(rows[i]);
+                }
+                return (position1, position2) -> keys[position1].compareTo(keys[position2]);
+            }
+        }
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the given array with a stable merge sort.
+     *
+     * @param positions  the positions to sort
+     * @param buffer     a buffer at least as long as the range
+     * @param from       the start of the range (inclusive)
+     * @param to         the end of the range (exclusive)
+     * @param comparator the comparator of the positions
+     */
+    static void mergeSort(int[] positions, int[] buffer, int from, int to, PositionComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(positions, from, to, comparator);
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(positions, buffer, from, middle, comparator);
+        mergeSort(positions, buffer, middle, to, comparator);
+        merge(positions, buffer, from, middle, to, comparator);
+    }
+
+    /**
+     * Merges the sorted ranges {@code [from, middle)} and {@code [middle, to)} of the given array.
+     * Equal elements keep their order, with the elements of the first range first.
+     *
+     * @param positions  the positions containing the sorted ranges
+     * @param buffer     a buffer at least as long as both ranges
+     * @param from       the start of the first range (inclusive)
+     * @param middle     the end of the first range and the start of the second range
+     * @param to         the end of the second range (exclusive)
+     * @param comparator the comparator of the positions
+     */
+    static void merge(int[] positions, int[] buffer, int from, int middle, int to, PositionComparator comparator) {
+        // Already in order
+        if (comparator.compare(positions[middle - 1], positions[middle]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        int index = from;
+        while (left < middle && right < to) {
+            if (comparator.compare(buffer[right], buffer[left]) < 0) {
+                positions[index++] = buffer[right++];
+            } else {
+                positions[index++] = buffer[left++];
+            }
+        }
+        while (left < middle) {
+            positions[index++] = buffer[left++];
+        }
+        while (right < to) {
+            positions[index++] = buffer[right++];
+        }
+    }
+
+    /**
+     * Sorts the range {@code [from, to)} of the given array with insertion sort.
+     *
+     * @param positions  the positions to sort
+     * @param from       the start of the range (inclusive)
+     * @param to         the end of the range (exclusive)
+     * @param comparator the comparator of the positions
+     */
+    private static void insertionSort(int[] positions, int from, int to, PositionComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int position = positions[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(position, positions[j]) < 0) {
+                positions[j + 1] = positions[j];
+                j--;
+            }
+            positions[j + 1] = position;
+        }
+    }
+
+    /**
+     * Parallel version of {@link #mergeSort}: both halves of a range are sorted as separate tasks
+     * and then merged, down to ranges of {@code minRange} elements which are sorted sequentially.
+     * The halves use disjoint parts of the positions and the buffer, and the merge is stable.
+     */
+    private static class ParallelMergeSort extends RecursiveAction {
+        private final int[] positions;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final int minRange;
+        private final PositionComparator comparator;
+
+        ParallelMergeSort(int[] positions, int[] buffer, int from, int to, int minRange, PositionComparator comparator) {
+            this.positions = positions;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.minRange = minRange;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= minRange) {
+                mergeSort(positions, buffer, from, to, comparator);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParallelMergeSort(positions, buffer, from, middle, minRange, comparator),
+                    new ParallelMergeSort(positions, buffer, middle, to, minRange, comparator));
+            merge(positions, buffer, from, middle, to, comparator);
+        }
+    }
+}
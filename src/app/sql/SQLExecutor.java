@@ -1,24 +1,31 @@
 package app.sql;
 
 import app.windows.mainwindow.MainWindowController;
+import app.sql.exceptions.MySQLSyntaxErrorException;
 import app.sql.exceptions.SQLException;
 import app.util.*;
 import cpp.JavaInterface;
+import cpp.QueryResult;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextFlow;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
 
 /**
  * Utility class for executing SQL queries in the database and handling the results.
  */
 public class SQLExecutor {
 
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(SQLExecutor.class.getName());
+
     /**
      * The {@link JavaInterface} instance for executing SQL queries in the database.
      */
@@ -34,6 +41,34 @@ public class SQLExecutor {
      */
     private final MainWindowController mainWindowController;
 
+    /**
+     * The {@link ExecutionService} running the queries on a background thread.
+     */
+    private final ExecutionService executionService = new ExecutionService();
+
+    /**
+     * Flag indicating whether the native library can stop a SELECT after a number of rows.
+     * Cleared when the loaded native library predates {@link JavaInterface#executeQueryResultWithLimit}.
+     */
+    private static volatile boolean nativeRowLimitSupported = true;
+
+    /**
+     * Flag indicating whether the native library can execute a batch of INSERT statements in one call.
+     * Cleared when the loaded native library predates {@link JavaInterface#executeBatchResult}.
+     */
+    private static volatile boolean nativeBatchSupported = true;
+
+    /**
+     * Flag indicating whether the native library can keep the rows of a result in a cursor.
+     * Cleared when the loaded native library predates {@link JavaInterface#executeQueryCursor}.
+     */
+    private static volatile boolean nativeCursorSupported = true;
+
+    /**
+     * The statements prepared in the editor with PREPARE, by name.
+     */
+    private final Map<String, String> preparedStatements = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance of {@link SQLExecutor} with the specified database manager, console text flow,
      * and main window controller.
@@ -50,6 +85,11 @@ public class SQLExecutor {
 
     /**
      * Executes the SQL queries from the given code in the database and displays the results in the application.
+     * <p>The statements are executed one by one on the {@link ExecutionService} worker thread and the results
+     * are handed back to the JavaFX application thread in batches. Execution can be stopped between statements
+     * with {@link #stopExecution()}.</p>
+     * <p>The code is split into statements by the {@link StatementSplitter}, so semicolons and comment markers
+     * inside string literals are kept.</p>
      * <p>Results include the execution time, success message, and error message if any.</p>
      * Adds the executed queries to the history and updates the tables list if necessary.
      *
@@ -57,98 +97,500 @@ public class SQLExecutor {
      * @param isFromEditor true if the code is executed from the editor, false if executed from the other sources
      */
     public void executeQueries(String code, boolean isFromEditor) {
+        executeStatements(StatementSplitter.split(code), isFromEditor);
+    }
+
+    /**
+     * Executes the given SQL statements in the database and displays the results in the application.
+     * <p>The statements are executed the same way as by {@link #executeQueries(String, boolean)}.</p>
+     *
+     * @param queries      the SQL statements to execute, already split by the {@link StatementSplitter}
+     * @param isFromEditor true if the statements are executed from the editor, false if executed from the other sources
+     */
+    public void executeStatements(List<String> queries, boolean isFromEditor) {
+        if (executionService.isRunning()) {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nQueries are already being executed. Stop the execution before running new queries.", Color.RED, true);
+            return;
+        }
+
         TextFlowHelper.clearErrorMessage(consoleTextFlow);
         System.out.println("[RUN] Executing queries");
-        String[] splitCode = SQLFormatter.trimCode(code).split(";");
+        List<PendingStatement> statements = new ArrayList<>();
+        for (String query : queries) {
+            statements.add(new PendingStatement(query, null));
+        }
+
+        submitScript(() -> runStatements(new ListSource(statements), isFromEditor));
+    }
 
+    /**
+     * Executes the given statement with {@code ?} placeholders, binding the given values to them in order.
+     * <p>The statement is prepared once and kept in the {@link PlanCache}, so executing it again with
+     * other values skips formatting, parsing and validation (see {@link PreparedQuery#bind(Object...)}).</p>
+     *
+     * @param statement    the SQL statement with placeholders
+     * @param values       the values of the parameters
+     * @param isFromEditor true if the statement is executed from the editor, false if executed from the other sources
+     */
+    public void executePrepared(String statement, List<?> values, boolean isFromEditor) {
+        if (executionService.isRunning()) {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nQueries are already being executed. Stop the execution before running new queries.", Color.RED, true);
+            return;
+        }
+
+        TextFlowHelper.clearErrorMessage(consoleTextFlow);
+        List<String> literals = new ArrayList<>();
+        try {
+            for (Object value : values) {
+                literals.add(PreparedQuery.toLiteral(value));
+            }
+        } catch (SQLException e) {
+            displayErrorMessage(e);
+            return;
+        }
+
+        System.out.println("[RUN] Executing prepared statement");
+        List<PendingStatement> statements = Collections.singletonList(new PendingStatement(statement, literals));
+        submitScript(() -> runStatements(new ListSource(statements), isFromEditor));
+    }
+
+    /**
+     * Executes the statements of the given SQL script file in the database.
+     * <p>The file is read by a {@link ScriptReader} on the worker thread and every statement is executed as soon as
+     * it has been read, so scripts too large for the editor (e.g. database dumps) can be executed with constant memory.
+     * The progress bar of the main window shows the bytes read and the number of statements executed per second.</p>
+     * Successful statements of a script are not added to the history, only the statement that fails.
+     *
+     * @param file the SQL script file
+     */
+    public void executeScriptFile(File file) {
+        if (executionService.isRunning()) {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nQueries are already being executed. Stop the execution before running new queries.", Color.RED, true);
+            return;
+        }
+
+        TextFlowHelper.clearErrorMessage(consoleTextFlow);
+        System.out.println("[RUN] Executing script file: " + file.getAbsolutePath());
+        submitScript(() -> {
+            try (ScriptReader reader = new ScriptReader(file.toPath())) {
+                runStatements(new ScriptSource(reader), true);
+            } catch (IOException e) {
+                LOGGER.severe("[ERROR] Unable to read script file " + file.getAbsolutePath() + ": " + e.getMessage());
+                FxUpdateQueue.runOnFxThread(() -> TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nUnable to read script file " + file.getName() + ": " + e.getMessage(), Color.RED, true));
+            }
+        });
+    }
+
+    /**
+     * Reloads the {@link SchemaCatalog} with the tables and columns of the database on the worker thread.
+     * <p>SHOW TABLES is executed with a limit of 0 rows, so the native database only returns the names and headers
+     * of the tables and no rows are copied to the Java side.</p>
+     *
+     * @param onLoaded called on the JavaFX application thread after the catalog was reloaded
+     */
+    public void reloadSchemaCatalog(Runnable onLoaded) {
+        submitScript(() -> {
+            QueryResult result = executeNative(databaseManager, "SHOW TABLES", 0);
+            if (!result.isError()) {
+                SchemaCatalog.populate(result);
+            }
+            FxUpdateQueue.runOnFxThread(() -> {
+                FileHelper.checkErrors(result, consoleTextFlow);
+                onLoaded.run();
+            });
+        });
+    }
+
+    /**
+     * Asks the running execution to stop after the statement that is currently being executed.
+     */
+    public void stopExecution() {
+        System.out.println("[RUN] Stop requested");
+        executionService.requestStop();
+    }
+
+    /**
+     * Checks if queries are being executed.
+     *
+     * @return {@code true} if queries are being executed, {@code false} otherwise
+     */
+    public boolean isExecuting() {
+        return executionService.isRunning();
+    }
+
+    /**
+     * Executes the statements of the given source in the database. Called on the {@link ExecutionService} worker thread.
+     * <p>Statements are read from the source as they are executed, and only the statements of the next INSERT batch
+     * are read ahead. Every UI update is handed to the JavaFX application thread through {@link FxUpdateQueue}.</p>
+     *
+     * @param source       the source of the SQL statements to execute
+     * @param isFromEditor true if the code is executed from the editor, false if executed from the other sources
+     */
+    private void runStatements(StatementSource source, boolean isFromEditor) {
         long startTime = System.nanoTime();
+        long planCacheHits = PlanCache.getHits();
+        long planCacheMisses = PlanCache.getMisses();
+        long catalogHits = SchemaCatalog.getHits();
+        long catalogNativeLookups = SchemaCatalog.getNativeLookups();
+        long spilledRuns = SpillStatistics.getRuns();
+        long spilledBytes = SpillStatistics.getBytes();
+        long resultCacheHits = ResultCache.getHits();
         boolean hasError = false;
-        List<String> executedQueries = new ArrayList<>();
-        boolean tabsCreated = false;
+        boolean finished = false;
+        int executedCount = 0;
+        AtomicBoolean tabsCreated = new AtomicBoolean(false);
+        boolean showTablesExecuted = false;
+        QueryResult lastShowTablesResult = null;
+
+        // The statements read from the source but not executed yet
+        List<PendingStatement> lookahead = new ArrayList<>();
 
-        for (String query : splitCode) {
-            if (query.isEmpty()) continue;
+        while (true) {
+            int batchSize;
+            try {
+                if (executionService.isStopRequested()) {
+                    finished = lookahead.isEmpty() && readNext(source, lookahead) == null;
+                    break;
+                }
+                batchSize = readInsertBatch(source, lookahead);
+            } catch (IOException e) {
+                LOGGER.severe("[ERROR] Unable to read statements: " + e.getMessage());
+                FxUpdateQueue.runOnFxThread(() -> TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nUnable to read statements: " + e.getMessage(), Color.RED, true));
+                hasError = true;
+                break;
+            }
+            if (batchSize == 0) {
+                finished = true;
+                break;
+            }
 
-            String formattedQuery = SQLFormatter.formatSQLQuery(query.trim());
-            System.out.println("[RUN] Executing formatted query: " + formattedQuery);
-            String historyQuery = formattedQuery;
+            if (batchSize > 1) {
+                source.reportProgress(executedCount + batchSize);
+                List<PendingStatement> batch = lookahead.subList(0, batchSize);
+                int batchExecuted = executeInsertBatch(batch, executedCount, source.isRecordedInHistory());
+                if (batchExecuted >= 0) {
+                    executedCount += batchExecuted;
+                    if (batchExecuted < batchSize) {
+                        hasError = true;
+                        break;
+                    }
+                    batch.clear();
+                    continue;
+                }
+                // The native library does not support batches, the statements are executed one by one
+            }
 
-            QueryModifiers modifiers = new QueryModifiers();
+            PendingStatement statement = lookahead.remove(0);
+            source.reportProgress(executedCount + 1);
 
+            PreparedQuery.Binding binding;
             try {
-                formattedQuery = QueryProcessor.processQuery(formattedQuery, modifiers);
+                binding = bindStatement(statement);
             } catch (SQLException e) {
-                TextFlowHelper.addErrorMessage(
-                        consoleTextFlow,
-                        e.getErrorType(),
-                        e.getMainError(),
-                        e.getSpecificError(),
-                        e.getErrorDescription()
-                );
+                displayErrorMessage(e);
                 hasError = true;
                 break;
             }
+            if (binding == null) {
+                // PREPARE and DEALLOCATE PREPARE only change the prepared statements
+                executedCount++;
+                continue;
+            }
+
+            String formattedQuery = binding.getNativeQuery();
+            String historyQuery = binding.getFormattedQuery();
+            QueryModifiers modifiers = binding.getModifiers();
+            System.out.println("[RUN] Executing formatted query: " + historyQuery);
+            for (String warning : modifiers.getWarnings()) {
+                TextFlowHelper.addWarningMessage(consoleTextFlow, warning);
+            }
 
             if (isModifyingQuery(formattedQuery)) {
-                mainWindowController.setHasUnsavedChanges(true);
+                FxUpdateQueue.runOnFxThread(() -> mainWindowController.setHasUnsavedChanges(true));
+                ResultCache.invalidate(ResultCache.getModifiedTable(formattedQuery));
             }
 
-            databaseManager.executeQuery(formattedQuery);
+            boolean isSelectQuery = formattedQuery.toLowerCase().startsWith("select");
+            QueryResult cachedResult = isSelectQuery ? ResultCache.get(historyQuery) : null;
+            int streamingRowLimit = isSelectQuery ? ResultModifier.getStreamingRowLimit(modifiers) : -1;
+            QueryResult result;
+            if (cachedResult != null) {
+                result = cachedResult;
+            } else if (isSelectQuery && modifiers.isEmpty()) {
+                // The rows are shown as they are, so the result tab can open with the first page
+                result = executeNativeCursor(databaseManager, formattedQuery);
+            } else {
+                result = executeNative(databaseManager, formattedQuery, streamingRowLimit);
+            }
 
-            File outputFile = new File("output.txt");
-            boolean querySuccess = !FileHelper.checkErrors(outputFile, consoleTextFlow);
-            mainWindowController.addToHistory(historyQuery, querySuccess);
+            boolean querySuccess = !result.isError();
+            if (!querySuccess || source.isRecordedInHistory()) {
+                FxUpdateQueue.runOnFxThread(() -> mainWindowController.addToHistory(historyQuery, querySuccess));
+            }
 
             if (!querySuccess) {
+                FxUpdateQueue.runOnFxThread(() -> FileHelper.checkErrors(result, consoleTextFlow));
                 hasError = true;
                 break;
             }
 
-            boolean isSelectQuery = formattedQuery.toLowerCase().startsWith("select");
-            if (isSelectQuery) {
+            if (isSelectQuery && cachedResult == null && result.getCursor() < 0) {
                 try {
-                    applyQueryModifiers(outputFile, modifiers);
+                    applyQueryModifiers(result, modifiers);
                 } catch (SQLException e) {
-                    TextFlowHelper.addErrorMessage(
-                            consoleTextFlow,
-                            e.getErrorType(),
-                            e.getMainError(),
-                            e.getSpecificError(),
-                            e.getErrorDescription()
-                    );
+                    displayErrorMessage(e);
                     hasError = true;
                     break;
                 }
+                if (!ResultCache.put(historyQuery, binding.getTableNames(), result)) {
+                    // Cached results stay in memory anyway, large results that are not cached are paged from disk
+                    spoolLargeTables(result);
+                }
+            } else if (isSelectQuery && cachedResult == null) {
+                // The rows stay in the native cursor, the cache keeps its own list reading it
+                ResultCache.put(historyQuery, binding.getTableNames(), result);
             }
 
-            tabsCreated |= FileHelper.loadTablesFromFile("output.txt", isSelectQuery);
+            FxUpdateQueue.runOnFxThread(() -> {
+                if (FileHelper.loadTablesFromResult(result, isSelectQuery)) {
+                    tabsCreated.set(true);
+                }
+            });
 
-            executedQueries.add(formattedQuery);
+            executedCount++;
+            if (formattedQuery.equals("SHOW TABLES")) {
+                showTablesExecuted = true;
+                lastShowTablesResult = result;
+            }
 
             if (formattedQuery.startsWith("DROP TABLE")) {
                 String tableName = extractTableName(formattedQuery);
-                mainWindowController.removeTableFromList(tableName);
+                SchemaCatalog.removeTable(tableName);
+                FxUpdateQueue.runOnFxThread(() -> mainWindowController.removeTableFromList(tableName));
             } else if (formattedQuery.startsWith("CREATE TABLE")) {
-                mainWindowController.updateTablesList();
+                if (result.hasTables()) {
+                    QueryResult.Table createdTable = result.getTables().get(0);
+                    SchemaCatalog.putTable(createdTable.getName(), createdTable.getHeaders());
+                }
+                FxUpdateQueue.runOnFxThread(mainWindowController::updateTablesList);
             }
         }
 
         long endTime = System.nanoTime();
         long executionTime = endTime - startTime;
 
-        if (!hasError && isFromEditor) {
-            displaySuccessMessage(executionTime);
-            checkForEmptyTables(executedQueries);
+        List<String> executionDetails = new ArrayList<>();
+        executionDetails.add("plan cache: " + (PlanCache.getHits() - planCacheHits) + " hits, " + (PlanCache.getMisses() - planCacheMisses) + " misses");
+        long newCatalogHits = SchemaCatalog.getHits() - catalogHits;
+        long newCatalogNativeLookups = SchemaCatalog.getNativeLookups() - catalogNativeLookups;
+        if (newCatalogHits > 0 || newCatalogNativeLookups > 0) {
+            executionDetails.add("schema catalog: " + newCatalogHits + " hits, " + newCatalogNativeLookups + " native lookups");
+        }
+        long newResultCacheHits = ResultCache.getHits() - resultCacheHits;
+        if (newResultCacheHits > 0) {
+            executionDetails.add("result cache: " + newResultCacheHits + " hits");
+        }
+        long newSpilledRuns = SpillStatistics.getRuns() - spilledRuns;
+        if (newSpilledRuns > 0) {
+            executionDetails.add("spilled to disk: " + newSpilledRuns + " runs, " + SpillStatistics.formatBytes(SpillStatistics.getBytes() - spilledBytes));
+        }
+
+        boolean failed = hasError;
+        boolean stopped = !hasError && !finished;
+        int executed = executedCount;
+        boolean showTables = showTablesExecuted;
+        QueryResult showTablesResult = lastShowTablesResult;
+
+        FxUpdateQueue.runOnFxThread(() -> {
+            if (stopped) {
+                displayStoppedMessage(executed, source.getTotal(), executionTime, executionDetails);
+            } else if (!failed && isFromEditor) {
+                displaySuccessMessage(executionTime, executionDetails);
+                checkForEmptyTables(showTablesResult);
+            }
+
+            // Set focus based on the execution result
+            if (failed) {
+                mainWindowController.resultTabPane.getSelectionModel().select(0); // Select console tab
+            } else if (tabsCreated.get() && !ContextMenuHelper.isConsoleLocked()) {
+                mainWindowController.resultTabPane.getSelectionModel().select(mainWindowController.resultTabPane.getTabs().size() - 1); // Select last created tab
+            } else if (showTables) {
+                mainWindowController.resultTabPane.getSelectionModel().select(1); // Select first tab after console
+            }
+        });
+    }
+
+    /**
+     * Marks the execution as running and submits the given script to the {@link ExecutionService} worker thread.
+     * <p>The Run and Stop buttons and the progress are reset on the JavaFX application thread when the script ends,
+     * whether it completes or fails. A script failing with an unexpected exception or error (e.g. a closed result cursor
+     * or running out of memory) is reported in the console.</p>
+     *
+     * @param script the script to execute
+     */
+    private void submitScript(Runnable script) {
+        mainWindowController.setExecutionRunning(true);
+        executionService.submit(() -> {
+            try {
+                script.run();
+            } catch (Throwable e) {
+                LOGGER.severe("[ERROR] Execution failed: " + e);
+                FxUpdateQueue.runOnFxThread(() -> {
+                    TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nExecution failed: " + e, Color.RED, true);
+                    mainWindowController.resultTabPane.getSelectionModel().select(0); // Select console tab
+                });
+            } finally {
+                FxUpdateQueue.runOnFxThread(() -> mainWindowController.setExecutionRunning(false));
+            }
+        });
+    }
+
+    /**
+     * Reads the run of consecutive INSERT statements into the same table starting at the next statement.
+     * <p>Only statements written in the editor are batched (prepared statements are executed through the {@link PlanCache}),
+     * and a run is at most {@link ExecutionConfig#getInsertBatchSize()} statements long. The statement ending the run
+     * stays in the lookahead list.</p>
+     *
+     * @param source    the source of the statements
+     * @param lookahead the statements read but not executed yet, the run is added to it
+     * @return the number of statements of the run at the start of the lookahead list, 1 if the next statement starts no run,
+     * or 0 if there are no more statements
+     * @throws IOException if the statements cannot be read
+     */
+    private int readInsertBatch(StatementSource source, List<PendingStatement> lookahead) throws IOException {
+        if (lookahead.isEmpty() && readNext(source, lookahead) == null) {
+            return 0;
+        }
+        int maxSize = ExecutionConfig.getInsertBatchSize();
+        String tableName = getInsertTable(lookahead.get(0));
+        if (!nativeBatchSupported || maxSize < 2 || tableName == null) {
+            return 1;
+        }
+        int size = 1;
+        while (size < maxSize) {
+            if (size == lookahead.size() && readNext(source, lookahead) == null) {
+                break;
+            }
+            if (!tableName.equalsIgnoreCase(getInsertTable(lookahead.get(size)))) {
+                break;
+            }
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Reads the next statement from the source and adds it to the lookahead list.
+     *
+     * @param source    the source of the statements
+     * @param lookahead the statements read but not executed yet
+     * @return the statement, or {@code null} if there are no more statements
+     * @throws IOException if the statement cannot be read
+     */
+    private static PendingStatement readNext(StatementSource source, List<PendingStatement> lookahead) throws IOException {
+        PendingStatement statement = source.read();
+        if (statement != null) {
+            lookahead.add(statement);
+        }
+        return statement;
+    }
+
+    /**
+     * Returns the table the given statement inserts into.
+     *
+     * @param statement the statement
+     * @return the name of the table, or {@code null} if the statement is not an INSERT statement written in the editor
+     */
+    private static String getInsertTable(PendingStatement statement) {
+        if (statement.parameters != null || !statement.query.regionMatches(true, 0, "INSERT ", 0, 7)) {
+            return null;
+        }
+        return ResultCache.getModifiedTable(statement.query);
+    }
+
+    /**
+     * Executes the given INSERT statements into the same table in one native call, stopping at the first statement that fails.
+     * <p>The native engine does not return the modified table (results of INSERT statements are not shown),
+     * and every executed statement is added to the history as its own entry. If a statement fails, it is added to the history and its error is shown with its number in the script.</p>
+     *
+     * @param batch         the INSERT statements
+     * @param executedCount the number of statements executed before the batch
+     * @param recordHistory {@code true} to add the successful statements to the history
+     * @return the number of statements executed successfully, or -1 if the native library does not support batches
+     */
+    private int executeInsertBatch(List<PendingStatement> batch, int executedCount, boolean recordHistory) {
+        String[] formattedQueries = new String[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            formattedQueries[i] = SQLFormatter.formatSQLQuery(batch.get(i).query);
+        }
+        System.out.println("[RUN] Executing batch of " + batch.size() + " INSERT statements: " + formattedQueries[0]);
+
+        QueryResult result;
+        try {
+            if (JavaInterface.getResultMode() != JavaInterface.ResultMode.MEMORY) {
+                return -1;
+            }
+            result = databaseManager.executeBatchResult(formattedQueries);
+        } catch (UnsatisfiedLinkError e) {
+            LOGGER.warning("Batches are not supported by the native library, executing INSERT statements one by one");
+            nativeBatchSupported = false;
+            return -1;
+        }
+
+        int failedStatement = result.isError() ? Math.max(result.getFailedStatement(), 0) : -1;
+        int executed = failedStatement == -1 ? batch.size() : failedStatement;
+        if (executed > 0) {
+            FxUpdateQueue.runOnFxThread(() -> mainWindowController.setHasUnsavedChanges(true));
+            ResultCache.invalidate(ResultCache.getModifiedTable(formattedQueries[0]));
+        }
+        if (executed > 0 && recordHistory) {
+            List<String> historyQueries = Arrays.asList(formattedQueries).subList(0, executed);
+            FxUpdateQueue.runOnFxThread(() -> mainWindowController.addToHistory(historyQueries, true));
         }
 
-        // Set focus based on the execution result
-        if (hasError) {
-            mainWindowController.resultTabPane.getSelectionModel().select(0); // Select console tab
-        } else if (tabsCreated && !ContextMenuHelper.isConsoleLocked()) {
-            mainWindowController.resultTabPane.getSelectionModel().select(mainWindowController.resultTabPane.getTabs().size() - 1); // Select last created tab
-        } else if (executedQueries.stream().anyMatch(query -> query.equals("SHOW TABLES"))) {
-            mainWindowController.resultTabPane.getSelectionModel().select(1); // Select first tab after console
+        if (failedStatement != -1) {
+            String failedQuery = formattedQueries[failedStatement];
+            int failedNumber = executedCount + failedStatement + 1;
+            FxUpdateQueue.runOnFxThread(() -> {
+                mainWindowController.addToHistory(failedQuery, false);
+                FileHelper.checkErrors(result, consoleTextFlow);
+                TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nStatement " + failedNumber + " failed: " + failedQuery, Color.RED, true);
+            });
+            return executed;
         }
+
+        FxUpdateQueue.runOnFxThread(() -> FileHelper.loadTablesFromResult(result, false));
+        return executed;
+    }
+
+    /**
+     * Displays the given error in the console.
+     *
+     * @param e the {@link SQLException} to display
+     */
+    private void displayErrorMessage(SQLException e) {
+        FxUpdateQueue.runOnFxThread(() -> TextFlowHelper.addErrorMessage(
+                consoleTextFlow,
+                e.getErrorType(),
+                e.getMainError(),
+                e.getSpecificError(),
+                e.getErrorDescription()
+        ));
+    }
+
+    /**
+     * Displays a message in the console when the execution was stopped before all statements were executed.
+     *
+     * @param executed         the number of executed statements
+     * @param total            the total number of statements, or -1 if it is not known
+     * @param executionTime    the execution time of the executed statements in nanoseconds
+     * @param executionDetails additional details shown next to the execution time
+     */
+    private void displayStoppedMessage(int executed, int total, long executionTime, List<String> executionDetails) {
+        String count = total >= 0 ? executed + " of " + total : String.valueOf(executed);
+        AnsiTextParser.parseAnsiText("\nExecution \033[1;33m\033[1mstopped\033[0m after " + count + " statements.", consoleTextFlow);
+
+        TextFlowHelper.addExecutionTime(consoleTextFlow, executionTime, String.join(", ", executionDetails));
     }
 
     /**
@@ -169,31 +611,239 @@ public class SQLExecutor {
     /**
      * Displays a success message in the console with the execution time of the query.
      *
-     * @param executionTime the execution time of the query in nanoseconds
+     * @param executionTime    the execution time of the query in nanoseconds
+     * @param executionDetails additional details shown next to the execution time (e.g. schema catalog statistics)
      */
-    private void displaySuccessMessage(long executionTime) {
+    private void displaySuccessMessage(long executionTime, List<String> executionDetails) {
 
         AnsiTextParser.parseAnsiText("\nQuery has been \033[1;32m\033[1msuccessfully\033[0m executed!", consoleTextFlow);
 
-        TextFlowHelper.addExecutionTime(consoleTextFlow, executionTime);
+        TextFlowHelper.addExecutionTime(consoleTextFlow, executionTime, String.join(", ", executionDetails));
     }
 
     /**
-     * Checks if the executed queries contain the "SHOW TABLES" query and if the output file is empty.
+     * Checks if the "SHOW TABLES" query was executed and if its result is empty.
      * Displays a message in the console if no tables are found in the database.
      *
-     * @param executedQueries the {@link List} of executed queries
+     * @param showTablesResult the {@link QueryResult} of the last executed "SHOW TABLES" query, or {@code null} if it was not executed
      */
-    private void checkForEmptyTables(List<String> executedQueries) {
-        boolean showTablesExecuted = executedQueries.stream()
-                .anyMatch(query -> query.equals("SHOW TABLES"));
-
-        if (showTablesExecuted && !FileHelper.hasTablesInOutput("output.txt")) {
+    private void checkForEmptyTables(QueryResult showTablesResult) {
+        if (showTablesResult != null && !showTablesResult.hasTables()) {
             TextFlowHelper.updateResultTextFlow(consoleTextFlow,
                     "\nNo tables found in the database.", Color.RED, true);
         }
     }
 
+    /**
+     * Prepares the given statement and binds its parameters.
+     * <p>Also handles the statements managing named prepared statements in the editor:</p>
+     * <ul>
+     *     <li>{@code PREPARE name FROM 'statement'} prepares a statement with {@code ?} placeholders,</li>
+     *     <li>{@code EXECUTE name [USING value, ...]} executes it with the given literals bound to the placeholders,</li>
+     *     <li>{@code DEALLOCATE PREPARE name} removes it.</li>
+     * </ul>
+     *
+     * @param statement the statement to execute
+     * @return the statement with its parameters bound, or {@code null} if there is nothing to execute
+     * @throws SQLException if there is an error in the statement or the parameters
+     */
+    private PreparedQuery.Binding bindStatement(PendingStatement statement) throws SQLException {
+        String query = statement.query.trim();
+        if (statement.parameters != null) {
+            return PlanCache.prepare(query).bindLiterals(statement.parameters);
+        }
+
+        String firstWord = query.split("\\s+", 2)[0].toUpperCase();
+        if (!firstWord.equals("PREPARE") && !firstWord.equals("EXECUTE") && !firstWord.equals("DEALLOCATE")) {
+            return PlanCache.prepare(query).bindLiterals(Collections.emptyList());
+        }
+
+        List<SQLLexer.Token> tokens = SQLLexer.tokenize(query);
+        MySQLSyntaxErrorException syntaxError = new MySQLSyntaxErrorException("Invalid " + firstWord + " statement syntax", "Place where error occurred: \u001B[3m" + query + "\u001B[0m");
+        if (tokens.size() < 2 || tokens.get(1).getType() != SQLLexer.TokenType.WORD) {
+            throw syntaxError;
+        }
+
+        switch (firstWord) {
+            case "PREPARE": {
+                if (tokens.size() != 4 || !tokens.get(2).isKeyword("FROM") || tokens.get(3).getType() != SQLLexer.TokenType.STRING) {
+                    throw syntaxError;
+                }
+                String name = tokens.get(1).getText();
+                String text = tokens.get(3).getText();
+                text = text.substring(1, text.length() - 1);
+                // Errors in the statement are reported when it is prepared
+                PlanCache.prepare(text);
+                preparedStatements.put(name, text);
+                System.out.println("[RUN] Prepared statement " + name + ": " + text);
+                return null;
+            }
+            case "DEALLOCATE": {
+                if (tokens.size() != 3 || !tokens.get(1).isKeyword("PREPARE") || tokens.get(2).getType() != SQLLexer.TokenType.WORD) {
+                    throw syntaxError;
+                }
+                if (preparedStatements.remove(tokens.get(2).getText()) == null) {
+                    throw new MySQLSyntaxErrorException("Unknown prepared statement.", "Prepared statement \u001B[1m" + tokens.get(2).getText() + "\u001B[0m does not exist");
+                }
+                return null;
+            }
+            default: {
+                String name = tokens.get(1).getText();
+                String text = preparedStatements.get(name);
+                if (text == null) {
+                    throw new MySQLSyntaxErrorException("Unknown prepared statement.", "Prepared statement \u001B[1m" + name + "\u001B[0m does not exist");
+                }
+
+                List<String> literals = new ArrayList<>();
+                if (tokens.size() > 2) {
+                    if (!tokens.get(2).isKeyword("USING")) {
+                        throw syntaxError;
+                    }
+                    for (int i = 3; i < tokens.size(); i += 2) {
+                        SQLLexer.Token literal = tokens.get(i);
+                        if (literal.getType() == SQLLexer.TokenType.OPERATOR || literal.getType() == SQLLexer.TokenType.SYMBOL
+                                || (i + 1 < tokens.size() && !tokens.get(i + 1).is(","))) {
+                            throw syntaxError;
+                        }
+                        literals.add(literal.getText());
+                    }
+                    if (literals.isEmpty() || tokens.get(tokens.size() - 1).is(",")) {
+                        throw syntaxError;
+                    }
+                }
+                return PlanCache.prepare(text).bindLiterals(literals);
+            }
+        }
+    }
+
+    /**
+     * Source of the statements executed by {@link #runStatements}.
+     */
+    private interface StatementSource {
+
+        /**
+         * Reads the next statement.
+         *
+         * @return the statement, or {@code null} if there are no more statements
+         * @throws IOException if the statement cannot be read
+         */
+        PendingStatement read() throws IOException;
+
+        /**
+         * Returns the number of statements of the source.
+         *
+         * @return the total number of statements, or -1 if it is not known
+         */
+        int getTotal();
+
+        /**
+         * Reports the statement that is about to be executed to the main window.
+         *
+         * @param current the number of the statement (starting from 1)
+         */
+        void reportProgress(int current);
+
+        /**
+         * Checks if the successful statements are added to the history.
+         *
+         * @return {@code true} if every executed statement is added to the history, {@code false} if only failed statements are
+         */
+        boolean isRecordedInHistory();
+    }
+
+    /**
+     * Source of the statements of the editor or of a prepared statement, split in advance.
+     */
+    private class ListSource implements StatementSource {
+        private final Iterator<PendingStatement> iterator;
+        private final int total;
+
+        ListSource(List<PendingStatement> statements) {
+            this.iterator = statements.iterator();
+            this.total = statements.size();
+        }
+
+        @Override
+        public PendingStatement read() {
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public int getTotal() {
+            return total;
+        }
+
+        @Override
+        public void reportProgress(int current) {
+            FxUpdateQueue.runOnFxThread(() -> mainWindowController.updateExecutionProgress(current, total));
+        }
+
+        @Override
+        public boolean isRecordedInHistory() {
+            return true;
+        }
+    }
+
+    /**
+     * Source of the statements of a script file, read as they are executed.
+     * <p>The progress is reported at most every {@link #PROGRESS_INTERVAL} nanoseconds,
+     * so a script with millions of statements does not flood the JavaFX application thread.</p>
+     */
+    private class ScriptSource implements StatementSource {
+        private static final long PROGRESS_INTERVAL = 100_000_000L;
+
+        private final ScriptReader reader;
+        private final long startTime = System.nanoTime();
+        private long lastProgressTime = 0;
+
+        ScriptSource(ScriptReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public PendingStatement read() throws IOException {
+            String query = reader.nextStatement();
+            return query != null ? new PendingStatement(query, null) : null;
+        }
+
+        @Override
+        public int getTotal() {
+            return -1;
+        }
+
+        @Override
+        public void reportProgress(int current) {
+            long now = System.nanoTime();
+            if (now - lastProgressTime < PROGRESS_INTERVAL) {
+                return;
+            }
+            lastProgressTime = now;
+            long bytesRead = reader.getBytesRead();
+            long totalBytes = reader.getTotalBytes();
+            double statementsPerSecond = (current - 1) / Math.max((now - startTime) / 1e9, 1e-3);
+            FxUpdateQueue.runOnFxThread(() -> mainWindowController.updateScriptProgress(bytesRead, totalBytes, statementsPerSecond));
+        }
+
+        @Override
+        public boolean isRecordedInHistory() {
+            return false;
+        }
+    }
+
+    /**
+     * A statement waiting to be executed, with the literals bound to its placeholders
+     * (or {@code null} if the statement was written in the editor).
+     */
+    private static class PendingStatement {
+        private final String query;
+        private final List<String> parameters;
+
+        PendingStatement(String query, List<String> parameters) {
+            this.query = query;
+            this.parameters = parameters;
+        }
+    }
+
     /**
      * Extracts the table name from the given SQL query.
      *
@@ -210,32 +860,130 @@ public class SQLExecutor {
     }
 
     /**
-     * Applies the query modifiers (DISTINCT, ORDER BY, LIMIT, OFFSET) to the result data in the output file.
+     * Applies the query modifiers (DISTINCT, ORDER BY, LIMIT, OFFSET) to the result data of a SELECT query.
+     * <p>If only LIMIT and OFFSET are used, the result holds at most offset + limit rows
+     * (see {@link ResultModifier#getStreamingRowLimit}) and they are sliced directly, without building a {@link ColumnarResult}.
+     * A result too large to sort in memory gets its sorted rows paged from disk (see {@link ExternalSorter}).</p>
      *
-     * @param outputFile the output file containing the result data
-     * @param modifiers  the {@link QueryModifiers} object containing the query modifiers
+     * @param result    the {@link QueryResult} containing the result data
+     * @param modifiers the {@link QueryModifiers} object containing the query modifiers
      */
-    private void applyQueryModifiers(File outputFile, QueryModifiers modifiers) throws SQLException {
-        try {
-            List<String> lines = Files.readAllLines(outputFile.toPath());
-            if (lines.size() < 3) return; // No data or only headers
+    private void applyQueryModifiers(QueryResult result, QueryModifiers modifiers) throws SQLException {
+        if (!result.hasTables()) return;
+
+        QueryResult.Table table = result.getTables().get(0);
+        if (table.getRows().isEmpty()) return; // No data or only headers
+
+        if (ResultModifier.getStreamingRowLimit(modifiers) >= 0) {
+            table.setData(table.getHeaders(), ResultModifier.applyLimitOffset(table.getRows(), modifiers.getLimitOffsetClause()));
+            return;
+        }
+
+        ResultModifier.applyModifiers(table, modifiers);
+    }
 
-            String resultLine = lines.get(0);
-            String headerLine = lines.get(1);
-            List<String> dataLines = new ArrayList<>(lines.subList(2, lines.size()));
+    /**
+     * Spools the rows of the tables of a SELECT result with at least {@link ExecutionConfig#getResultPagingThreshold()} rows
+     * to disk, so the result grid pages them back as they are scrolled into view instead of holding them in memory.
+     * If the rows cannot be written, they are kept in memory.
+     *
+     * @param result the {@link QueryResult} to be displayed
+     */
+    private void spoolLargeTables(QueryResult result) {
+        int threshold = ExecutionConfig.getResultPagingThreshold();
+        if (threshold <= 0) {
+            return;
+        }
+        for (QueryResult.Table table : result.getTables()) {
+            if (table.getRows().size() < threshold || table.getRows() instanceof PagedRows) {
+                continue;
+            }
+            try {
+                table.setData(table.getHeaders(), PagedRows.spool(table.getRows()));
+            } catch (IOException e) {
+                LOGGER.warning("Unable to spool result rows to disk, keeping them in memory: " + e.getMessage());
+            }
+        }
+    }
 
-            List<String> modifiedLines = ResultModifier.applyModifiers(dataLines, headerLine, modifiers);
+    /**
+     * Executes the given SELECT query in the native database, keeping its rows in a native cursor if there are more
+     * than {@link ExecutionConfig#getResultFetchSize()} of them.
+     * <p>The result then holds the first page of the rows as {@link CursorRows}, and the result grid fetches the other
+     * pages as it is scrolled. Such results are cached with the cursor (see {@link ResultCache}) but not spooled,
+     * and their query modifiers must be empty.
+     * Without cursor support, the whole result is returned by {@link #executeNative(JavaInterface, String)}.</p>
+     *
+     * @param databaseManager the {@link JavaInterface} instance for executing SQL queries
+     * @param query           the SELECT query to execute
+     * @return the {@link QueryResult} of the executed query
+     */
+    private static QueryResult executeNativeCursor(JavaInterface databaseManager, String query) {
+        int fetchSize = ExecutionConfig.getResultFetchSize();
+        if (fetchSize > 0 && nativeCursorSupported && JavaInterface.getResultMode() == JavaInterface.ResultMode.MEMORY) {
+            try {
+                QueryResult result = databaseManager.executeQueryCursor(query, fetchSize);
+                if (result.getCursor() >= 0) {
+                    QueryResult.Table table = result.getTables().get(0);
+                    table.setData(table.getHeaders(), new CursorRows(databaseManager, result.getCursor(), result.getCursorRowCount(), table.getRows()));
+                    System.out.println("[RUN] Showing the first " + fetchSize + " of " + result.getCursorRowCount() + " rows, fetching the rest on scroll");
+                }
+                return result;
+            } catch (UnsatisfiedLinkError e) {
+                // Native library built without result cursors
+                LOGGER.warning("Result cursors are not supported by the native library, reading all rows");
+                nativeCursorSupported = false;
+            }
+        }
+        return executeNative(databaseManager, query);
+    }
+
+    /**
+     * Executes the given query in the native database and returns its result.
+     * <p>The result is transported in memory if the native library supports it,
+     * otherwise it falls back to reading the output file written by the native code.</p>
+     *
+     * @param databaseManager the {@link JavaInterface} instance for executing SQL queries
+     * @param query           the SQL query to execute
+     * @return the {@link QueryResult} of the executed query
+     */
+    public static QueryResult executeNative(JavaInterface databaseManager, String query) {
+        return executeNative(databaseManager, query, -1);
+    }
 
-            try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
-                writer.println(resultLine);
-                for (String line : modifiedLines) {
-                    writer.println(line);
+    /**
+     * Executes the given query in the native database and returns at most the given number of rows per table.
+     * <p>The native library stops producing rows of a SELECT once the limit is reached if it supports it,
+     * and the output file is only read up to the limit.</p>
+     *
+     * @param databaseManager the {@link JavaInterface} instance for executing SQL queries
+     * @param query           the SQL query to execute
+     * @param maxRows         the maximum number of rows per table, or -1 for all rows
+     * @return the {@link QueryResult} of the executed query
+     */
+    public static QueryResult executeNative(JavaInterface databaseManager, String query, int maxRows) {
+        if (JavaInterface.getResultMode() == JavaInterface.ResultMode.MEMORY) {
+            if (maxRows >= 0 && nativeRowLimitSupported) {
+                try {
+                    return databaseManager.executeQueryResultWithLimit(query, maxRows);
+                } catch (UnsatisfiedLinkError e) {
+                    // Native library built without the row limit, the rows are limited on the Java side
+                    LOGGER.warning("Row limits are not supported by the native library, reading all rows");
+                    nativeRowLimitSupported = false;
                 }
             }
-        } catch (IOException e) {
-            TextFlowHelper.updateResultTextFlow(consoleTextFlow,
-                    "\n[ERROR] Error applying query modifiers: " + e.getMessage(), Color.RED, true);
+            try {
+                return databaseManager.executeQueryResult(query);
+            } catch (UnsatisfiedLinkError e) {
+                // Native library built without the in-memory result channel
+                LOGGER.warning("In-memory results are not supported by the native library, falling back to " + FileHelper.FILE_NAME);
+                JavaInterface.setResultMode(JavaInterface.ResultMode.FILE);
+            }
         }
+
+        databaseManager.executeQuery(query);
+        QueryResult result = FileHelper.readQueryResult(FileHelper.FILE_NAME, maxRows);
+        return result != null ? result : new QueryResult(true, "\u001B[1;31m[ERROR]\u001B[0m Unable to read " + FileHelper.FILE_NAME + "\n", null);
     }
 
-}
\ No newline at end of file
+}
@@ -1,9 +1,12 @@
 package app.sql;
 
+import app.sql.exceptions.SQLException;
+
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -13,12 +16,12 @@ import java.io.PrintWriter;
  */
 public class SQLFormatter {
 
-    private static final String[] KEYWORDS = {
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
             "SELECT", "FROM", "WHERE", "INSERT", "INTO", "VALUES",
             "DELETE", "UPDATE", "SET", "CREATE", "TABLE", "DROP",
             "SHOW", "TABLES", "INNER", "JOIN", "ON", "AS", "AND", "OR",
-            "ORDER", "BY", "LIMIT", "OFFSET", "DISTINCT", ";"
-    };
+            "ORDER", "GROUP", "BY", "HAVING", "LIMIT", "OFFSET", "DISTINCT"
+    ));
 
     /**
      * Trims the given SQL code by removing extra spaces and newlines.
@@ -31,7 +34,8 @@ public class SQLFormatter {
     }
 
     /**
-     * Formats the given SQL query by removing extra spaces and newlines.
+     * Formats the given SQL query by removing extra spaces and newlines and converting the keywords to upper case.
+     * The query is split into tokens by {@link SQLLexer}, so string literals are kept as written.
      * Checks for syntax errors and writes an error message to the output file if an error is found.
      * Note: currently only supports ORDER BY, and LIMIT clauses.
      *
@@ -39,53 +43,39 @@ public class SQLFormatter {
      * @return the formatted SQL query
      */
     public static String formatSQLQuery(String query) {
-        StringBuilder formattedQuery = new StringBuilder();
-        query = query.replaceAll("\\h+", " ").trim();
-
-        String keywordPattern = "\\b(" + String.join("|", KEYWORDS) + ")\\b";
-        Pattern pattern = Pattern.compile(keywordPattern + "|\\*|('[^']*')|([^\\s']+)", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(query);
+        List<SQLLexer.Token> tokens;
+        try {
+            tokens = SQLLexer.tokenize(query);
+        } catch (SQLException e) {
+            // Unterminated strings are reported when the query is processed
+            return query.trim();
+        }
 
-        boolean lastWasSelect = false;
+        StringBuilder formattedQuery = new StringBuilder();
+        SQLLexer.Token previous = null;
+        boolean previousWasKeyword = false;
         boolean hasLimit = false;
 
-        while (matcher.find()) {
-            String token = matcher.group().toUpperCase();
+        for (SQLLexer.Token token : tokens) {
+            String upperCase = token.getText().toUpperCase();
+            boolean isKeyword = token.getType() == SQLLexer.TokenType.WORD && KEYWORDS.contains(upperCase);
 
-            if (Arrays.asList(KEYWORDS).contains(token)) {
-                if (formattedQuery.length() > 0 && formattedQuery.charAt(formattedQuery.length() - 1) != '\n') {
-                    formattedQuery.append(" ");
-                }
-                formattedQuery.append(token);
+            // Tokens are separated where the query had whitespace, and keywords are always separated
+            if (previous != null && (isKeyword || previousWasKeyword || token.getStart() > previous.getEnd())) {
+                formattedQuery.append(" ");
+            }
+            formattedQuery.append(isKeyword ? upperCase : token.getText());
 
-                switch (token) {
-                    case "SELECT":
-                        lastWasSelect = true;
-                        break;
-                    case "ORDER":
-                        if (hasLimit) {
-                            writeSyntaxError();
-                            return formattedQuery.toString();
-                        }
-                        break;
-                    case "LIMIT":
-                        hasLimit = true;
-                        break;
-                }
-            } else if (token.equals("*")) {
-                if (lastWasSelect) {
-                    formattedQuery.append(" ");
-                }
-                formattedQuery.append("*");
-            } else {
-                if (formattedQuery.length() > 0 && formattedQuery.charAt(formattedQuery.length() - 1) != '\n') {
-                    formattedQuery.append(" ");
-                }
-                formattedQuery.append(matcher.group());
+            if (isKeyword && upperCase.equals("ORDER") && hasLimit) {
+                writeSyntaxError();
+                return formattedQuery.toString();
             }
-            if (!token.equals("SELECT")) {
-                lastWasSelect = false;
+            if (isKeyword && upperCase.equals("LIMIT")) {
+                hasLimit = true;
             }
+
+            previous = token;
+            previousWasKeyword = isKeyword;
         }
 
         return formattedQuery.toString();
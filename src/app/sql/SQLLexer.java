@@ -0,0 +1,258 @@
+package app.sql;
+
+import app.sql.exceptions.MySQLSyntaxErrorException;
+import app.sql.exceptions.SQLException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written lexer splitting a single SQL statement into tokens in one linear pass.
+ * <p>Each token keeps its position in the statement, so the original text between two tokens
+ * can always be recovered (see {@link #text(String, List, int, int)}).</p>
+ */
+public class SQLLexer {
+
+    /**
+     * The type of a token.
+     */
+    public enum TokenType {
+        /**
+         * A word: a keyword, a table or column name (including qualified names such as {@code t.name}),
+         * or a name in backticks.
+         */
+        WORD,
+        /**
+         * A number, including a leading minus sign.
+         */
+        NUMBER,
+        /**
+         * A string in single or double quotes, including the quotes.
+         */
+        STRING,
+        /**
+         * A comparison operator ({@code =, <>, !=, <, <=, >, >=}).
+         */
+        OPERATOR,
+        /**
+         * Any other single character ({@code ( ) , ; *} and arithmetic operators).
+         */
+        SYMBOL
+    }
+
+    /**
+     * A token of the statement.
+     */
+    public static class Token {
+        private final TokenType type;
+        private final String text;
+        private final int start;
+
+        Token(TokenType type, String text, int start) {
+            this.type = type;
+            this.text = text;
+            this.start = start;
+        }
+
+        /**
+         * Returns the type of the token.
+         *
+         * @return the {@link TokenType}
+         */
+        public TokenType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the text of the token as written in the statement.
+         *
+         * @return the text of the token
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns the position of the first character of the token in the statement.
+         *
+         * @return the start position
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Returns the position after the last character of the token in the statement.
+         *
+         * @return the end position
+         */
+        public int getEnd() {
+            return start + text.length();
+        }
+
+        /**
+         * Checks if the token is the given keyword (case-insensitive).
+         *
+         * @param keyword the keyword in upper case
+         * @return {@code true} if the token is the keyword, {@code false} otherwise
+         */
+        public boolean isKeyword(String keyword) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(keyword);
+        }
+
+        /**
+         * Checks if the token is the given symbol or operator.
+         *
+         * @param symbol the symbol
+         * @return {@code true} if the token is the symbol, {@code false} otherwise
+         */
+        public boolean is(String symbol) {
+            return (type == TokenType.SYMBOL || type == TokenType.OPERATOR) && text.equals(symbol);
+        }
+
+        /**
+         * Returns the string representation of the token (can be used for debugging).
+         *
+         * @return the string representation
+         */
+        @Override
+        public String toString() {
+            return type + "(" + text + ")";
+        }
+    }
+
+    /**
+     * Splits the given statement into tokens.
+     *
+     * @param statement the SQL statement
+     * @return the {@link List} of tokens
+     * @throws SQLException (MySQLSyntaxErrorException) if a string or a quoted name is not terminated
+     */
+    public static List<Token> tokenize(String statement) throws SQLException {
+        List<Token> tokens = new ArrayList<>();
+        int length = statement.length();
+        int i = 0;
+        while (i < length) {
+            char c = statement.charAt(i);
+            int start = i;
+            TokenType type;
+
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (c == '\'' || c == '"' || c == '`') {
+                i = statement.indexOf(c, i + 1);
+                if (i == -1) {
+                    throw new MySQLSyntaxErrorException("Unterminated " + (c == '`' ? "name" : "string") + ".", "Place where error occurred: \u001B[3m" + statement.substring(start) + "\u001B[0m");
+                }
+                i++;
+                type = c == '`' ? TokenType.WORD : TokenType.STRING;
+            } else if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(statement.charAt(i + 1)) && !endsOperand(tokens))) {
+                i++;
+                while (i < length && (Character.isDigit(statement.charAt(i)) || statement.charAt(i) == '.')) {
+                    i++;
+                }
+                type = TokenType.NUMBER;
+                // Names starting with digits
+                if (i < length && isWordChar(statement.charAt(i))) {
+                    while (i < length && isWordChar(statement.charAt(i))) {
+                        i++;
+                    }
+                    type = TokenType.WORD;
+                }
+            } else if (isWordChar(c)) {
+                while (i < length && isWordChar(statement.charAt(i))) {
+                    i++;
+                }
+                type = TokenType.WORD;
+            } else if (c == '=' ) {
+                i++;
+                type = TokenType.OPERATOR;
+            } else if ((c == '<' || c == '>' || c == '!') && i + 1 < length
+                    && (statement.charAt(i + 1) == '=' || (c == '<' && statement.charAt(i + 1) == '>'))) {
+                i += 2;
+                type = TokenType.OPERATOR;
+            } else if (c == '<' || c == '>') {
+                i++;
+                type = TokenType.OPERATOR;
+            } else {
+                i++;
+                type = TokenType.SYMBOL;
+            }
+
+            tokens.add(new Token(type, statement.substring(start, i), start));
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the original text of the statement from the start of one token to the end of another.
+     *
+     * @param statement the SQL statement
+     * @param tokens    the tokens of the statement
+     * @param from      the index of the first token (inclusive)
+     * @param to        the index of the last token (exclusive)
+     * @return the text covered by the tokens, or an empty string if the range is empty
+     */
+    public static String text(String statement, List<Token> tokens, int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        return statement.substring(tokens.get(from).getStart(), tokens.get(to - 1).getEnd());
+    }
+
+    /**
+     * Checks if the last token ends an operand, in which case a following '-' is a minus operator, not a sign.
+     *
+     * @param tokens the tokens read so far
+     * @return {@code true} if the last token is a word, a number, a string or a closing parenthesis
+     */
+    private static boolean endsOperand(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        Token last = tokens.get(tokens.size() - 1);
+        return (last.getType() == TokenType.WORD && !isKeyword(last.getText())) || last.getType() == TokenType.NUMBER
+                || last.getType() == TokenType.STRING || last.is(")");
+    }
+
+    /**
+     * Checks if the given word is a keyword that can precede a value (e.g. {@code LIMIT -1}, {@code BETWEEN -5 AND 5}).
+     *
+     * @param word the word
+     * @return {@code true} if the word is such a keyword, {@code false} otherwise
+     */
+    private static boolean isKeyword(String word) {
+        switch (word.toUpperCase()) {
+            case "LIMIT":
+            case "OFFSET":
+            case "AND":
+            case "OR":
+            case "NOT":
+            case "BETWEEN":
+            case "IN":
+            case "LIKE":
+            case "WHERE":
+            case "HAVING":
+            case "VALUES":
+            case "SET":
+            case "SELECT":
+            case "USING":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Checks if the given character can be part of a word.
+     *
+     * @param c the character
+     * @return {@code true} if the character is a letter, a digit, '_' or '.', {@code false} otherwise
+     */
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+}
@@ -0,0 +1,364 @@
+package app.sql;
+
+import app.sql.SQLLexer.Token;
+import app.sql.SQLLexer.TokenType;
+import app.sql.exceptions.MySQLSyntaxErrorException;
+import app.sql.exceptions.SQLException;
+
+import java.util.*;
+
+/**
+ * Recursive descent parser of SELECT statements, producing a {@link SelectStatement}:
+ * <pre>
+ * select   := SELECT [DISTINCT ['(' column (',' column)* ')' [',']]] [item (',' item)*] FROM source
+ *             [GROUP BY column (',' column)* [HAVING condition]]
+ *             [ORDER BY column [ASC | DESC] (',' column [ASC | DESC])*]
+ *             [LIMIT number [OFFSET number]]
+ * item     := function '(' argument ')' | any tokens up to ',' or FROM
+ * source   := any tokens up to GROUP BY, ORDER BY or LIMIT
+ * </pre>
+ * Clauses are only recognized outside parentheses and string literals, and every token is visited once,
+ * so parsing time is linear in the length of the statement.
+ */
+public class SQLParser {
+
+    /**
+     * The names of the aggregate functions evaluated by the editor.
+     */
+    private static final Set<String> FUNCTIONS = new HashSet<>(Arrays.asList("COUNT", "SUM", "AVG", "MIN", "MAX"));
+
+    private final String statement;
+    private final List<Token> tokens;
+    private int index = 0;
+
+    private SQLParser(String statement, List<Token> tokens) {
+        this.statement = statement;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses the given SELECT statement.
+     *
+     * @param statement the SQL statement
+     * @return the parsed {@link SelectStatement}, or {@code null} if the statement is not a SELECT statement
+     * with a FROM clause (such statements are left to the native engine)
+     * @throws SQLException (MySQLSyntaxErrorException) if a clause handled by the editor is not valid
+     */
+    public static SelectStatement parseSelect(String statement) throws SQLException {
+        List<Token> tokens = SQLLexer.tokenize(statement);
+        if (tokens.isEmpty() || !tokens.get(0).isKeyword("SELECT")) {
+            return null;
+        }
+        return new SQLParser(statement, tokens).parseSelect();
+    }
+
+    private SelectStatement parseSelect() throws SQLException {
+        SelectStatement select = new SelectStatement(new LinkedHashSet<>());
+        index = 1;
+
+        if (acceptKeyword("DISTINCT")) {
+            select.setDistinct(true);
+            if (accept("(")) {
+                do {
+                    String column = parseName();
+                    if (column == null) {
+                        return null;
+                    }
+                    select.getDistinctColumns().add(column);
+                    select.getSelectItems().add(new SelectStatement.SelectItem("NONE", column));
+                } while (accept(","));
+                if (!accept(")")) {
+                    return null;
+                }
+                if (!accept(",") && !peekKeyword("FROM")) {
+                    return null;
+                }
+            }
+        }
+
+        if (!peekKeyword("FROM")) {
+            do {
+                SelectStatement.SelectItem item = parseSelectItem();
+                if (item == null) {
+                    return null;
+                }
+                select.getSelectItems().add(item);
+            } while (accept(","));
+        }
+
+        if (!peekKeyword("FROM")) {
+            return null;
+        }
+        parseSource(select);
+
+        if (peekKeyword("GROUP")) {
+            parseGroupBy(select);
+        }
+        if (peekKeyword("ORDER")) {
+            parseOrderBy(select);
+        }
+        if (peekKeyword("LIMIT")) {
+            parseLimit(select);
+        }
+        return select;
+    }
+
+    /**
+     * Parses an item of the select list, up to the next ',' or FROM outside parentheses.
+     *
+     * @return the {@link SelectStatement.SelectItem}, or {@code null} if the item is empty
+     */
+    private SelectStatement.SelectItem parseSelectItem() {
+        int start = index;
+        int depth = 0;
+        boolean closedBeforeEnd = false;
+        while (index < tokens.size()) {
+            Token token = tokens.get(index);
+            if (depth == 0 && (token.is(",") || token.isKeyword("FROM"))) {
+                break;
+            }
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")") && --depth == 0 && index + 1 < tokens.size()) {
+                Token next = tokens.get(index + 1);
+                closedBeforeEnd |= !next.is(",") && !next.isKeyword("FROM");
+            }
+            index++;
+        }
+        if (index == start) {
+            return null;
+        }
+
+        Token first = tokens.get(start);
+        boolean isFunction = index - start >= 3 && first.getType() == TokenType.WORD
+                && FUNCTIONS.contains(first.getText().toUpperCase()) && tokens.get(start + 1).is("(")
+                && tokens.get(index - 1).is(")") && !closedBeforeEnd;
+        if (isFunction) {
+            return new SelectStatement.SelectItem(first.getText().toUpperCase(), text(start + 2, index - 1));
+        }
+        return new SelectStatement.SelectItem("NONE", text(start, index));
+    }
+
+    /**
+     * Parses the FROM clause up to GROUP BY, ORDER BY or LIMIT, collecting the names of the joined tables.
+     *
+     * @param select the statement being parsed
+     */
+    private void parseSource(SelectStatement select) {
+        int start = index;
+        index++;
+        addTableName(select);
+        int depth = 0;
+        // Tables can be listed with commas until the join condition or the WHERE clause
+        boolean inTableList = true;
+        while (index < tokens.size() && (depth > 0 || !isClauseStart())) {
+            Token token = tokens.get(index);
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")")) {
+                depth--;
+            } else if (token.isKeyword("WHERE") || token.isKeyword("ON")) {
+                inTableList = false;
+            }
+            index++;
+            if (token.isKeyword("JOIN") || (inTableList && depth == 0 && token.is(","))) {
+                addTableName(select);
+                inTableList = true;
+            }
+        }
+        select.setFromClause(text(start, index));
+    }
+
+    /**
+     * Parses the GROUP BY clause and the HAVING clause following it.
+     *
+     * @param select the statement being parsed
+     * @throws SQLException (MySQLSyntaxErrorException) if the GROUP BY clause is not a list of columns
+     */
+    private void parseGroupBy(SelectStatement select) throws SQLException {
+        index += 2;
+        int start = index;
+        String column;
+        do {
+            column = isClauseEnd() || peekKeyword("HAVING") ? null : parseName();
+            if (column == null) {
+                break;
+            }
+            select.getGroupByColumns().add(column);
+        } while (accept(","));
+        if (column == null || !(isClauseEnd() || peekKeyword("HAVING"))) {
+            index = start;
+            throw new MySQLSyntaxErrorException("Invalid GROUP BY clause syntax", "Place where error occurred: \u001B[3m" + text(start, clauseEnd("HAVING")) + "\u001B[0m");
+        }
+
+        if (acceptKeyword("HAVING")) {
+            int havingStart = index;
+            index = clauseEnd(null);
+            select.setHavingClause(text(havingStart, index));
+        }
+    }
+
+    /**
+     * Parses the ORDER BY clause.
+     *
+     * @param select the statement being parsed
+     * @throws SQLException (MySQLSyntaxErrorException) if the clause is not a list of columns with optional directions
+     */
+    private void parseOrderBy(SelectStatement select) throws SQLException {
+        index += 2;
+        int start = index;
+        do {
+            String column = isClauseEnd() ? null : parseName();
+            if (column == null) {
+                break;
+            }
+            boolean isAscending = !acceptKeyword("DESC");
+            if (isAscending) {
+                acceptKeyword("ASC");
+            }
+            select.getOrderByClauses().add(new OrderByClause(column, isAscending));
+        } while (accept(","));
+        if (!isClauseEnd() || select.getOrderByClauses().isEmpty() || tokens.get(index - 1).is(",")) {
+            index = start;
+            throw new MySQLSyntaxErrorException("Invalid ORDER BY clause syntax.", "Place where error occurred: \u001B[3m" + text(start, clauseEnd(null)) + "\u001B[0m");
+        }
+    }
+
+    /**
+     * Parses the LIMIT clause with the optional OFFSET, which must end the statement.
+     *
+     * @param select the statement being parsed
+     * @throws SQLException (MySQLSyntaxErrorException) if the values are not integers or the statement continues
+     */
+    private void parseLimit(SelectStatement select) throws SQLException {
+        int start = index;
+        index++;
+        Integer limit = parseInteger();
+        Integer offset = 0;
+        if (limit != null && acceptKeyword("OFFSET")) {
+            offset = parseInteger();
+        }
+        if (limit == null || offset == null || index < tokens.size()) {
+            throw new MySQLSyntaxErrorException("Invalid LIMIT clause syntax", "Place where error occurred: \u001B[3m" + text(start, tokens.size()) + "\u001B[0m");
+        }
+        select.setLimit(limit);
+        select.setOffset(offset);
+    }
+
+    /**
+     * Parses an integer value.
+     *
+     * @return the value, or {@code null} if the current token is not an integer
+     */
+    private Integer parseInteger() {
+        if (index >= tokens.size() || tokens.get(index).getType() != TokenType.NUMBER) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(tokens.get(index++).getText());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a column name, removing the backticks if it is quoted.
+     *
+     * @return the name, or {@code null} if the current token is not a name
+     */
+    private String parseName() {
+        if (index >= tokens.size() || tokens.get(index).getType() != TokenType.WORD) {
+            return null;
+        }
+        return unquote(tokens.get(index++).getText());
+    }
+
+    /**
+     * Adds the table name at the current position to the table names of the statement.
+     *
+     * @param select the statement being parsed
+     */
+    private void addTableName(SelectStatement select) {
+        if (index < tokens.size() && tokens.get(index).getType() == TokenType.WORD && !isClauseStart()) {
+            select.getTableNames().add(unquote(tokens.get(index).getText()));
+        }
+    }
+
+    /**
+     * Finds the end of the current clause: the next clause keyword outside parentheses or the end of the statement.
+     * <p>Only used to skip the HAVING clause, which is left as text, and to report the clause of a syntax error,
+     * so each token of a valid statement is still visited once.</p>
+     *
+     * @param keyword an additional keyword ending the clause, or {@code null}
+     * @return the index of the token ending the clause
+     */
+    private int clauseEnd(String keyword) {
+        int saved = index;
+        int depth = 0;
+        while (index < tokens.size()) {
+            Token token = tokens.get(index);
+            if (depth == 0 && (isClauseStart() || (keyword != null && token.isKeyword(keyword)))) {
+                break;
+            }
+            if (token.is("(")) {
+                depth++;
+            } else if (token.is(")")) {
+                depth--;
+            }
+            index++;
+        }
+        int end = index;
+        index = saved;
+        return end;
+    }
+
+    /**
+     * Checks if the current clause ends at the current position, i.e. the statement ends or another clause starts.
+     *
+     * @return {@code true} if the current clause ends, {@code false} otherwise
+     */
+    private boolean isClauseEnd() {
+        return index >= tokens.size() || isClauseStart();
+    }
+
+    /**
+     * Checks if a clause parsed by the editor (GROUP BY, ORDER BY or LIMIT) starts at the current position.
+     *
+     * @return {@code true} if the current token starts a clause, {@code false} otherwise
+     */
+    private boolean isClauseStart() {
+        Token token = tokens.get(index);
+        if (token.isKeyword("LIMIT")) {
+            return true;
+        }
+        return (token.isKeyword("GROUP") || token.isKeyword("ORDER")) && index + 1 < tokens.size() && tokens.get(index + 1).isKeyword("BY");
+    }
+
+    private boolean peekKeyword(String keyword) {
+        return index < tokens.size() && tokens.get(index).isKeyword(keyword);
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        if (peekKeyword(keyword)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(String symbol) {
+        if (index < tokens.size() && tokens.get(index).is(symbol)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    private String text(int from, int to) {
+        return SQLLexer.text(statement, tokens, from, to);
+    }
+
+    private static String unquote(String name) {
+        return name.length() >= 2 && name.startsWith("`") ? name.substring(1, name.length() - 1) : name;
+    }
+}
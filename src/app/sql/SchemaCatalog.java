@@ -0,0 +1,135 @@
+package app.sql;
+
+import cpp.JavaInterface;
+import cpp.QueryResult;
+
+import java.util.*;
+
+/**
+ * In-process catalog of the tables in the database and their column names.
+ * <p>The catalog is populated from SHOW TABLES when a database is imported and kept current
+ * on CREATE TABLE and DROP TABLE, so column lookups do not have to go through the native database.</p>
+ * Lookups of tables that are not in the catalog fall back to the native database and are counted separately.
+ * Every change of the catalog clears the {@link PlanCache}, since prepared statements are validated against it.
+ */
+public class SchemaCatalog {
+
+    /**
+     * The column names of each table, in the order the tables were added.
+     */
+    private static final Map<String, List<String>> tables = new LinkedHashMap<>();
+
+    /**
+     * The number of lookups answered from the catalog.
+     */
+    private static long hits = 0;
+
+    /**
+     * The number of lookups that had to query the native database.
+     */
+    private static long nativeLookups = 0;
+
+    /**
+     * Replaces the content of the catalog with the tables listed in the result of SHOW TABLES.
+     *
+     * @param showTablesResult the {@link QueryResult} of SHOW TABLES
+     */
+    public static synchronized void populate(QueryResult showTablesResult) {
+        tables.clear();
+        PlanCache.clear();
+        for (QueryResult.Table table : showTablesResult.getTables()) {
+            tables.put(table.getName(), new ArrayList<>(table.getHeaders()));
+        }
+    }
+
+    /**
+     * Adds or replaces the columns of the given table.
+     *
+     * @param tableName the name of the table
+     * @param columns   the column names of the table
+     */
+    public static synchronized void putTable(String tableName, List<String> columns) {
+        PlanCache.clear();
+        tables.put(tableName, new ArrayList<>(columns));
+    }
+
+    /**
+     * Removes the given table from the catalog.
+     *
+     * @param tableName the name of the table
+     */
+    public static synchronized void removeTable(String tableName) {
+        PlanCache.clear();
+        tables.remove(tableName);
+    }
+
+    /**
+     * Removes all tables from the catalog (e.g. when a new database is created).
+     */
+    public static synchronized void clear() {
+        PlanCache.clear();
+        tables.clear();
+    }
+
+    /**
+     * Returns the column names of the given table.
+     * <p>If the table is not in the catalog, its columns are read from the native database and cached.</p>
+     *
+     * @param tableName the name of the table
+     * @return the {@link List} of column names, or an empty list if the table does not exist
+     */
+    public static synchronized List<String> getColumns(String tableName) {
+        List<String> columns = tables.get(tableName);
+        if (columns != null) {
+            hits++;
+            return Collections.unmodifiableList(columns);
+        }
+
+        nativeLookups++;
+        // Only the column names are needed
+        QueryResult result = SQLExecutor.executeNative(JavaInterface.getInstance(), "SELECT * FROM " + tableName, 0);
+        if (result.isError() || !result.hasTables()) {
+            return Collections.emptyList();
+        }
+        columns = new ArrayList<>(result.getTables().get(0).getHeaders());
+        tables.put(tableName, columns);
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Checks if the given table is in the catalog.
+     *
+     * @param tableName the name of the table
+     * @return {@code true} if the table is in the catalog, {@code false} otherwise
+     */
+    public static synchronized boolean containsTable(String tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    /**
+     * Returns the names of the tables in the catalog.
+     *
+     * @return the {@link List} of table names
+     */
+    public static synchronized List<String> getTableNames() {
+        return new ArrayList<>(tables.keySet());
+    }
+
+    /**
+     * Returns the number of lookups answered from the catalog.
+     *
+     * @return the number of catalog hits
+     */
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to query the native database.
+     *
+     * @return the number of native lookups
+     */
+    public static synchronized long getNativeLookups() {
+        return nativeLookups;
+    }
+}
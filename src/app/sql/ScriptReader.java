@@ -0,0 +1,165 @@
+package app.sql;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the statements of an SQL script file one at a time, without loading the whole file into memory.
+ * <p>Statements are split by a {@link StatementSplitter}, the same way as the code of the editor.
+ * Only the statement being read is kept in memory, so the memory used does not depend on the size of the file.</p>
+ * The number of bytes read so far is available from {@link #getBytesRead()} for reporting the progress.
+ */
+public class ScriptReader implements Closeable {
+
+    /**
+     * The size of the buffer the file is decoded into.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The stream counting the bytes read from the file.
+     */
+    private final CountingInputStream input;
+
+    /**
+     * The reader decoding the file.
+     */
+    private final Reader reader;
+
+    /**
+     * The size of the file in bytes.
+     */
+    private final long totalBytes;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * The splitter finding the end of the statements and collecting their text.
+     */
+    private final StatementSplitter splitter = new StatementSplitter(true);
+
+    /**
+     * Opens the given script file.
+     *
+     * @param file the path of the script file
+     * @throws IOException if the file cannot be opened
+     */
+    public ScriptReader(Path file) throws IOException {
+        this(Files.newInputStream(file), Files.size(file));
+    }
+
+    /**
+     * Creates a new instance of {@link ScriptReader} reading the given UTF-8 stream.
+     *
+     * @param input      the stream of the script
+     * @param totalBytes the size of the script in bytes, or -1 if it is not known
+     */
+    public ScriptReader(InputStream input, long totalBytes) {
+        this.input = new CountingInputStream(input);
+        this.reader = new InputStreamReader(this.input, StandardCharsets.UTF_8);
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Reads the next statement of the script.
+     * <p>Empty statements (e.g. consecutive semicolons or comments only) are skipped, and the last statement
+     * does not need to end with a semicolon. A string literal that is not terminated is returned as read,
+     * so the error is reported when the statement is executed.</p>
+     *
+     * @return the statement without the semicolon, or {@code null} at the end of the script
+     * @throws IOException if the script cannot be read
+     */
+    public String nextStatement() throws IOException {
+        while (position < limit || fill()) {
+            char c = buffer[position++];
+            if (splitter.accept(c)) {
+                String statement = splitter.takeStatement();
+                if (!statement.isEmpty()) {
+                    return statement;
+                }
+            }
+        }
+        splitter.finish();
+        String statement = splitter.takeStatement();
+        return statement.isEmpty() ? null : statement;
+    }
+
+    /**
+     * Returns the number of bytes read from the script so far.
+     * <p>The file is read ahead in blocks, so the value can be ahead of the statement being executed by up to a block.</p>
+     *
+     * @return the number of bytes read
+     */
+    public long getBytesRead() {
+        return input.count;
+    }
+
+    /**
+     * Returns the size of the script.
+     *
+     * @return the size of the script in bytes, or -1 if it is not known
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Closes the script file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Input stream counting the bytes read from the underlying stream.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count = 0;
+
+        CountingInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
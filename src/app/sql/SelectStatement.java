@@ -0,0 +1,217 @@
+package app.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Syntax tree of a SELECT statement produced by {@link SQLParser}.
+ * <p>The clauses handled by the editor (aggregate functions, DISTINCT, GROUP BY, HAVING, ORDER BY, LIMIT and OFFSET)
+ * are parsed into their parts, while the FROM clause (with joins and the WHERE condition) is kept as written,
+ * since it is evaluated by the native engine. {@link #toNativeQuery()} regenerates the statement that is sent
+ * to the native engine.</p>
+ */
+public class SelectStatement {
+
+    /**
+     * An item of the select list: a column, {@code *}, or an aggregate function applied to a column.
+     */
+    public static class SelectItem {
+        private final String function;
+        private final String argument;
+
+        SelectItem(String function, String argument) {
+            this.function = function;
+            this.argument = argument;
+        }
+
+        /**
+         * Returns the name of the aggregate function in upper case, or "NONE" if the item is not an aggregate function.
+         *
+         * @return the function name
+         */
+        public String getFunction() {
+            return function;
+        }
+
+        /**
+         * Returns the column the function is applied to, or the item itself if it is not an aggregate function.
+         *
+         * @return the argument
+         */
+        public String getArgument() {
+            return argument;
+        }
+
+        /**
+         * Checks if the item is an aggregate function.
+         *
+         * @return {@code true} if the item is an aggregate function, {@code false} otherwise
+         */
+        public boolean isAggregate() {
+            return !function.equals("NONE");
+        }
+    }
+
+    private final List<SelectItem> selectItems = new ArrayList<>();
+    private boolean distinct = false;
+    private final List<String> distinctColumns = new ArrayList<>();
+    private String fromClause;
+    private final Set<String> tableNames;
+    private final List<String> groupByColumns = new ArrayList<>();
+    private String havingClause;
+    private final List<OrderByClause> orderByClauses = new ArrayList<>();
+    private Integer limit;
+    private Integer offset;
+
+    /**
+     * Creates a new instance of {@link SelectStatement}.
+     *
+     * @param tableNames the set the parser fills with the names of the tables in the FROM clause
+     */
+    SelectStatement(Set<String> tableNames) {
+        this.tableNames = tableNames;
+    }
+
+    /**
+     * Regenerates the statement for the native engine: the select list without the aggregate functions
+     * and the DISTINCT keyword, followed by the FROM clause as written.
+     * <p>If the statement uses aggregate functions, only their arguments are selected (the columns are aggregated
+     * by the editor), and {@code COUNT(*)} does not need any column.</p>
+     *
+     * @return the native SELECT statement
+     */
+    public String toNativeQuery() {
+        boolean hasAggregates = hasAggregates();
+        List<String> columns = new ArrayList<>();
+        for (SelectItem item : selectItems) {
+            if (!hasAggregates || !item.getFunction().equals("COUNT") || !item.getArgument().equals("*")) {
+                columns.add(item.getArgument());
+            }
+        }
+        return "SELECT " + (columns.isEmpty() ? "*" : String.join(", ", columns)) + " " + fromClause;
+    }
+
+    /**
+     * Checks if the select list contains an aggregate function.
+     *
+     * @return {@code true} if an aggregate function is used, {@code false} otherwise
+     */
+    public boolean hasAggregates() {
+        return selectItems.stream().anyMatch(SelectItem::isAggregate);
+    }
+
+    //region GETTERS AND SETTERS
+
+    /**
+     * Returns the items of the select list.
+     *
+     * @return the select items
+     */
+    public List<SelectItem> getSelectItems() {
+        return selectItems;
+    }
+
+    /**
+     * Checks if the statement uses DISTINCT.
+     *
+     * @return {@code true} if DISTINCT is used, {@code false} otherwise
+     */
+    public boolean isDistinct() {
+        return distinct;
+    }
+
+    void setDistinct(boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    /**
+     * Returns the columns listed in parentheses after DISTINCT, or an empty list if DISTINCT applies to the whole row.
+     *
+     * @return the distinct columns
+     */
+    public List<String> getDistinctColumns() {
+        return distinctColumns;
+    }
+
+    /**
+     * Returns the FROM clause as written, including the joins and the WHERE condition.
+     *
+     * @return the FROM clause
+     */
+    public String getFromClause() {
+        return fromClause;
+    }
+
+    void setFromClause(String fromClause) {
+        this.fromClause = fromClause;
+    }
+
+    /**
+     * Returns the names of the tables in the FROM clause and its joins.
+     *
+     * @return the table names
+     */
+    public Set<String> getTableNames() {
+        return tableNames;
+    }
+
+    /**
+     * Returns the columns of the GROUP BY clause.
+     *
+     * @return the group by columns
+     */
+    public List<String> getGroupByColumns() {
+        return groupByColumns;
+    }
+
+    /**
+     * Returns the HAVING clause as written (without the HAVING keyword), or {@code null} if there is none.
+     *
+     * @return the HAVING clause
+     */
+    public String getHavingClause() {
+        return havingClause;
+    }
+
+    void setHavingClause(String havingClause) {
+        this.havingClause = havingClause;
+    }
+
+    /**
+     * Returns the columns and directions of the ORDER BY clause.
+     *
+     * @return the order by clauses
+     */
+    public List<OrderByClause> getOrderByClauses() {
+        return orderByClauses;
+    }
+
+    /**
+     * Returns the value of the LIMIT clause, or {@code null} if there is none.
+     *
+     * @return the limit
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the value of the OFFSET clause, or {@code null} if there is none.
+     *
+     * @return the offset
+     */
+    public Integer getOffset() {
+        return offset;
+    }
+
+    void setOffset(Integer offset) {
+        this.offset = offset;
+    }
+
+    //endregion
+}
@@ -0,0 +1,67 @@
+package app.sql;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class for counting the temporary files written when intermediate results do not fit in memory
+ * (sorted runs of {@link ExternalSorter} and partitions of {@link DistinctFilter}).
+ * <p>The counters only grow; the executor reports the difference over a run of statements.</p>
+ */
+public class SpillStatistics {
+
+    /**
+     * The number of temporary files written.
+     */
+    private static final AtomicLong runs = new AtomicLong();
+    /**
+     * The number of bytes written to temporary files.
+     */
+    private static final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Records a temporary file that has been written.
+     *
+     * @param size the size of the file in bytes
+     */
+    public static void recordRun(long size) {
+        runs.incrementAndGet();
+        bytes.addAndGet(size);
+    }
+
+    /**
+     * Returns the number of temporary files written.
+     *
+     * @return the number of spilled runs
+     */
+    public static long getRuns() {
+        return runs.get();
+    }
+
+    /**
+     * Returns the number of bytes written to temporary files.
+     *
+     * @return the number of spilled bytes
+     */
+    public static long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Formats a number of bytes for display (e.g. "512 B", "1.5 KB", "12.3 MB").
+     *
+     * @param size the number of bytes
+     * @return the formatted size
+     */
+    public static String formatBytes(long size) {
+        if (size < 1024) {
+            return size + " B";
+        }
+        if (size < 1024 * 1024) {
+            return String.format("%.1f KB", size / 1024.0);
+        }
+        if (size < 1024L * 1024 * 1024) {
+            return String.format("%.1f MB", size / (1024.0 * 1024));
+        }
+        return String.format("%.1f GB", size / (1024.0 * 1024 * 1024));
+    }
+}
@@ -0,0 +1,148 @@
+package app.sql;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the statement boundaries (the semicolons ending the statements) of the code in the editor,
+ * kept up to date incrementally as the code is edited.
+ * <p>Every boundary is a checkpoint: the {@link StatementSplitter} is always in the {@link StatementSplitter.State#CODE}
+ * state after it. After an edit, the code is scanned again from the last boundary before the edit until a boundary
+ * found after the edit matches a boundary found before the edit (shifted by the length of the edit). From there,
+ * the code and the state are the same as before, so the remaining boundaries are only shifted. Typing in a statement
+ * therefore only scans that statement, and {@link #getStatementAt(CharSequence, int)} only reads the statement under the caret.</p>
+ */
+public class StatementIndex {
+
+    /**
+     * The positions of the semicolons ending the statements, in ascending order.
+     */
+    private int[] boundaries = new int[16];
+    private int size = 0;
+
+    /**
+     * Creates a new instance of {@link StatementIndex} for the given code, scanning it once.
+     *
+     * @param code the code
+     */
+    public StatementIndex(CharSequence code) {
+        update(code, 0, 0, code.length());
+    }
+
+    /**
+     * Updates the boundaries after an edit of the code.
+     *
+     * @param code           the code after the edit
+     * @param position       the position of the edit
+     * @param removedLength  the number of characters removed at the position
+     * @param insertedLength the number of characters inserted at the position
+     */
+    public void update(CharSequence code, int position, int removedLength, int insertedLength) {
+        int delta = insertedLength - removedLength;
+
+        // Boundaries before the edit are not affected, scanning resumes after the last one
+        int kept = firstBoundaryAtOrAfter(position);
+        int start = kept > 0 ? boundaries[kept - 1] + 1 : 0;
+
+        // The first old boundary after the removed text, which can match a new boundary after the inserted text
+        int candidate = kept;
+        while (candidate < size && boundaries[candidate] < position + removedLength) {
+            candidate++;
+        }
+
+        int[] scanned = new int[16];
+        int scannedCount = 0;
+        int tail = size;
+        StatementSplitter splitter = new StatementSplitter(false);
+        int length = code.length();
+        for (int i = start; i < length; i++) {
+            if (!splitter.accept(code.charAt(i))) {
+                continue;
+            }
+            if (i >= position + insertedLength) {
+                while (candidate < size && boundaries[candidate] + delta < i) {
+                    candidate++;
+                }
+                if (candidate < size && boundaries[candidate] + delta == i) {
+                    // Same code and state from here on, the remaining boundaries are only shifted
+                    tail = candidate;
+                    break;
+                }
+            }
+            if (scannedCount == scanned.length) {
+                scanned = Arrays.copyOf(scanned, scannedCount * 2);
+            }
+            scanned[scannedCount++] = i;
+        }
+        int tailLength = size - tail;
+        int newSize = kept + scannedCount + tailLength;
+        if (newSize > boundaries.length) {
+            boundaries = Arrays.copyOf(boundaries, Math.max(newSize, boundaries.length * 2));
+        }
+        System.arraycopy(boundaries, tail, boundaries, kept + scannedCount, tailLength);
+        if (delta != 0) {
+            for (int j = kept + scannedCount; j < newSize; j++) {
+                boundaries[j] += delta;
+            }
+        }
+        System.arraycopy(scanned, 0, boundaries, kept, scannedCount);
+        size = newSize;
+    }
+
+    /**
+     * Returns the statement at the given position, without comments and with whitespace collapsed.
+     * <p>A position right after a semicolon belongs to the statement the semicolon ends.
+     * Only the statement is read from the code. If the position is after the last statement
+     * (e.g. on an empty line at the end of the code), the last statement is returned.</p>
+     *
+     * @param code     the code
+     * @param position the position (e.g. of the caret)
+     * @return the statement, or {@code null} if there is no statement at or before the position
+     */
+    public String getStatementAt(CharSequence code, int position) {
+        int index = firstBoundaryAtOrAfter(position - 1);
+        int[] range = statementRange(code.length(), index);
+        List<String> statements = StatementSplitter.split(code, range[0], range[1]);
+        if (statements.isEmpty() && index == size && index > 0) {
+            // After the last statement, e.g. on an empty line at the end of the code
+            range = statementRange(code.length(), index - 1);
+            statements = StatementSplitter.split(code, range[0], range[1]);
+        }
+        return statements.isEmpty() ? null : statements.get(0);
+    }
+
+    /**
+     * Returns the number of statements ended by a semicolon.
+     *
+     * @return the number of boundaries
+     */
+    public int getBoundaryCount() {
+        return size;
+    }
+
+    private int[] statementRange(int length, int index) {
+        int start = index > 0 ? boundaries[index - 1] + 1 : 0;
+        int end = index < size ? boundaries[index] : length;
+        return new int[]{start, end};
+    }
+
+    /**
+     * Finds the first boundary at or after the given position.
+     *
+     * @param position the position
+     * @return the index of the boundary, or the number of boundaries if there is none
+     */
+    private int firstBoundaryAtOrAfter(int position) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (boundaries[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,272 @@
+package app.sql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokenizer splitting SQL code into statements, aware of string literals, quoted names and comments.
+ * <p>Characters are fed one at a time with {@link #accept(char)}, which reports the semicolons ending a statement
+ * (semicolons inside string literals, quoted names and comments do not end a statement). The splitter keeps no
+ * lookahead and no reference to the code, so the same state machine is used to split editor code in one linear pass
+ * ({@link #split(CharSequence)}), to stream script files ({@link ScriptReader}) and to find the statement boundaries
+ * of the editor incrementally ({@link StatementIndex}).</p>
+ * If the splitter collects the statement text, line comments ({@code --}) and block comments ({@code /* ... *}{@code /})
+ * are removed and whitespace outside string literals is collapsed into single spaces.
+ */
+public class StatementSplitter {
+
+    /**
+     * The lexical state of the splitter.
+     */
+    public enum State {
+        /**
+         * SQL code outside literals and comments.
+         */
+        CODE,
+        /**
+         * After a '-' in the code, which starts a line comment if followed by another '-'.
+         */
+        DASH,
+        /**
+         * After a '/' in the code, which starts a block comment if followed by '*'.
+         */
+        SLASH,
+        /**
+         * Inside a string literal in single quotes.
+         */
+        SINGLE_QUOTED,
+        /**
+         * Inside a string literal in double quotes.
+         */
+        DOUBLE_QUOTED,
+        /**
+         * Inside a name in backticks.
+         */
+        BACKTICK_QUOTED,
+        /**
+         * Inside a line comment.
+         */
+        LINE_COMMENT,
+        /**
+         * Inside a block comment.
+         */
+        BLOCK_COMMENT,
+        /**
+         * After a '*' inside a block comment, which ends the comment if followed by '/'.
+         */
+        BLOCK_COMMENT_STAR
+    }
+
+    private State state = State.CODE;
+
+    /**
+     * The text of the statement being read, or {@code null} if only the boundaries are needed.
+     */
+    private final StringBuilder statement;
+
+    /**
+     * Flag indicating whether whitespace or a comment precedes the next character of the code.
+     */
+    private boolean pendingSpace = false;
+
+    /**
+     * Creates a new instance of {@link StatementSplitter}.
+     *
+     * @param collectText {@code true} to collect the text of the statements, {@code false} to only find their boundaries
+     */
+    public StatementSplitter(boolean collectText) {
+        this.statement = collectText ? new StringBuilder() : null;
+    }
+
+    /**
+     * Splits the given code into statements in one pass.
+     *
+     * @param code the SQL code
+     * @return the statements without comments and semicolons, with whitespace collapsed; empty statements are skipped
+     */
+    public static List<String> split(CharSequence code) {
+        return split(code, 0, code.length());
+    }
+
+    /**
+     * Splits the given range of the code into statements in one pass.
+     *
+     * @param code  the SQL code
+     * @param start the start of the range (inclusive)
+     * @param end   the end of the range (exclusive)
+     * @return the statements without comments and semicolons, with whitespace collapsed; empty statements are skipped
+     */
+    public static List<String> split(CharSequence code, int start, int end) {
+        List<String> statements = new ArrayList<>();
+        StatementSplitter splitter = new StatementSplitter(true);
+        for (int i = start; i < end; i++) {
+            if (splitter.accept(code.charAt(i))) {
+                splitter.addStatement(statements);
+            }
+        }
+        splitter.finish();
+        splitter.addStatement(statements);
+        return statements;
+    }
+
+    /**
+     * Feeds the next character of the code to the splitter.
+     *
+     * @param c the character
+     * @return {@code true} if the character is a semicolon ending a statement, {@code false} otherwise
+     */
+    public boolean accept(char c) {
+        switch (state) {
+            case DASH:
+                if (c == '-') {
+                    state = State.LINE_COMMENT;
+                    return false;
+                }
+                state = State.CODE;
+                append('-');
+                return accept(c);
+            case SLASH:
+                if (c == '*') {
+                    state = State.BLOCK_COMMENT;
+                    return false;
+                }
+                state = State.CODE;
+                append('/');
+                return accept(c);
+            case SINGLE_QUOTED:
+            case DOUBLE_QUOTED:
+            case BACKTICK_QUOTED:
+                appendRaw(c);
+                if (c == quoteOf(state)) {
+                    state = State.CODE;
+                }
+                return false;
+            case LINE_COMMENT:
+                if (c == '\n') {
+                    state = State.CODE;
+                    pendingSpace = true;
+                }
+                return false;
+            case BLOCK_COMMENT:
+                if (c == '*') {
+                    state = State.BLOCK_COMMENT_STAR;
+                }
+                return false;
+            case BLOCK_COMMENT_STAR:
+                if (c == '/') {
+                    state = State.CODE;
+                    pendingSpace = true;
+                } else if (c != '*') {
+                    state = State.BLOCK_COMMENT;
+                }
+                return false;
+            default:
+                break;
+        }
+
+        switch (c) {
+            case ';':
+                pendingSpace = false;
+                return true;
+            case '-':
+                state = State.DASH;
+                return false;
+            case '/':
+                state = State.SLASH;
+                return false;
+            case '\'':
+                state = State.SINGLE_QUOTED;
+                break;
+            case '"':
+                state = State.DOUBLE_QUOTED;
+                break;
+            case '`':
+                state = State.BACKTICK_QUOTED;
+                break;
+            default:
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = true;
+                    return false;
+                }
+        }
+        append(c);
+        return false;
+    }
+
+    /**
+     * Ends the code, keeping a pending '-' or '/' that was not followed by another character.
+     * Call before taking the last statement.
+     */
+    public void finish() {
+        if (state == State.DASH || state == State.SLASH) {
+            append(state == State.DASH ? '-' : '/');
+        }
+        state = State.CODE;
+        pendingSpace = false;
+    }
+
+    /**
+     * Returns the text of the statement read since the previous statement and starts a new statement.
+     *
+     * @return the statement text, or an empty string if the statement was empty or the text is not collected
+     */
+    public String takeStatement() {
+        if (statement == null) {
+            return "";
+        }
+        String text = statement.toString();
+        statement.setLength(0);
+        pendingSpace = false;
+        return text;
+    }
+
+    /**
+     * Returns the current lexical state.
+     *
+     * @return the {@link State} after the last character
+     */
+    public State getState() {
+        return state;
+    }
+
+    private void addStatement(List<String> statements) {
+        String text = takeStatement();
+        if (!text.isEmpty()) {
+            statements.add(text);
+        }
+    }
+
+    /**
+     * Appends a character of the code, preceded by a space if whitespace or a comment was skipped before it.
+     */
+    private void append(char c) {
+        if (statement == null) {
+            return;
+        }
+        if (pendingSpace && statement.length() > 0) {
+            statement.append(' ');
+        }
+        pendingSpace = false;
+        statement.append(c);
+    }
+
+    /**
+     * Appends a character of a string literal or a quoted name as written.
+     */
+    private void appendRaw(char c) {
+        if (statement != null) {
+            statement.append(c);
+        }
+    }
+
+    private static char quoteOf(State state) {
+        switch (state) {
+            case SINGLE_QUOTED:
+                return '\'';
+            case DOUBLE_QUOTED:
+                return '"';
+            default:
+                return '`';
+        }
+    }
+}
@@ -4,197 +4,339 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Utility class for parsing ANSI text from C++ native code and applying that styling to Console {@link TextFlow}.
+ * <p>The text is scanned once without regular expressions. The style is tracked as a packed int, runs of text with the
+ * same style are merged into a single {@link Text} node, and the CSS style string of every style is built once and
+ * shared by all its nodes.</p>
  */
 public class AnsiTextParser {
 
     /**
-     * The ANSI escape sequence pattern.
+     * The escape character starting an ANSI escape sequence.
      */
-    private static final Pattern ANSI_PATTERN = Pattern.compile("\u001B\\[(\\d+(?:;\\d+)*)m");
+    private static final char ESCAPE = '\u001B';
 
     /**
      * Text styles
      */
-    private static final String RESET = "0";
-    private static final String BOLD = "1";
-    private static final String ITALIC = "3";
-    private static final String UNDERLINE = "4";
+    private static final int RESET = 0;
+    private static final int BOLD = 1;
+    private static final int ITALIC = 3;
+    private static final int UNDERLINE = 4;
 
     /**
      * Standard colors
      */
-    private static final String RED = "31";
-    private static final String GREEN = "32";
-    private static final String YELLOW = "33";
-    private static final String BLUE = "34";
-    private static final String MAGENTA = "35";
-    private static final String CYAN = "36";
-    private static final String WHITE = "37";
-    private static final String GRAY = "90";
-    private static final String LIGHT_BLUE = "94";
-    private static final String LIGHT_GREEN = "92";
+    private static final int RED = 31;
+    private static final int GREEN = 32;
+    private static final int YELLOW = 33;
+    private static final int BLUE = 34;
+    private static final int MAGENTA = 35;
+    private static final int CYAN = 36;
+    private static final int WHITE = 37;
+    private static final int GRAY = 90;
+    private static final int LIGHT_BLUE = 94;
+    private static final int LIGHT_GREEN = 92;
 
     /**
      * Background colors
      */
-    private static final String BG_BLACK = "40";
-    private static final String BG_RED = "41";
-    private static final String BG_GREEN = "42";
-    private static final String BG_YELLOW = "43";
-    private static final String BG_BLUE = "44";
-    private static final String BG_MAGENTA = "45";
-    private static final String BG_CYAN = "46";
-    private static final String BG_WHITE = "47";
-    private static final String BG_GRAY = "100";
+    private static final int BG_BLACK = 40;
+    private static final int BG_RED = 41;
+    private static final int BG_GREEN = 42;
+    private static final int BG_YELLOW = 43;
+    private static final int BG_BLUE = 44;
+    private static final int BG_MAGENTA = 45;
+    private static final int BG_CYAN = 46;
+    private static final int BG_WHITE = 47;
+    private static final int BG_GRAY = 100;
+
+    /**
+     * The text colors, indexed by the text color bits of a style. The default color is first.
+     */
+    private static final Color[] COLORS = {
+            Color.BLACK, Color.RED, Color.GREEN, Color.YELLOW, Color.BLUE, Color.MAGENTA,
+            Color.CYAN, Color.WHITE, Color.GRAY, Color.LIGHTBLUE, Color.LIGHTGREEN
+    };
+
+    /**
+     * The background colors, indexed by the background color bits of a style. No background is first.
+     */
+    private static final Color[] BG_COLORS = {
+            null, Color.BLACK, Color.RED, Color.GREEN, Color.YELLOW, Color.BLUE,
+            Color.MAGENTA, Color.CYAN, Color.WHITE, Color.GRAY
+    };
+
+    /**
+     * A style is packed into an int: the index of the text color in the low 4 bits,
+     * the index of the background color in the next 4 bits, and the text style flags above them.
+     */
+    private static final int COLOR_MASK = 0xF;
+    private static final int BG_SHIFT = 4;
+    private static final int BOLD_FLAG = 1 << 8;
+    private static final int ITALIC_FLAG = 1 << 9;
+    private static final int UNDERLINE_FLAG = 1 << 10;
+
+    /**
+     * The CSS style of every packed style, built the first time it is used, so nodes of the same style share one style string.
+     */
+    private static final String[] STYLE_CACHE = new String[1 << 11];
 
     /**
      * Parses the ANSI text and applies the styling to the given {@link TextFlow} component.
      * Used for displaying ANSI colored text in the Console {@link TextFlow}.
+     * <p>The nodes are added to the text flow at once, so the text flow is laid out once.</p>
      *
      * @param ansiText the ANSI text to parse
      * @param textFlow the {@link TextFlow} component to apply the styling
      */
     public static void parseAnsiText(String ansiText, TextFlow textFlow) {
-        Matcher matcher = ANSI_PATTERN.matcher(ansiText);
-        int lastEnd = 0;
-        boolean isBold = false;
-        boolean isItalic = false;
-        boolean isUnderline = false;
-        Color currentColor = Color.BLACK;
-        Color currentBgColor = null;
-
-        while (matcher.find()) {
-            int start = matcher.start();
-            if (start > lastEnd) {
-                Text text = createStyledText(ansiText.substring(lastEnd, start), currentColor, currentBgColor, isBold, isItalic, isUnderline);
-                textFlow.getChildren().add(text);
-            }
+        textFlow.getChildren().addAll(createTextNodes(ansiText));
+    }
 
-            String[] codes = matcher.group(1).split(";");
-            for (String code : codes) {
-                switch (code) {
-                    case RESET:
-                        isBold = false;
-                        isItalic = false;
-                        isUnderline = false;
-                        currentColor = Color.BLACK;
-                        currentBgColor = null;
-                        break;
-                    case BOLD:
-                        isBold = true;
-                        break;
-                    case ITALIC:
-                        isItalic = true;
-                        break;
-                    case UNDERLINE:
-                        isUnderline = true;
-                        break;
-                    case RED:
-                        currentColor = Color.RED;
-                        break;
-                    case GREEN:
-                        currentColor = Color.GREEN;
-                        break;
-                    case YELLOW:
-                        currentColor = Color.YELLOW;
-                        break;
-                    case BLUE:
-                        currentColor = Color.BLUE;
-                        break;
-                    case MAGENTA:
-                        currentColor = Color.MAGENTA;
-                        break;
-                    case CYAN:
-                        currentColor = Color.CYAN;
-                        break;
-                    case WHITE:
-                        currentColor = Color.WHITE;
-                        break;
-                    case GRAY:
-                        currentColor = Color.GRAY;
-                        break;
-                    case LIGHT_BLUE:
-                        currentColor = Color.LIGHTBLUE;
-                        break;
-                    case LIGHT_GREEN:
-                        currentColor = Color.LIGHTGREEN;
-                        break;
-                    case BG_BLACK:
-                        currentBgColor = Color.BLACK;
-                        break;
-                    case BG_RED:
-                        currentBgColor = Color.RED;
-                        break;
-                    case BG_GREEN:
-                        currentBgColor = Color.GREEN;
-                        break;
-                    case BG_YELLOW:
-                        currentBgColor = Color.YELLOW;
-                        break;
-                    case BG_BLUE:
-                        currentBgColor = Color.BLUE;
-                        break;
-                    case BG_MAGENTA:
-                        currentBgColor = Color.MAGENTA;
-                        break;
-                    case BG_CYAN:
-                        currentBgColor = Color.CYAN;
-                        break;
-                    case BG_WHITE:
-                        currentBgColor = Color.WHITE;
-                        break;
-                    case BG_GRAY:
-                        currentBgColor = Color.GRAY;
-                        break;
+    /**
+     * Parses the ANSI text and replaces the content of the given {@link TextFlow} component with it in one change
+     * (e.g. to show an error in the console).
+     *
+     * @param ansiText the ANSI text to parse
+     * @param textFlow the {@link TextFlow} component to apply the styling
+     */
+    public static void replaceWithAnsiText(String ansiText, TextFlow textFlow) {
+        textFlow.getChildren().setAll(createTextNodes(ansiText));
+    }
+
+    /**
+     * Parses the ANSI text into styled {@link Text} nodes without adding them to a text flow.
+     * <p>Adjacent runs of text with the same style are merged into one node, even if escape sequences are between them,
+     * and escape sequences that are not SGR sequences ({@code ESC[...m}) are kept as text.
+     * The nodes are not attached to a scene, so they can also be created on a background thread.</p>
+     *
+     * @param ansiText the ANSI text to parse
+     * @return the styled {@link Text} nodes
+     */
+    public static List<Text> createTextNodes(String ansiText) {
+        List<Text> nodes = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int runStyle = 0;
+        int style = 0;
+        int segmentStart = 0;
+
+        int escape = ansiText.indexOf(ESCAPE);
+        while (escape >= 0) {
+            int end = sequenceEnd(ansiText, escape);
+            if (end < 0) {
+                escape = ansiText.indexOf(ESCAPE, escape + 1);
+                continue;
+            }
+            if (escape > segmentStart) {
+                if (run.length() > 0 && style != runStyle) {
+                    nodes.add(createStyledText(run.toString(), runStyle));
+                    run.setLength(0);
                 }
+                runStyle = style;
+                run.append(ansiText, segmentStart, escape);
+            }
+            style = applyCodes(ansiText, escape + 2, end - 1, style);
+            segmentStart = end;
+            escape = ansiText.indexOf(ESCAPE, end);
+        }
+
+        if (segmentStart < ansiText.length()) {
+            if (run.length() > 0 && style != runStyle) {
+                nodes.add(createStyledText(run.toString(), runStyle));
+                run.setLength(0);
             }
+            runStyle = style;
+            run.append(ansiText, segmentStart, ansiText.length());
+        }
+        if (run.length() > 0) {
+            nodes.add(createStyledText(run.toString(), runStyle));
+        }
+        return nodes;
+    }
 
-            lastEnd = matcher.end();
+    /**
+     * Finds the end of the SGR escape sequence ({@code ESC[n;...;nm}) starting at the given position.
+     *
+     * @param text  the text
+     * @param start the position of the escape character
+     * @return the position after the final 'm', or -1 if there is no valid sequence at the position
+     */
+    private static int sequenceEnd(String text, int start) {
+        int i = start + 1;
+        if (i >= text.length() || text.charAt(i) != '[') {
+            return -1;
         }
+        i++;
+        while (true) {
+            int digits = i;
+            while (i < text.length() && Character.isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == digits || i >= text.length()) {
+                return -1;
+            }
+            char c = text.charAt(i++);
+            if (c == 'm') {
+                return i;
+            }
+            if (c != ';') {
+                return -1;
+            }
+        }
+    }
 
-        if (lastEnd < ansiText.length()) {
-            Text text = createStyledText(ansiText.substring(lastEnd), currentColor, currentBgColor, isBold, isItalic, isUnderline);
-            textFlow.getChildren().add(text);
+    /**
+     * Applies the codes of an SGR escape sequence to a style.
+     *
+     * @param text  the text
+     * @param from  the position of the first code
+     * @param to    the position of the final 'm'
+     * @param style the packed style before the sequence
+     * @return the packed style after the sequence
+     */
+    private static int applyCodes(String text, int from, int to, int style) {
+        int code = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text.charAt(i) : ';';
+            if (c != ';') {
+                code = code * 10 + (c - '0');
+                continue;
+            }
+            switch (code) {
+                case RESET:
+                    style = 0;
+                    break;
+                case BOLD:
+                    style |= BOLD_FLAG;
+                    break;
+                case ITALIC:
+                    style |= ITALIC_FLAG;
+                    break;
+                case UNDERLINE:
+                    style |= UNDERLINE_FLAG;
+                    break;
+                case RED:
+                    style = withColor(style, 1);
+                    break;
+                case GREEN:
+                    style = withColor(style, 2);
+                    break;
+                case YELLOW:
+                    style = withColor(style, 3);
+                    break;
+                case BLUE:
+                    style = withColor(style, 4);
+                    break;
+                case MAGENTA:
+                    style = withColor(style, 5);
+                    break;
+                case CYAN:
+                    style = withColor(style, 6);
+                    break;
+                case WHITE:
+                    style = withColor(style, 7);
+                    break;
+                case GRAY:
+                    style = withColor(style, 8);
+                    break;
+                case LIGHT_BLUE:
+                    style = withColor(style, 9);
+                    break;
+                case LIGHT_GREEN:
+                    style = withColor(style, 10);
+                    break;
+                case BG_BLACK:
+                    style = withBgColor(style, 1);
+                    break;
+                case BG_RED:
+                    style = withBgColor(style, 2);
+                    break;
+                case BG_GREEN:
+                    style = withBgColor(style, 3);
+                    break;
+                case BG_YELLOW:
+                    style = withBgColor(style, 4);
+                    break;
+                case BG_BLUE:
+                    style = withBgColor(style, 5);
+                    break;
+                case BG_MAGENTA:
+                    style = withBgColor(style, 6);
+                    break;
+                case BG_CYAN:
+                    style = withBgColor(style, 7);
+                    break;
+                case BG_WHITE:
+                    style = withBgColor(style, 8);
+                    break;
+                case BG_GRAY:
+                    style = withBgColor(style, 9);
+                    break;
+            }
+            code = 0;
         }
+        return style;
+    }
+
+    private static int withColor(int style, int color) {
+        return (style & ~COLOR_MASK) | color;
+    }
+
+    private static int withBgColor(int style, int bgColor) {
+        return (style & ~(COLOR_MASK << BG_SHIFT)) | (bgColor << BG_SHIFT);
     }
 
     /**
-     * Creates a {@link Text} node with the specified content, color, background color, and text styles.
+     * Creates a {@link Text} node with the specified content and packed style.
      *
      * @param content the text content
-     * @param color the text color
-     * @param bgColor the background color
-     * @param bold {@code true} if the text is bold, {@code false} otherwise
-     * @param underline {@code true} if the text is underlined, {@code false} otherwise
+     * @param style   the packed style of the text
      * @return the styled {@link Text} node
      */
-    private static Text createStyledText(String content, Color color, Color bgColor, boolean bold, boolean italic, boolean underline) {
+    private static Text createStyledText(String content, int style) {
         Text text = new Text(content);
-        text.setFill(color);
-
-        StringBuilder style = new StringBuilder();
-        if (bold) {
-            style.append("-fx-font-weight: bold;");
-        }
-        if (italic) {
-            style.append("-fx-font-style: italic;");
-        }
-        if (underline) {
-            style.append("-fx-underline: true;");
+        text.setFill(COLORS[style & COLOR_MASK]);
+        String css = cssStyle(style);
+        if (!css.isEmpty()) {
+            text.setStyle(css);
         }
-        if (bgColor != null) {
-            style.append("-fx-background-color: ").append(toRGBCode(bgColor)).append(";");
-        }
-
-        text.setStyle(style.toString());
         return text;
     }
 
+    /**
+     * Returns the CSS style of the given packed style, building it the first time.
+     *
+     * @param style the packed style
+     * @return the CSS style, shared by all nodes of the style
+     */
+    private static String cssStyle(int style) {
+        String css = STYLE_CACHE[style];
+        if (css == null) {
+            StringBuilder builder = new StringBuilder();
+            if ((style & BOLD_FLAG) != 0) {
+                builder.append("-fx-font-weight: bold;");
+            }
+            if ((style & ITALIC_FLAG) != 0) {
+                builder.append("-fx-font-style: italic;");
+            }
+            if ((style & UNDERLINE_FLAG) != 0) {
+                builder.append("-fx-underline: true;");
+            }
+            Color bgColor = BG_COLORS[(style >> BG_SHIFT) & COLOR_MASK];
+            if (bgColor != null) {
+                builder.append("-fx-background-color: ").append(toRGBCode(bgColor)).append(";");
+            }
+            css = builder.toString().intern();
+            STYLE_CACHE[style] = css;
+        }
+        return css;
+    }
+
     /**
      * Converts the given {@link Color} to its RGB hexadecimal code.
      *
@@ -207,4 +349,4 @@ public class AnsiTextParser {
                 (int) (color.getGreen() * 255),
                 (int) (color.getBlue() * 255));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,277 @@
+package app.util;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the output of the console {@link TextFlow} bounded.
+ * <p>The lines of the console are counted as nodes are added and removed. When there are more than
+ * {@link #getLineLimit()} lines, the oldest nodes are removed from the console once per pulse, down to 90% of the limit,
+ * so the scene graph and the cost of laying out and scrolling the console do not grow with the length of the session.
+ * The text of the removed nodes is kept in a ring buffer of at most {@link #getArchiveLineLimit()} lines,
+ * which can be searched together with the visible output with {@link #search(String)}.</p>
+ * The limits are read from the {@code sqleditor.consoleLineLimit} and {@code sqleditor.consoleArchiveLines} system properties.
+ */
+public class ConsoleBuffer {
+
+    /**
+     * The default maximum number of lines shown in the console.
+     */
+    public static final int DEFAULT_LINE_LIMIT = 1000;
+    /**
+     * The default maximum number of lines removed from the console that are kept for searching.
+     */
+    public static final int DEFAULT_ARCHIVE_LINE_LIMIT = 50_000;
+
+    private static volatile int lineLimit = Integer.getInteger("sqleditor.consoleLineLimit", DEFAULT_LINE_LIMIT);
+    private static volatile int archiveLineLimit = Integer.getInteger("sqleditor.consoleArchiveLines", DEFAULT_ARCHIVE_LINE_LIMIT);
+
+    private final TextFlow console;
+
+    /**
+     * The number of lines of the nodes in the console.
+     */
+    private int lineCount = 0;
+
+    /**
+     * Flag indicating whether trimming the console is scheduled for the next pulse.
+     */
+    private boolean trimPending = false;
+
+    /**
+     * The ring buffer of the lines removed from the console, the oldest line at {@link #archiveStart}.
+     */
+    private String[] archive = new String[0];
+    private int archiveStart = 0;
+    private int archiveSize = 0;
+
+    /**
+     * The start of the last line removed from the console, which continues in the next removed node.
+     */
+    private final StringBuilder partialLine = new StringBuilder();
+
+    private ConsoleBuffer(TextFlow console) {
+        this.console = console;
+        console.getChildren().forEach(node -> lineCount += countLines(node));
+        console.getChildren().addListener(this::onChanged);
+    }
+
+    /**
+     * Starts bounding the output of the given console.
+     *
+     * @param console the {@link TextFlow} component representing the console area
+     * @return the {@link ConsoleBuffer} of the console
+     */
+    public static ConsoleBuffer install(TextFlow console) {
+        ConsoleBuffer buffer = new ConsoleBuffer(console);
+        console.getProperties().put(ConsoleBuffer.class, buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns the {@link ConsoleBuffer} installed on the given console.
+     *
+     * @param console the {@link TextFlow} component representing the console area
+     * @return the {@link ConsoleBuffer}, or {@code null} if none is installed
+     */
+    public static ConsoleBuffer of(TextFlow console) {
+        return (ConsoleBuffer) console.getProperties().get(ConsoleBuffer.class);
+    }
+
+    /**
+     * Retrieves the maximum number of lines shown in the console.
+     *
+     * @return the maximum number of lines
+     */
+    public static int getLineLimit() {
+        return lineLimit;
+    }
+
+    /**
+     * Sets the maximum number of lines shown in the console. Older lines are moved to the searchable archive.
+     *
+     * @param limit the new maximum number of lines, 0 or less for no limit
+     */
+    public static void setLineLimit(int limit) {
+        ConsoleBuffer.lineLimit = limit;
+    }
+
+    /**
+     * Retrieves the maximum number of lines removed from the console that are kept for searching.
+     *
+     * @return the maximum number of archived lines
+     */
+    public static int getArchiveLineLimit() {
+        return archiveLineLimit;
+    }
+
+    /**
+     * Sets the maximum number of lines removed from the console that are kept for searching.
+     *
+     * @param limit the new maximum number of archived lines, 0 or less to discard removed lines
+     */
+    public static void setArchiveLineLimit(int limit) {
+        ConsoleBuffer.archiveLineLimit = limit;
+    }
+
+    /**
+     * Returns the lines of the console output containing the given text, ignoring case.
+     * Both the archived lines and the lines shown in the console are searched, the oldest line first.
+     *
+     * @param text the text to search for
+     * @return the matching lines
+     */
+    public List<String> search(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < archiveSize; i++) {
+            String line = archive[(archiveStart + i) % archive.length];
+            if (line.toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(line);
+            }
+        }
+        StringBuilder shown = new StringBuilder(partialLine);
+        for (Node node : console.getChildren()) {
+            appendText(node, shown);
+        }
+        for (String line : shown.toString().split("\n")) {
+            if (!line.isEmpty() && line.toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(line);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Discards the archived lines (e.g. when the console is cleared by the user).
+     */
+    public void clearArchive() {
+        archive = new String[0];
+        archiveStart = 0;
+        archiveSize = 0;
+        partialLine.setLength(0);
+    }
+
+    private void onChanged(ListChangeListener.Change<? extends Node> change) {
+        while (change.next()) {
+            for (Node node : change.getRemoved()) {
+                lineCount -= countLines(node);
+            }
+            for (Node node : change.getAddedSubList()) {
+                lineCount += countLines(node);
+            }
+        }
+        if (lineCount <= 0) {
+            // The console was cleared, the next output starts a new line
+            lineCount = 0;
+            partialLine.setLength(0);
+        }
+        int limit = lineLimit;
+        if (limit > 0 && lineCount > limit && !trimPending) {
+            // Trimmed after the pulse, since the children cannot be changed while the change is reported
+            trimPending = true;
+            Platform.runLater(this::trim);
+        }
+    }
+
+    /**
+     * Removes the oldest nodes from the console down to 90% of the line limit and archives their text.
+     */
+    private void trim() {
+        trimPending = false;
+        int limit = lineLimit;
+        if (limit <= 0 || lineCount <= limit) {
+            return;
+        }
+        ObservableList<Node> children = console.getChildren();
+        int target = limit - limit / 10;
+        int remaining = lineCount;
+        int removed = 0;
+        StringBuilder removedText = new StringBuilder(partialLine);
+        while (removed < children.size() - 1 && remaining > target) {
+            Node node = children.get(removed++);
+            remaining -= countLines(node);
+            appendText(node, removedText);
+        }
+        children.remove(0, removed);
+        archive(removedText);
+    }
+
+    private void archive(StringBuilder text) {
+        int lineStart = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (i > lineStart) {
+                    addArchivedLine(text.substring(lineStart, i));
+                }
+                lineStart = i + 1;
+            }
+        }
+        partialLine.setLength(0);
+        partialLine.append(text, lineStart, text.length());
+    }
+
+    private void addArchivedLine(String line) {
+        int limit = archiveLineLimit;
+        if (limit <= 0) {
+            return;
+        }
+        if (archive.length != limit) {
+            String[] resized = new String[limit];
+            int kept = Math.min(archiveSize, limit);
+            for (int i = 0; i < kept; i++) {
+                resized[i] = archive[(archiveStart + archiveSize - kept + i) % archive.length];
+            }
+            archive = resized;
+            archiveStart = 0;
+            archiveSize = kept;
+        }
+        if (archiveSize < archive.length) {
+            archive[(archiveStart + archiveSize++) % archive.length] = line;
+        } else {
+            // Full, the oldest line is overwritten
+            archive[archiveStart] = line;
+            archiveStart = (archiveStart + 1) % archive.length;
+        }
+    }
+
+    private static int countLines(Node node) {
+        if (node instanceof Text) {
+            String text = ((Text) node).getText();
+            int lines = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+            return lines;
+        }
+        if (node instanceof Parent) {
+            int lines = 0;
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                lines += countLines(child);
+            }
+            return lines;
+        }
+        return 0;
+    }
+
+    private static void appendText(Node node, StringBuilder text) {
+        if (node instanceof Text) {
+            text.append(((Text) node).getText());
+        } else if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                appendText(child, text);
+            }
+        }
+    }
+}
@@ -9,9 +9,11 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.ContextMenuEvent;
 import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
 import javafx.scene.text.TextFlow;
 import org.fxmisc.richtext.CodeArea;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -24,10 +26,15 @@ public class ContextMenuHelper {
     private static boolean isConsoleLocked = false;
 
     /**
-     * Creates a context menu for a console area with an option to clear the console.
+     * The maximum number of matching lines shown when searching the console output.
+     */
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    /**
+     * Creates a context menu for a console area with options to lock, search and clear the console.
      *
      * @param resultTextFlow the TextFlow component representing the console area
-     * @return a {@link ContextMenu} with a "Clear console" menu item
+     * @return a {@link ContextMenu} with "Lock", "Search Output..." and "Clear" menu items
      */
     private static ContextMenu createConsoleContextMenu(TextFlow resultTextFlow) {
         ContextMenu contextMenu = new ContextMenu();
@@ -36,7 +43,17 @@ public class ContextMenuHelper {
         ImageView lockIcon = createIcon("/app/resources/icons/lock_icon.png");
         ImageView unlockIcon = createIcon("/app/resources/icons/unlock_icon.png");
 
-        clearConsoleItem.setOnAction(event -> TextFlowHelper.clearTextFlow(resultTextFlow));
+        MenuItem searchConsoleItem = new MenuItem("Search Output...");
+
+        clearConsoleItem.setOnAction(event -> {
+            TextFlowHelper.clearTextFlow(resultTextFlow);
+            ConsoleBuffer buffer = ConsoleBuffer.of(resultTextFlow);
+            if (buffer != null) {
+                buffer.clearArchive();
+            }
+        });
+
+        searchConsoleItem.setOnAction(event -> searchConsoleOutput(resultTextFlow));
 
         lockConsoleItem.setOnAction(event -> {
             isConsoleLocked = !isConsoleLocked;
@@ -45,10 +62,43 @@ public class ContextMenuHelper {
         });
 
         lockConsoleItem.setGraphic(lockIcon);
-        contextMenu.getItems().addAll(lockConsoleItem, clearConsoleItem);
+        contextMenu.getItems().addAll(lockConsoleItem, searchConsoleItem, clearConsoleItem);
         return contextMenu;
     }
 
+    /**
+     * Asks for a text and shows the lines of the console output containing it, including the lines
+     * no longer shown in the console (see {@link ConsoleBuffer}).
+     *
+     * @param resultTextFlow the TextFlow component representing the console area
+     */
+    private static void searchConsoleOutput(TextFlow resultTextFlow) {
+        ConsoleBuffer buffer = ConsoleBuffer.of(resultTextFlow);
+        if (buffer == null) {
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Search Output");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Find:");
+        dialog.getDialogPane().getStylesheets().addAll(resultTextFlow.getScene().getStylesheets());
+        dialog.initOwner(resultTextFlow.getScene().getWindow());
+
+        dialog.showAndWait().filter(text -> !text.isEmpty()).ifPresent(text -> {
+            List<String> matches = buffer.search(text);
+            StringBuilder message = new StringBuilder("\n[SEARCH] " + matches.size() + " line(s) containing \"" + text + "\"");
+            int shown = Math.min(matches.size(), MAX_SEARCH_RESULTS);
+            if (shown < matches.size()) {
+                message.append(", showing the last ").append(shown);
+            }
+            message.append(matches.isEmpty() ? "." : ":");
+            for (String line : matches.subList(matches.size() - shown, matches.size())) {
+                message.append("\n  ").append(line);
+            }
+            TextFlowHelper.updateResultTextFlow(resultTextFlow, message.toString(), Color.BLACK, true);
+        });
+    }
+
     /**
      * Creates a context menu for a list view of tables with options to refresh or drop a table.
      *
@@ -80,7 +130,7 @@ public class ContextMenuHelper {
     }
 
     /**
-     * Creates a context menu for a code editor area with various editing options
+     * Creates a context menu for a code editor area with running the statement at the caret and various editing options
      * such as undo, redo, cut, copy, paste, select all, font size adjustments, and clearing the editor.
      *
      * @param editorArea      the {@link CodeArea} component representing the code editor
@@ -90,6 +140,12 @@ public class ContextMenuHelper {
     private static ContextMenu createEditorAreaContextMenu(CodeArea editorArea, TextFlow consoleTextFlow) {
         ContextMenu contextMenu = new ContextMenu();
 
+        MenuItem runStatementItem = new MenuItem("Run Statement at Caret");
+        runStatementItem.setOnAction(event -> {
+            MainWindowController controller = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
+            controller.handleRunStatementAtCaret();
+        });
+
         MenuItem undoItem = new MenuItem("Undo");
         undoItem.setOnAction(event -> EditorHelper.handleEditAction(editorArea, CodeArea::undo));
 
@@ -118,6 +174,8 @@ public class ContextMenuHelper {
         clearEditorAreaItem.setOnAction(event -> editorArea.clear());
 
         contextMenu.getItems().addAll(
+                runStatementItem,
+                new SeparatorMenuItem(),
                 undoItem, redoItem,
                 new SeparatorMenuItem(),
                 cutItem, copyItem, pasteItem,
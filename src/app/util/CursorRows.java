@@ -0,0 +1,237 @@
+package app.util;
+
+import cpp.JavaInterface;
+
+import java.io.Closeable;
+import java.util.*;
+
+/**
+ * Read-only list of the rows of a SELECT result kept in a native cursor (see {@link JavaInterface#executeQueryCursor}).
+ * <p>The list starts with the first page of rows returned with the result and grows a page at a time as more rows are
+ * loaded with {@link #fetchNextPage(int)} and {@link #setLoadedRows(int)} (see {@link ResultRowList}). Loaded pages are
+ * kept in a small LRU cache and fetched again from the cursor when they are needed after being evicted,
+ * so the memory used on the Java side does not depend on the number of rows.</p>
+ * <p>Several lists can read the same cursor (see {@link #share()}), e.g. the result grid and the
+ * {@link app.sql.ResultCache}; every list loads its rows independently and shares the cached pages.</p>
+ * The list is released by {@link #close()}, and the cursor once every list reading it is released.
+ */
+public class CursorRows extends AbstractList<String[]> implements RandomAccess, Closeable {
+
+    /**
+     * The maximum number of pages kept in memory.
+     */
+    private static final int CACHED_PAGES = 16;
+
+    private final Cursor cursor;
+
+    /**
+     * The number of rows loaded into the list, changed on the JavaFX application thread.
+     */
+    private int loadedRows;
+
+    private boolean closed = false;
+
+    /**
+     * The native cursor and the pages fetched from it, shared by all lists reading the cursor.
+     */
+    private static class Cursor {
+        private final JavaInterface databaseManager;
+        private final int id;
+        private final int totalRows;
+        private final int pageSize;
+
+        /**
+         * The number of lists reading the cursor that are not released.
+         */
+        private int references = 0;
+
+        /**
+         * The pages fetched from the cursor, the least recently used first.
+         */
+        private final LinkedHashMap<Integer, String[][]> pages = new LinkedHashMap<Integer, String[][]>(CACHED_PAGES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String[][]> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+
+        Cursor(JavaInterface databaseManager, int id, int totalRows, List<String[]> firstPage) {
+            this.databaseManager = databaseManager;
+            this.id = id;
+            this.totalRows = totalRows;
+            this.pageSize = Math.max(1, firstPage.size());
+            pages.put(0, firstPage.toArray(new String[0][]));
+        }
+
+        synchronized void acquire() {
+            if (references < 0) {
+                throw new IllegalStateException("The result cursor is closed");
+            }
+            references++;
+        }
+
+        /**
+         * Releases a list reading the cursor, closing the cursor after the last one.
+         */
+        synchronized void release() {
+            if (--references == 0) {
+                references = -1;
+                pages.clear();
+                databaseManager.closeCursor(id);
+            }
+        }
+
+        /**
+         * Returns the given page, fetching it from the cursor if it is not cached.
+         *
+         * @param page  the index of the page
+         * @param cache {@code true} to keep a fetched page in the cache
+         */
+        synchronized String[][] getPage(int page, boolean cache) {
+            String[][] rows = pages.get(page);
+            if (rows == null) {
+                if (references < 0) {
+                    throw new IllegalStateException("The result cursor is closed");
+                }
+                rows = databaseManager.fetchCursorRows(id, page * pageSize, pageSize);
+                if (cache) {
+                    pages.put(page, rows);
+                }
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Creates a new instance of {@link CursorRows} holding the first page of the rows.
+     *
+     * @param databaseManager the {@link JavaInterface} the rows are fetched from
+     * @param cursor          the native cursor holding the rows
+     * @param totalRows       the total number of rows
+     * @param firstPage       the first page of the rows, which also sets the page size
+     */
+    public CursorRows(JavaInterface databaseManager, int cursor, int totalRows, List<String[]> firstPage) {
+        this(new Cursor(databaseManager, cursor, totalRows, firstPage), firstPage.size());
+    }
+
+    private CursorRows(Cursor cursor, int loadedRows) {
+        cursor.acquire();
+        this.cursor = cursor;
+        this.loadedRows = loadedRows;
+    }
+
+    /**
+     * Creates another list reading the same cursor, starting with the first page of the rows.
+     * <p>The cursor stays open until both lists are released.</p>
+     *
+     * @return the new {@link CursorRows}
+     * @throws IllegalStateException if the cursor is closed
+     */
+    public CursorRows share() {
+        return new CursorRows(cursor, Math.min(cursor.totalRows, cursor.pageSize));
+    }
+
+    /**
+     * Returns the number of rows loaded so far.
+     *
+     * @return the number of loaded rows
+     */
+    @Override
+    public int size() {
+        return loadedRows;
+    }
+
+    /**
+     * Returns the loaded row at the given index, fetching its page from the cursor again if it was evicted.
+     *
+     * @param index the index of the row
+     * @return the values of the row
+     */
+    @Override
+    public String[] get(int index) {
+        if (index < 0 || index >= loadedRows) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + loadedRows);
+        }
+        return cursor.getPage(index / cursor.pageSize, true)[index % cursor.pageSize];
+    }
+
+    /**
+     * Returns the total number of rows of the result.
+     *
+     * @return the total number of rows
+     */
+    public int getTotalRows() {
+        return cursor.totalRows;
+    }
+
+    /**
+     * Returns the maximum number of rows of the cursor kept in memory, used to estimate the memory of a cached result.
+     *
+     * @return the number of rows of the cached pages
+     */
+    public int getMaxCachedRows() {
+        return Math.min(cursor.totalRows, CACHED_PAGES * cursor.pageSize);
+    }
+
+    /**
+     * Checks if all rows of the result are loaded.
+     *
+     * @return {@code true} if all rows are loaded, {@code false} otherwise
+     */
+    public boolean isComplete() {
+        return loadedRows >= cursor.totalRows;
+    }
+
+    /**
+     * Fetches the page following the given number of loaded rows from the cursor, without loading it into the list yet.
+     * <p>Called on a background thread; the rows are loaded afterwards on the JavaFX application thread with {@link #setLoadedRows(int)}.</p>
+     *
+     * @param loaded the number of rows loaded so far
+     * @return the number of rows that can be loaded after the page
+     */
+    public int fetchNextPage(int loaded) {
+        int page = loaded / cursor.pageSize;
+        cursor.getPage(page, true);
+        return Math.min(cursor.totalRows, (page + 1) * cursor.pageSize);
+    }
+
+    /**
+     * Fetches all rows of the result from the cursor into memory (e.g. to sort them).
+     * <p>Called on a background thread. The pages are not added to the page cache, so the cached pages of the
+     * other lists reading the cursor are kept.</p>
+     *
+     * @return the rows of the result
+     */
+    public List<String[]> fetchAll() {
+        List<String[]> rows = new ArrayList<>(cursor.totalRows);
+        for (int page = 0; rows.size() < cursor.totalRows; page++) {
+            String[][] pageRows = cursor.getPage(page, false);
+            if (pageRows.length == 0) {
+                break;
+            }
+            rows.addAll(Arrays.asList(pageRows).subList(0, Math.min(pageRows.length, cursor.totalRows - rows.size())));
+        }
+        return rows;
+    }
+
+    /**
+     * Sets the number of rows loaded into the list, after their pages were fetched with {@link #fetchNextPage(int)}.
+     *
+     * @param loadedRows the new number of loaded rows
+     */
+    public void setLoadedRows(int loadedRows) {
+        this.loadedRows = Math.min(cursor.totalRows, loadedRows);
+    }
+
+    /**
+     * Releases the list. The cursor is closed once all lists reading it are released,
+     * and its rows cannot be fetched afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            cursor.release();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package app.util;
 
-import javafx.application.Platform;
-import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextFlow;
 import org.fxmisc.richtext.CodeArea;
@@ -12,6 +10,7 @@ import org.fxmisc.richtext.model.StyleSpansBuilder;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -32,8 +31,8 @@ public class EditorHelper {
      */
     private static final Pattern KEYWORD_PATTERN = Pattern.compile(
             "(?<=\\s|^)(" + String.join("|", KEYWORD_COLORS.keySet()) + ")(?=\\s|$|;|\\()|" +
-                    "(AVG|SUM|COUNT|MAX|MIN)\\s*\\([^)]*\\)|" +
-                    "(\"[^\"]*\"|'[^']*')|" +
+                    "(AVG|SUM|COUNT|MAX|MIN)\\s*\\([^)\\n]*\\)|" +
+                    "(\"[^\"\\n]*\"|'[^'\\n]*')|" +
                     "(;)|" +
                     "(--.*$)", // Add this line to match comments
             Pattern.CASE_INSENSITIVE | Pattern.MULTILINE
@@ -50,43 +49,31 @@ public class EditorHelper {
     }
 
     /**
-     * Sets up the code editor area, adding line numbers and configuring behavior for key events
-     * to trigger syntax highlighting.
+     * Sets up the code editor area, adding line numbers and highlighting the syntax of the changed paragraphs
+     * as the text changes (see {@link SyntaxHighlighter}).
      *
      * @param editorArea the {@link CodeArea} component representing the code editor
      */
     public static void setupEditorArea(CodeArea editorArea) {
         editorArea.setParagraphGraphicFactory(LineNumberFactory.get(editorArea));
-
-        editorArea.textProperty().addListener((observable, oldValue, newValue) -> Platform.runLater(() -> {
-            int caretPosition = editorArea.getCaretPosition();
-            editorArea.setStyleSpans(0, computeHighlighting(editorArea));
-            editorArea.moveTo(caretPosition);
-        }));
-
-        editorArea.addEventFilter(javafx.scene.input.KeyEvent.KEY_PRESSED, event -> {
-            if (event.getCode() == KeyCode.SPACE || event.getCode() == KeyCode.ENTER) {
-                Platform.runLater(() -> {
-                    int caretPosition = editorArea.getCaretPosition();
-                    editorArea.setStyleSpans(0, computeHighlighting(editorArea));
-                    editorArea.moveTo(caretPosition);
-                });
-            }
-        });
+        SyntaxHighlighter.install(editorArea);
     }
 
     /**
-     * Computes and returns the highlighting styles for the code in the editor area.
+     * Computes the highlighting styles for the given text, which consists of whole paragraphs of the editor.
+     * <p>The text is not changed: the positions of the keywords that are not upper-case are added to the given list
+     * as {@code {start, end}} pairs, so they can be upper-cased in place. Strings and comments end with their line,
+     * so every paragraph is highlighted the same whether it is lexed alone or with the rest of the document.
+     * This method does not access the editor and can be called from any thread.</p>
      *
-     * @param editorArea The {@link CodeArea} representing the code editor.
+     * @param text                the text of the paragraphs to highlight
+     * @param keywordsToUpperCase the list the positions of the keywords to upper-case are added to
      * @return A {@link StyleSpans} object containing the styles for syntax highlighting.
      */
-    public static StyleSpans<Collection<String>> computeHighlighting(CodeArea editorArea) {
-        String text = editorArea.getText();
+    public static StyleSpans<Collection<String>> computeHighlighting(String text, List<int[]> keywordsToUpperCase) {
         Matcher matcher = KEYWORD_PATTERN.matcher(text);
         int lastKwEnd = 0;
         StyleSpansBuilder<Collection<String>> spansBuilder = new StyleSpansBuilder<>();
-        boolean textChanged = false;
 
         while (matcher.find()) {
             String matchedText = matcher.group();
@@ -109,9 +96,7 @@ public class EditorHelper {
                 if (styleClass != null) {
                     spansBuilder.add(Collections.singleton(styleClass), matcher.end() - matcher.start());
                     if (!matchedText.equals(upperCaseKeyword)) {
-                        // Replace the matched text with uppercase version only if it's different
-                        text = text.substring(0, matcher.start()) + upperCaseKeyword + text.substring(matcher.end());
-                        textChanged = true;
+                        keywordsToUpperCase.add(new int[]{matcher.start(), matcher.end()});
                     }
                 } else {
                     spansBuilder.add(Collections.emptyList(), matcher.end() - matcher.start());
@@ -122,11 +107,6 @@ public class EditorHelper {
         }
         spansBuilder.add(Collections.emptyList(), text.length() - lastKwEnd);
 
-        // Update the text in the editor with uppercase keywords only if changes were made
-        if (textChanged) {
-            editorArea.replaceText(text);
-        }
-
         return spansBuilder.create();
     }
 
@@ -0,0 +1,62 @@
+package app.util;
+
+import org.fxmisc.richtext.CodeArea;
+
+/**
+ * Read-only {@link CharSequence} view of the text of a {@link CodeArea}, reading the text in chunks as it is accessed.
+ * <p>{@link CodeArea#getText()} copies the whole document, while scanning a statement with this view only copies
+ * the chunks around the statement. A view must not be used after the text of the editor changes.</p>
+ */
+public class EditorText implements CharSequence {
+
+    /**
+     * The number of characters read from the editor at once.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    private final CodeArea editorArea;
+    private final int length;
+
+    /**
+     * The chunk read last and its position in the text.
+     */
+    private String chunk = "";
+    private int chunkStart = 0;
+
+    /**
+     * Creates a new view of the current text of the given editor.
+     *
+     * @param editorArea the {@link CodeArea} component representing the code editor
+     */
+    public EditorText(CodeArea editorArea) {
+        this.editorArea = editorArea;
+        this.length = editorArea.getLength();
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < chunkStart || index >= chunkStart + chunk.length()) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+            }
+            chunkStart = index;
+            chunk = editorArea.getText(index, Math.min(length, index + CHUNK_SIZE));
+        }
+        return chunk.charAt(index - chunkStart);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return editorArea.getText(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return editorArea.getText();
+    }
+}
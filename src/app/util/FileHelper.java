@@ -2,14 +2,15 @@ package app.util;
 
 import app.Window;
 import app.windows.mainwindow.MainWindowController;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import cpp.QueryResult;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextFlow;
 
@@ -71,20 +72,12 @@ public class FileHelper {
             return true;
         }
 
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(file));
-            int firstChar = reader.read();
-            if (firstChar == '!') {
+        try (ResultReader reader = ResultReader.open(file)) {
+            if (reader.isError()) {
                 // If the file starts with '!', read the rest of the file and output errors
-                StringBuilder contentBuilder = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    contentBuilder.append(line).append("\n");
-                }
-                String content = contentBuilder.toString();
+                String content = reader.readErrorText();
 
-                consoleTextFlow.getChildren().clear();
-                AnsiTextParser.parseAnsiText(content, consoleTextFlow);
+                AnsiTextParser.replaceWithAnsiText(content, consoleTextFlow);
                 return true;
             } else {
                 return false;
@@ -95,22 +88,35 @@ public class FileHelper {
         }
     }
 
+    /**
+     * Checks the result of an executed statement for errors and displays them in the console.
+     *
+     * @param result          The {@link QueryResult} to be checked.
+     * @param consoleTextFlow The console {@link TextFlow} where the error messages are displayed.
+     * @return {@code true} if the result contains errors, {@code false} otherwise.
+     */
+    public static boolean checkErrors(QueryResult result, TextFlow consoleTextFlow) {
+        if (result == null) {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\n[ERROR] Result is null", Color.RED, true);
+            return true;
+        }
+
+        if (result.isError()) {
+            AnsiTextParser.replaceWithAnsiText(result.getErrorText(), consoleTextFlow);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Checks if the output file contains tables.
-     * If the file contains more than one line, and it is not '!', it is considered to contain tables.
      *
      * @param outputFilePath The path to the output file.
-     * @return {@code true} if the file contains tables, {@code false} otherwise.
+     * @return {@code true} if the file contains at least one table, {@code false} otherwise.
      */
     public static boolean hasTablesInOutput(String outputFilePath) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(outputFilePath))) {
-            int lineCount = 0;
-            while (reader.readLine() != null) {
-                lineCount++;
-                if (lineCount > 1) {
-                    return true;
-                }
-            }
+        try (ResultReader reader = ResultReader.open(new File(outputFilePath))) {
+            return !reader.isError() && reader.nextTable();
         } catch (IOException e) {
             LOGGER.severe("[ERROR] Error reading file: " + e.getMessage());
         }
@@ -119,8 +125,7 @@ public class FileHelper {
 
     /**
      * Loads tables from the specified file and creates tabs for each table in the main window.
-     * If the file is a SELECT query, the first line is skipped.
-     * If the file contains multiple tables, each table is separated by a line starting with a tab character.
+     * The file is read once with {@link ResultReader}; errors in it are displayed in the console.
      * The tables are created as {@link TableView} objects and added to the result tab pane.
      *
      * @param fileName      The path to the file containing the tables.
@@ -128,73 +133,106 @@ public class FileHelper {
      * @return {@code true} if tabs were created, {@code false} otherwise.
      */
     public static boolean loadTablesFromFile(String fileName, boolean isSelectQuery) {
+        QueryResult result = readQueryResult(fileName);
+        if (result == null) {
+            return false;
+        }
+        return loadTablesFromResult(result, isSelectQuery);
+    }
+
+    /**
+     * Creates tabs in the main window for the tables of the given result.
+     * If the result is not from a SELECT query, all tabs except the console are removed first and
+     * only the tables listed by SHOW TABLES are shown.
+     * The tables are created as {@link TableView} objects and added to the result tab pane.
+     *
+     * @param result        The {@link QueryResult} containing the tables.
+     * @param isSelectQuery {@code true} if the result was created by a SELECT query, {@code false} otherwise.
+     * @return {@code true} if tabs were created, {@code false} otherwise.
+     */
+    public static boolean loadTablesFromResult(QueryResult result, boolean isSelectQuery) {
         MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
-        File file = openFile(fileName);
 
-        if (file == null || checkErrors(file, mainWindowController.consoleTextFlow)) {
+        if (checkErrors(result, mainWindowController.consoleTextFlow)) {
             return false;
         }
 
+        // Remove all tabs except the console tab only if it's not a SELECT query
+        if (!isSelectQuery) {
+            while (mainWindowController.resultTabPane.getTabs().size() > 1) {
+                mainWindowController.resultTabPane.getTabs().remove(1);
+            }
+
+            // Only SHOW TABLES lists tables for non-SELECT queries
+            if (result.getDatabaseName() == null) {
+                return false;
+            }
+        }
+
         boolean tabsCreated = false;
+        for (QueryResult.Table table : result.getTables()) {
+            createTableTab(mainWindowController, table.getName(), table.getHeaders(), table.getRows(), isSelectQuery);
+            tabsCreated = true;
+        }
+        return tabsCreated;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            String currentTableName = null;
-            List<String> headers = null;
-            List<List<String>> data = new ArrayList<>();
+    /**
+     * Reads the result of an executed statement from the specified output file.
+     * <p>Used when the results are transported through the output file instead of memory.</p>
+     *
+     * @param fileName The path to the output file.
+     * @return The {@link QueryResult} read from the file, or {@code null} if the file could not be read.
+     */
+    public static QueryResult readQueryResult(String fileName) {
+        return readQueryResult(fileName, -1);
+    }
 
-            // Skip first line only if it's not a SELECT query
-            if (!isSelectQuery) {
-                br.readLine();
-            }
+    /**
+     * Reads the result of an executed statement from the specified output file, keeping at most the given number of rows per table.
+     * <p>Every table of the output is read (e.g. all tables of SHOW TABLES), but the rows after the limit are skipped
+     * without being split into values.</p>
+     *
+     * @param fileName The path to the output file.
+     * @param maxRows  The maximum number of rows per table, or -1 for all rows.
+     * @return The {@link QueryResult} read from the file, or {@code null} if the file could not be read.
+     */
+    public static QueryResult readQueryResult(String fileName, int maxRows) {
+        File file = openFile(fileName);
+        return file == null ? null : readQueryResult(file, maxRows);
+    }
 
-            // Remove all tabs except the console tab only if it's not a SELECT query
-            if (!isSelectQuery) {
-                while (mainWindowController.resultTabPane.getTabs().size() > 1) {
-                    mainWindowController.resultTabPane.getTabs().remove(1);
-                }
+    /**
+     * Reads the result of an executed statement from the specified output file using {@link ResultReader}.
+     *
+     * @param file    The output file.
+     * @param maxRows The maximum number of rows per table, or -1 for all rows.
+     * @return The {@link QueryResult} read from the file, or {@code null} if the file could not be read.
+     */
+    private static QueryResult readQueryResult(File file, int maxRows) {
+        try (ResultReader reader = ResultReader.open(file)) {
+            if (reader.isError()) {
+                return new QueryResult(true, reader.readErrorText(), null);
             }
 
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith("\t")) {
-                    // New table
-                    if (currentTableName != null) {
-                        assert headers != null;
-                        createTableTab(mainWindowController, currentTableName, headers, data, isSelectQuery);
-                        tabsCreated = true;
-                    }
-                    currentTableName = line.trim();
-                    headers = null;
-                    data.clear();
-                } else if (line.equals("#")) {
-                    // End of table
-                    assert headers != null;
-                    createTableTab(mainWindowController, currentTableName, headers, data, isSelectQuery);
-                    tabsCreated = true;
-                    currentTableName = null;
-                } else {
-                    // Table data
-                    List<String> rowData = Arrays.asList(line.split("~"));
-                    if (headers == null) {
-                        headers = rowData;
-                    } else {
-                        data.add(rowData);
-                    }
+            List<QueryResult.Table> tables = new ArrayList<>();
+            while (reader.nextTable()) {
+                List<String[]> rows = new ArrayList<>();
+                Iterator<String[]> iterator = reader.rows();
+                while ((maxRows < 0 || rows.size() < maxRows) && iterator.hasNext()) {
+                    rows.add(iterator.next());
                 }
+                // The remaining rows of the table are skipped by nextTable without being split
+                tables.add(new QueryResult.Table(reader.getTableName(), reader.getHeaders(), rows));
             }
 
-            // In case the last table is not followed by "#"
-            if (currentTableName != null) {
-                assert headers != null;
-                createTableTab(mainWindowController, currentTableName, headers, data, isSelectQuery);
-                tabsCreated = true;
-            }
-        } catch (IOException e) {
-            TextFlowHelper.updateResultTextFlow(mainWindowController.consoleTextFlow, "\n[ERROR] Error reading file: " + e.getMessage(), Color.RED, true);
-            return false;
+            QueryResult result = new QueryResult(false, null, reader.getDatabaseName());
+            tables.forEach(result::addTable);
+            return result;
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.severe("[ERROR] Error reading result file: " + e.getMessage());
+            return null;
         }
-
-        return tabsCreated;
     }
 
     /**
@@ -211,12 +249,9 @@ public class FileHelper {
             return tableNames;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith("\t")) {
-                    tableNames.add(line.trim());
-                }
+        try (ResultReader reader = ResultReader.open(file)) {
+            while (!reader.isError() && reader.nextTable()) {
+                tableNames.add(reader.getTableName().trim());
             }
         } catch (IOException e) {
             LOGGER.severe("[ERROR] Error reading table names: " + e.getMessage());
@@ -224,6 +259,20 @@ public class FileHelper {
         return tableNames;
     }
 
+    /**
+     * Reads the table names from the result of an executed statement.
+     *
+     * @param result The {@link QueryResult} containing the tables.
+     * @return A {@link List} of table names contained in the result.
+     */
+    public static List<String> readTableNames(QueryResult result) {
+        List<String> tableNames = new ArrayList<>();
+        for (QueryResult.Table table : result.getTables()) {
+            tableNames.add(table.getName());
+        }
+        return tableNames;
+    }
+
     /**
      * Reads the table column names from the file and returns them as a map of table names to column lists.
      * Each table in the file starts with a line beginning with a tab character, followed by column names.
@@ -239,24 +288,9 @@ public class FileHelper {
             return tableColumns;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            String currentTableName = null;
-
-            while ((line = br.readLine()) != null) {
-                if(line.equalsIgnoreCase("database name")) {
-                    br.readLine();
-                }
-                if (line.startsWith("\t")) {
-                    currentTableName = line.trim();
-                } else if (!line.equals("#") && currentTableName != null) {
-                    List<String> columns = Arrays.asList(line.split("~"));
-                    tableColumns.put(currentTableName, columns);
-
-                    while ((line = br.readLine()) != null && !line.equals("#")) {
-                        // Skip data rows
-                    }
-                }
+        try (ResultReader reader = ResultReader.open(file)) {
+            while (!reader.isError() && reader.nextTable()) {
+                tableColumns.put(reader.getTableName().trim(), reader.getHeaders());
             }
         } catch (IOException e) {
             LOGGER.severe("[ERROR] Error reading table column names: " + e.getMessage());
@@ -267,20 +301,26 @@ public class FileHelper {
     /**
      * Creates a new table tab in the main window with the specified table name, headers and data.
      * The table is created as a {@link TableView} object and added to the result {@link TabPane}.
+     * <p>The rows are shown through a {@link ResultRowList} without being copied, and the cell values are only
+     * created for the visible cells. Rows loaded from a native cursor ({@link CursorRows}) are fetched as the grid is scrolled,
+     * with the number of loaded rows shown below the grid. The file of {@link PagedRows} and the cursor of {@link CursorRows}
+     * are released when the tab is removed.</p>
      *
      * @param mainWindowController The {@link MainWindowController} instance of the main window.
      * @param tableName            The name of the table.
      * @param headers              The headers of the table.
-     * @param data                 The data of the table.
+     * @param data                 The rows of the table.
      * @param isSelectQuery        {@code true} if the table was created by a SELECT query, {@code false} otherwise.
      */
-    private static void createTableTab(MainWindowController mainWindowController, String tableName, List<String> headers, List<List<String>> data, boolean isSelectQuery) {
-        TableView<ObservableList<String>> tableView = new TableView<>();
+    private static void createTableTab(MainWindowController mainWindowController, String tableName, List<String> headers, List<String[]> data, boolean isSelectQuery) {
+        TableView<String[]> tableView = new TableView<>();
+        ResultRowList rows = new ResultRowList(data);
 
         for (int i = 0; i < headers.size(); i++) {
             final int colIndex = i;
-            TableColumn<ObservableList<String>, String> column = new TableColumn<>(headers.get(i));
-            column.setCellValueFactory(param -> new SimpleStringProperty(param.getValue().get(colIndex)));
+            TableColumn<String[], String> column = new TableColumn<>(headers.get(i));
+            column.setCellValueFactory(param -> new ReadOnlyStringWrapper(colIndex < param.getValue().length ? param.getValue()[colIndex] : ""));
+            column.setSortable(rows.isSortable());
 
             if(i == 0) {
                 column.getStyleClass().add("first-column");
@@ -289,11 +329,8 @@ public class FileHelper {
             tableView.getColumns().add(column);
         }
 
-        ObservableList<ObservableList<String>> observableData = FXCollections.observableArrayList();
-        for (List<String> row : data) {
-            observableData.add(FXCollections.observableArrayList(row));
-        }
-        tableView.setItems(observableData);
+        tableView.setItems(rows);
+        tableView.setSortPolicy(table -> rows.sortRows(table.getSortOrder().isEmpty() ? null : table.getComparator()));
 
         Image image;
         if (isSelectQuery) {
@@ -312,7 +349,31 @@ public class FileHelper {
         Tab tab = new Tab();
         HBox tabBox = new HBox(imageView, tabLabel);
         tab.setGraphic(tabBox);
-        tab.setContent(tableView);
+        if (data instanceof CursorRows) {
+            CursorRows cursorRows = (CursorRows) data;
+            Label rowCountLabel = new Label();
+            rowCountLabel.getStyleClass().add("result-row-count-label");
+            Runnable updateRowCount = () -> rowCountLabel.setText(cursorRows.isComplete()
+                    ? String.format("%,d rows", cursorRows.getTotalRows())
+                    : String.format("%,d / %,d rows loaded", cursorRows.size(), cursorRows.getTotalRows()));
+            updateRowCount.run();
+            rows.setOnRowsLoaded(updateRowCount);
+            VBox.setVgrow(tableView, Priority.ALWAYS);
+            tab.setContent(new VBox(tableView, rowCountLabel));
+        } else {
+            tab.setContent(tableView);
+        }
+        if (data instanceof Closeable) {
+            tab.tabPaneProperty().addListener((observable, oldPane, newPane) -> {
+                if (newPane == null) {
+                    try {
+                        ((Closeable) data).close();
+                    } catch (IOException e) {
+                        LOGGER.severe("[ERROR] Error releasing result rows: " + e.getMessage());
+                    }
+                }
+            });
+        }
 
         ContextMenu tabContextMenu = ContextMenuHelper.createTabContextMenu(mainWindowController.resultTabPane, tab);
         tab.setContextMenu(tabContextMenu);
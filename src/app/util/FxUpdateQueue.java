@@ -0,0 +1,68 @@
+package app.util;
+
+import javafx.application.Platform;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Utility class for handing UI updates from background threads to the JavaFX application thread.
+ * <p>Updates posted from a background thread are queued and executed in batches: a single
+ * {@link Platform#runLater(Runnable)} call drains every update queued until the JavaFX thread gets to it,
+ * so a fast producer does not flood the JavaFX event queue with one call per update.</p>
+ * Updates are always executed in the order they were posted.
+ */
+public class FxUpdateQueue {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(FxUpdateQueue.class.getName());
+
+    /**
+     * The updates waiting to be executed on the JavaFX application thread.
+     */
+    private static final Queue<Runnable> pendingUpdates = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Flag indicating whether a drain of the pending updates is already scheduled.
+     */
+    private static final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    /**
+     * Runs the given update on the JavaFX application thread.
+     * <p>If called from the JavaFX application thread, the pending updates are executed first and then the given update.
+     * Otherwise, the update is queued and executed with the next batch.</p>
+     *
+     * @param update the UI update to run
+     */
+    public static void runOnFxThread(Runnable update) {
+        if (Platform.isFxApplicationThread()) {
+            drain();
+            update.run();
+            return;
+        }
+
+        pendingUpdates.add(update);
+        if (drainScheduled.compareAndSet(false, true)) {
+            Platform.runLater(FxUpdateQueue::drain);
+        }
+    }
+
+    /**
+     * Executes all pending updates. Must be called on the JavaFX application thread.
+     */
+    private static void drain() {
+        drainScheduled.set(false);
+        Runnable update;
+        while ((update = pendingUpdates.poll()) != null) {
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                LOGGER.severe("[ERROR] UI update failed: " + e.getMessage());
+            }
+        }
+    }
+}
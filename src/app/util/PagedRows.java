@@ -0,0 +1,266 @@
+package app.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Read-only list of result rows spooled to a temporary file and read back in pages as they are accessed.
+ * <p>The rows are written once in a compact binary format (the number of values followed by length-prefixed UTF-8 values),
+ * and only the offset of every page of {@link #PAGE_SIZE} rows is kept in memory. Accessed pages are kept in a small
+ * LRU cache, and the neighbouring page is read ahead when a row near the edge of a page is accessed, so scrolling
+ * a result grid reads every page once. The memory used therefore does not depend on the number of rows.</p>
+ * The file is deleted by {@link #close()}, or when the application exits.
+ */
+public class PagedRows extends AbstractList<String[]> implements RandomAccess, Closeable {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PagedRows.class.getName());
+
+    /**
+     * The number of rows in a page.
+     */
+    private static final int PAGE_SIZE = 256;
+
+    /**
+     * The maximum number of pages kept in memory.
+     */
+    private static final int CACHED_PAGES = 16;
+
+    /**
+     * The size of the buffer the rows are written through.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of rows from the edge of a page at which the neighbouring page is read ahead.
+     */
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 4;
+
+    private final File file;
+    private final RandomAccessFile access;
+    private final int size;
+
+    /**
+     * The offset of every page in the file, followed by the length of the file.
+     */
+    private final long[] pageOffsets;
+
+    /**
+     * The pages read from the file, the least recently used first.
+     */
+    private final LinkedHashMap<Integer, String[][]> pages = new LinkedHashMap<Integer, String[][]>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[][]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    private PagedRows(File file, int size, long[] pageOffsets) throws IOException {
+        this.file = file;
+        this.access = new RandomAccessFile(file, "r");
+        this.size = size;
+        this.pageOffsets = pageOffsets;
+    }
+
+    /**
+     * Writes the given rows to a new temporary file and returns a list reading them back.
+     *
+     * @param rows the rows to spool
+     * @return the {@link PagedRows} holding the rows
+     * @throws IOException if the file cannot be created or written
+     */
+    public static PagedRows spool(List<String[]> rows) throws IOException {
+        Writer writer = new Writer();
+        try {
+            for (String[] row : rows) {
+                writer.write(row);
+            }
+        } catch (IOException e) {
+            writer.abort();
+            throw e;
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Writes rows one at a time to a new temporary file, e.g. rows produced by a merge that are never all in memory.
+     * <p>{@link #finish()} returns the list reading the rows back, and {@link #abort()} deletes the file.</p>
+     */
+    public static class Writer {
+        private final File file;
+        private final DataOutputStream output;
+
+        /**
+         * The offset of every page written so far.
+         */
+        private long[] pageOffsets = new long[16];
+        private long offset = 0;
+        private int size = 0;
+
+        /**
+         * Creates the temporary file the rows are written to.
+         *
+         * @throws IOException if the file cannot be created
+         */
+        public Writer() throws IOException {
+            file = Files.createTempFile("sqleditor-result-", ".tmp").toFile();
+            file.deleteOnExit();
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        }
+
+        /**
+         * Appends a row to the file.
+         *
+         * @param row the values of the row
+         * @throws IOException if the row cannot be written
+         */
+        public void write(String[] row) throws IOException {
+            if (size % PAGE_SIZE == 0) {
+                int page = size / PAGE_SIZE;
+                if (page + 1 >= pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, pageOffsets.length * 2);
+                }
+                pageOffsets[page] = offset;
+            }
+            output.writeInt(row.length);
+            offset += 4;
+            for (String value : row) {
+                if (value == null) {
+                    output.writeInt(-1);
+                    offset += 4;
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+                offset += 4 + bytes.length;
+            }
+            size++;
+        }
+
+        /**
+         * Closes the file and returns the list reading the written rows back.
+         *
+         * @return the {@link PagedRows} holding the rows
+         * @throws IOException if the file cannot be written or opened
+         */
+        public PagedRows finish() throws IOException {
+            try {
+                output.close();
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            int pageCount = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+            long[] offsets = Arrays.copyOf(pageOffsets, pageCount + 1);
+            offsets[pageCount] = offset;
+            LOGGER.info("Spooled " + size + " result rows to " + file.getName() + " (" + offset + " bytes)");
+            try {
+                return new PagedRows(file, size, offsets);
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        /**
+         * Closes and deletes the file after a failure.
+         */
+        public void abort() {
+            try {
+                output.close();
+            } catch (IOException e) {
+                // The file is deleted anyway
+            }
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the row at the given index, reading its page from the file if it is not in memory.
+     *
+     * @param index the index of the row
+     * @return the values of the row
+     * @throws UncheckedIOException if the page cannot be read
+     */
+    @Override
+    public synchronized String[] get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        int page = index / PAGE_SIZE;
+        int offsetInPage = index % PAGE_SIZE;
+        String[] row = getPage(page)[offsetInPage];
+
+        // Read the neighbouring page ahead, so scrolling past the edge of the page does not wait for the file
+        if (offsetInPage >= PAGE_SIZE - PREFETCH_DISTANCE && page + 1 < pageOffsets.length - 1) {
+            getPage(page + 1);
+        } else if (offsetInPage < PREFETCH_DISTANCE && page > 0) {
+            getPage(page - 1);
+        }
+        return row;
+    }
+
+    /**
+     * Deletes the file holding the rows. The rows cannot be accessed afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        pages.clear();
+        try {
+            access.close();
+        } catch (IOException e) {
+            // The file is deleted anyway
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private String[][] getPage(int page) {
+        String[][] rows = pages.get(page);
+        if (rows == null) {
+            rows = readPage(page);
+            pages.put(page, rows);
+        }
+        return rows;
+    }
+
+    private String[][] readPage(int page) {
+        byte[] bytes = new byte[(int) (pageOffsets[page + 1] - pageOffsets[page])];
+        String[][] rows = new String[Math.min(PAGE_SIZE, size - page * PAGE_SIZE)][];
+        try {
+            access.seek(pageOffsets[page]);
+            access.readFully(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read result rows from " + file.getName(), e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < rows.length; i++) {
+            String[] row = new String[buffer.getInt()];
+            for (int j = 0; j < row.length; j++) {
+                int length = buffer.getInt();
+                if (length >= 0) {
+                    row[j] = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+                    buffer.position(buffer.position() + length);
+                }
+            }
+            rows[i] = row;
+        }
+        return rows;
+    }
+}
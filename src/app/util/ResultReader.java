@@ -0,0 +1,472 @@
+package app.util;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Streaming reader for the result format written by the native code to the output file.
+ * <p>The format is parsed in a single pass, directly from a character buffer:</p>
+ * <ul>
+ *     <li>an error result starts with a line containing '!', followed by the (ANSI formatted) error text,</li>
+ *     <li>SHOW TABLES starts with a "Database name: " line,</li>
+ *     <li>each table starts with a line beginning with a tab character followed by the table name,
+ *     then a line with the column names and one line per row,</li>
+ *     <li>every value in the column and row lines is terminated by '~',</li>
+ *     <li>tables may be separated by lines containing '#'.</li>
+ * </ul>
+ * Tables are visited with {@link #nextTable()} and their rows are streamed with {@link #rows()},
+ * so the output never has to be held in memory as a list of lines.
+ */
+public class ResultReader implements Closeable {
+
+    /**
+     * The prefix of the line containing the database name in the output of SHOW TABLES.
+     */
+    public static final String DATABASE_NAME_PREFIX = "Database name: ";
+
+    /**
+     * The value terminator in the column and row lines.
+     */
+    private static final char VALUE_TERMINATOR = '~';
+
+    /**
+     * The size of the character buffer.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Marker for the end of the input in {@link #peek(int)}.
+     */
+    private static final int EOF = -1;
+
+    /**
+     * The underlying reader.
+     */
+    private final Reader reader;
+
+    /**
+     * The character buffer and the range of characters in it that have not been consumed yet.
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * Builder for values and lines that span buffer refills.
+     */
+    private final StringBuilder valueBuilder = new StringBuilder();
+
+    /**
+     * The values of the row being read, reused for every row.
+     */
+    private final List<String> rowValues = new ArrayList<>();
+
+    /**
+     * The database name, if the output contains one.
+     */
+    private String databaseName = null;
+
+    /**
+     * The name of the current table, or {@code null} before the first table.
+     */
+    private String tableName = null;
+
+    /**
+     * The column names of the current table.
+     */
+    private List<String> headers = Collections.emptyList();
+
+    /**
+     * Flag indicating whether the rows of the current table have not all been consumed.
+     */
+    private boolean inTable = false;
+
+    /**
+     * Creates a new {@link ResultReader} reading from the given reader.
+     *
+     * @param reader the reader to read the result from
+     */
+    public ResultReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Creates a new {@link ResultReader} reading from the given file.
+     *
+     * @param file the output file
+     * @return the {@link ResultReader} for the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static ResultReader open(File file) throws IOException {
+        return new ResultReader(new FileReader(file));
+    }
+
+    /**
+     * Checks if the result is an error (the first line starts with '!').
+     * Must be called before reading any table.
+     *
+     * @return {@code true} if the result is an error, {@code false} otherwise
+     * @throws IOException if the result cannot be read
+     */
+    public boolean isError() throws IOException {
+        return tableName == null && peek(0) == '!';
+    }
+
+    /**
+     * Reads the error text of an error result: every line after the first one, each terminated by a newline.
+     *
+     * @return the error text
+     * @throws IOException if the result cannot be read
+     */
+    public String readErrorText() throws IOException {
+        skipLine();
+        StringBuilder errorText = new StringBuilder();
+        while (peek(0) != EOF) {
+            errorText.append(readLine()).append("\n");
+        }
+        return errorText.toString();
+    }
+
+    /**
+     * Advances to the next table, skipping the remaining rows of the current one.
+     *
+     * @return {@code true} if there is a next table, {@code false} at the end of the result
+     * @throws IOException if the result cannot be read
+     */
+    public boolean nextTable() throws IOException {
+        while (hasNextRow()) {
+            skipLine();
+        }
+
+        while (true) {
+            int c = peek(0);
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '\t') {
+                position++;
+                tableName = readLine();
+                headers = isRowLine() ? Arrays.asList(readRow()) : new ArrayList<>();
+                inTable = true;
+                return true;
+            }
+
+            String line = readLine();
+            if (line.startsWith(DATABASE_NAME_PREFIX)) {
+                databaseName = line.substring(DATABASE_NAME_PREFIX.length());
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the current table.
+     *
+     * @return the name of the current table
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the column names of the current table.
+     *
+     * @return the {@link List} of column names
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the database name written by SHOW TABLES.
+     *
+     * @return the database name, or {@code null} if it has not been read
+     */
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * Returns an iterator over the remaining rows of the current table.
+     * <p>Rows are read lazily; the iterator is invalidated by {@link #nextTable()}.</p>
+     *
+     * @return the {@link Iterator} of rows, each row holding one value per column
+     */
+    public Iterator<String[]> rows() {
+        return new Iterator<String[]>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return hasNextRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return readRow();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if the reader cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Splits a column or row line into values. Every value in the line is terminated by '~';
+     * a missing terminator after the last value is tolerated.
+     *
+     * @param line the line to split
+     * @return the values of the line
+     */
+    public static String[] splitRow(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == VALUE_TERMINATOR) {
+                count++;
+            }
+        }
+        boolean terminated = line.isEmpty() || line.charAt(line.length() - 1) == VALUE_TERMINATOR;
+        String[] values = new String[terminated ? count : count + 1];
+
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == VALUE_TERMINATOR) {
+                values[index++] = line.substring(start, i);
+                start = i + 1;
+            }
+        }
+        if (!terminated) {
+            values[index] = line.substring(start);
+        }
+        return values;
+    }
+
+    /**
+     * Checks if the current table has more rows. Consumes the '#' line ending the table.
+     *
+     * @return {@code true} if a row follows, {@code false} otherwise
+     * @throws IOException if the result cannot be read
+     */
+    private boolean hasNextRow() throws IOException {
+        if (!inTable) {
+            return false;
+        }
+        if (isRowLine()) {
+            return true;
+        }
+        if (peek(0) == '#') {
+            skipLine();
+        }
+        inTable = false;
+        return false;
+    }
+
+    /**
+     * Checks if the next line is a row of the current table (not the end of the input,
+     * the start of the next table or the '#' delimiter).
+     *
+     * @return {@code true} if the next line is a row, {@code false} otherwise
+     * @throws IOException if the result cannot be read
+     */
+    private boolean isRowLine() throws IOException {
+        int c = peek(0);
+        if (c == EOF || c == '\t') {
+            return false;
+        }
+        return c != '#' || !isLineEnd(peek(1));
+    }
+
+    /**
+     * Reads a column or row line, splitting it into values while scanning the buffer.
+     *
+     * @return the values of the line
+     * @throws IOException if the result cannot be read
+     */
+    private String[] readRow() throws IOException {
+        rowValues.clear();
+        valueBuilder.setLength(0);
+        boolean pendingValue = false;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == VALUE_TERMINATOR) {
+                    rowValues.add(takeValue(start, position));
+                    position++;
+                    start = position;
+                    pendingValue = false;
+                } else if (c == '\n' || c == '\r') {
+                    if (position > start) {
+                        valueBuilder.append(buffer, start, position - start);
+                        pendingValue = true;
+                    }
+                    consumeLineEnd();
+                    return finishRow(pendingValue);
+                } else {
+                    position++;
+                }
+            }
+            if (position > start) {
+                valueBuilder.append(buffer, start, position - start);
+                pendingValue = true;
+            }
+        }
+        return finishRow(pendingValue);
+    }
+
+    /**
+     * Returns the value ending at the given buffer position, including any part of it collected before a buffer refill.
+     *
+     * @param start the start of the value in the buffer
+     * @param end   the end of the value in the buffer (exclusive)
+     * @return the value
+     */
+    private String takeValue(int start, int end) {
+        if (valueBuilder.length() == 0) {
+            return new String(buffer, start, end - start);
+        }
+        valueBuilder.append(buffer, start, end - start);
+        String value = valueBuilder.toString();
+        valueBuilder.setLength(0);
+        return value;
+    }
+
+    /**
+     * Completes the row being read, adding the last value if it was not terminated by '~'.
+     *
+     * @param pendingValue {@code true} if characters were read after the last '~'
+     * @return the values of the row
+     */
+    private String[] finishRow(boolean pendingValue) {
+        if (pendingValue) {
+            rowValues.add(valueBuilder.toString());
+            valueBuilder.setLength(0);
+        }
+        return rowValues.toArray(new String[0]);
+    }
+
+    /**
+     * Reads the rest of the current line.
+     *
+     * @return the line without the line terminator
+     * @throws IOException if the result cannot be read
+     */
+    private String readLine() throws IOException {
+        valueBuilder.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            int start = position;
+            while (position < limit && !isLineEnd(buffer[position])) {
+                position++;
+            }
+            valueBuilder.append(buffer, start, position - start);
+            if (position < limit) {
+                consumeLineEnd();
+                break;
+            }
+        }
+        String line = valueBuilder.toString();
+        valueBuilder.setLength(0);
+        return line;
+    }
+
+    /**
+     * Skips the rest of the current line without creating any strings.
+     *
+     * @throws IOException if the result cannot be read
+     */
+    private void skipLine() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return;
+            }
+            while (position < limit) {
+                if (isLineEnd(buffer[position])) {
+                    consumeLineEnd();
+                    return;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Consumes the line terminator at the current position ("\n", "\r" or "\r\n").
+     *
+     * @throws IOException if the result cannot be read
+     */
+    private void consumeLineEnd() throws IOException {
+        char c = buffer[position++];
+        if (c == '\r' && peek(0) == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * Returns the character at the given offset from the current position without consuming it.
+     *
+     * @param offset the offset from the current position
+     * @return the character, or {@link #EOF} if the input ends before it
+     * @throws IOException if the result cannot be read
+     */
+    private int peek(int offset) throws IOException {
+        while (position + offset >= limit) {
+            if (!fill()) {
+                return EOF;
+            }
+        }
+        return buffer[position + offset];
+    }
+
+    /**
+     * Reads more characters into the buffer, moving the unconsumed characters to its start.
+     *
+     * @return {@code true} if characters were read, {@code false} at the end of the input
+     * @throws IOException if the result cannot be read
+     */
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Checks if the given character terminates a line.
+     *
+     * @param c the character to check
+     * @return {@code true} if the character is a line terminator or {@link #EOF}, {@code false} otherwise
+     */
+    private static boolean isLineEnd(int c) {
+        return c == '\n' || c == '\r' || c == EOF;
+    }
+}
@@ -0,0 +1,227 @@
+package app.util;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Read-only observable view of the rows of a result, used as the items of a result grid.
+ * <p>The rows are not copied: the {@link javafx.scene.control.TableView} only asks for the rows in its viewport,
+ * so only those rows are read from the underlying list (e.g. paged from disk by {@link PagedRows}).
+ * Sorting by the columns of the grid reorders an index over the rows instead of the rows themselves.</p>
+ * If the rows are {@link CursorRows}, the next page is fetched on a background thread when a row near the end of
+ * the loaded rows is shown, and the rows are added to the list when the page arrives. Sorting such rows first fetches
+ * all of them into memory on the background thread, and the rows are sorted when they arrive.
+ */
+public class ResultRowList extends ObservableListBase<String[]> {
+
+    /**
+     * Logger for debugging and error messages.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ResultRowList.class.getName());
+
+    /**
+     * The number of rows from the end of the loaded rows at which the next page is fetched.
+     */
+    private static final int FETCH_DISTANCE = 100;
+
+    /**
+     * The thread fetching the pages of {@link CursorRows}, shared by all result grids.
+     */
+    private static final Executor FETCHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The rows of the result, replaced by all rows in memory when rows loaded from a cursor are sorted.
+     */
+    private List<String[]> rows;
+
+    /**
+     * Flag indicating whether a page is being fetched.
+     */
+    private boolean fetching = false;
+
+    /**
+     * Flag indicating whether all rows of a cursor are being fetched to be sorted.
+     */
+    private boolean fetchingAll = false;
+
+    /**
+     * The comparator to sort the rows with once all rows of the cursor are fetched, or {@code null} for the original order.
+     */
+    private Comparator<String[]> pendingComparator = null;
+
+    /**
+     * Called on the JavaFX application thread after rows were loaded.
+     */
+    private Runnable onRowsLoaded = () -> {
+    };
+
+    /**
+     * The indices of the rows in display order, or {@code null} if the rows are displayed in their original order.
+     */
+    private int[] order = null;
+
+    /**
+     * Creates a new view of the given rows.
+     *
+     * @param rows the rows of the result
+     */
+    public ResultRowList(List<String[]> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public String[] get(int index) {
+        if (index >= size() - FETCH_DISTANCE && rows instanceof CursorRows) {
+            fetchNextPage((CursorRows) rows);
+        }
+        return rows.get(order != null ? order[index] : index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Sets the action called on the JavaFX application thread after more rows were loaded (e.g. to show the progress).
+     *
+     * @param onRowsLoaded the action
+     */
+    public void setOnRowsLoaded(Runnable onRowsLoaded) {
+        this.onRowsLoaded = onRowsLoaded;
+    }
+
+    /**
+     * Checks if the rows can be sorted by the columns of the grid.
+     * Rows paged from disk are not sorted, because sorting would read every row many times.
+     *
+     * @return {@code true} if the rows can be sorted, {@code false} otherwise
+     */
+    public boolean isSortable() {
+        return !(rows instanceof PagedRows);
+    }
+
+    /**
+     * Sorts the displayed rows with the given comparator, keeping equal rows in their original order.
+     * <p>Rows loaded from a cursor are sorted after all of them are fetched (see {@link #fetchAll(CursorRows)}).</p>
+     *
+     * @param comparator the comparator of the rows, or {@code null} to restore the original order
+     * @return {@code true} if the rows were sorted or will be sorted once fetched, {@code false} if they cannot be sorted
+     */
+    public boolean sortRows(Comparator<String[]> comparator) {
+        if (!isSortable()) {
+            return false;
+        }
+        if (rows instanceof CursorRows) {
+            if (comparator != null || fetchingAll) {
+                pendingComparator = comparator;
+                fetchAll((CursorRows) rows);
+            }
+            return true;
+        }
+        int size = rows.size();
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        if (comparator != null) {
+            Arrays.sort(sorted, (a, b) -> comparator.compare(rows.get(a), rows.get(b)));
+        }
+
+        // The permutation maps the old position of every row to its new position
+        int[] oldPositions = new int[size];
+        for (int i = 0; i < size; i++) {
+            oldPositions[order != null ? order[i] : i] = i;
+        }
+        int[] newOrder = new int[size];
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            newOrder[i] = sorted[i];
+            permutation[oldPositions[sorted[i]]] = i;
+        }
+        order = comparator != null ? newOrder : null;
+
+        beginChange();
+        nextPermutation(0, size, permutation);
+        endChange();
+        return true;
+    }
+
+    /**
+     * Fetches the next page of the given rows on the background thread and adds it to the list when it arrives.
+     * Only one page is fetched at a time.
+     */
+    private void fetchNextPage(CursorRows cursorRows) {
+        if (fetching || fetchingAll || cursorRows.isComplete()) {
+            return;
+        }
+        fetching = true;
+        int loaded = cursorRows.size();
+        FETCHER.execute(() -> {
+            int available;
+            try {
+                available = cursorRows.fetchNextPage(loaded);
+            } catch (RuntimeException e) {
+                // The cursor was closed with the tab, or the rows could not be fetched; no more pages are fetched
+                LOGGER.warning("Unable to fetch result rows: " + e.getMessage());
+                return;
+            }
+            FxUpdateQueue.runOnFxThread(() -> {
+                fetching = false;
+                if (rows != cursorRows) {
+                    // All rows were fetched to be sorted in the meantime
+                    return;
+                }
+                cursorRows.setLoadedRows(available);
+                beginChange();
+                nextAdd(loaded, available);
+                endChange();
+                onRowsLoaded.run();
+            });
+        });
+    }
+
+    /**
+     * Fetches all rows of the given cursor on the background thread, replaces the rows with them when they arrive
+     * and sorts them with the pending comparator. Pages are no longer fetched afterwards.
+     */
+    private void fetchAll(CursorRows cursorRows) {
+        if (fetchingAll) {
+            return;
+        }
+        fetchingAll = true;
+        FETCHER.execute(() -> {
+            List<String[]> allRows;
+            try {
+                allRows = cursorRows.fetchAll();
+            } catch (RuntimeException e) {
+                LOGGER.warning("Unable to fetch result rows: " + e.getMessage());
+                FxUpdateQueue.runOnFxThread(() -> fetchingAll = false);
+                return;
+            }
+            FxUpdateQueue.runOnFxThread(() -> {
+                int loaded = rows.size();
+                rows = allRows;
+                cursorRows.setLoadedRows(allRows.size());
+                fetchingAll = false;
+                if (allRows.size() > loaded) {
+                    beginChange();
+                    nextAdd(loaded, allRows.size());
+                    endChange();
+                }
+                onRowsLoaded.run();
+                sortRows(pendingComparator);
+            });
+        });
+    }
+}
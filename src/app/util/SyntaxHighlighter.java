@@ -0,0 +1,159 @@
+package app.util;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import org.fxmisc.richtext.CodeArea;
+import org.fxmisc.richtext.model.PlainTextChange;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.TwoDimensional.Bias;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Incremental syntax highlighting of a code editor.
+ * <p>The range of the text changed since the last highlighting is tracked from the changes of the editor.
+ * Once the text has not changed for {@link #DELAY}, only the paragraphs in that range are lexed again
+ * (see {@link EditorHelper#computeHighlighting(String, List)}) on a background thread, and their style spans
+ * are applied back to the editor on the JavaFX application thread. Results for a text that changed in the
+ * meantime are discarded.</p>
+ * Keywords are upper-cased in place without changing the length of the text, so upper-casing does not damage
+ * any other part of the document. A keyword touching the caret is left as it is until the word is finished.
+ */
+public class SyntaxHighlighter {
+
+    /**
+     * The time the text must stay unchanged before it is highlighted.
+     */
+    private static final Duration DELAY = Duration.millis(100);
+
+    /**
+     * The thread lexing the text, shared by all editors.
+     */
+    private static final Executor LEXER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "editor-highlighting");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final CodeArea editorArea;
+    private final PauseTransition delay = new PauseTransition(DELAY);
+
+    /**
+     * Incremented on every change of the text, used to discard results lexed from an older text.
+     */
+    private int version = 0;
+
+    /**
+     * The range of the text changed since it was last highlighted, or -1 if nothing changed.
+     */
+    private int damageStart = -1;
+    private int damageEnd = -1;
+
+    /**
+     * Flag indicating whether keywords are being upper-cased, which does not damage the highlighting.
+     */
+    private boolean changingCase = false;
+
+    private SyntaxHighlighter(CodeArea editorArea) {
+        this.editorArea = editorArea;
+        delay.setOnFinished(event -> highlight());
+        editorArea.plainTextChanges().subscribe(this::onTextChanged);
+    }
+
+    /**
+     * Starts highlighting the syntax of the given editor as its text changes.
+     *
+     * @param editorArea the {@link CodeArea} component representing the code editor
+     * @return the {@link SyntaxHighlighter} of the editor
+     */
+    public static SyntaxHighlighter install(CodeArea editorArea) {
+        SyntaxHighlighter highlighter = new SyntaxHighlighter(editorArea);
+        editorArea.getProperties().put(SyntaxHighlighter.class, highlighter);
+        return highlighter;
+    }
+
+    private void onTextChanged(PlainTextChange change) {
+        version++;
+        if (changingCase) {
+            return;
+        }
+        int position = change.getPosition();
+        if (damageStart < 0) {
+            damageStart = position;
+            damageEnd = change.getInsertionEnd();
+        } else {
+            // The damaged range is moved by the change and grows to cover it
+            if (damageEnd > position) {
+                damageEnd = Math.max(damageEnd + change.getNetLength(), change.getInsertionEnd());
+            } else {
+                damageEnd = change.getInsertionEnd();
+            }
+            damageStart = Math.min(damageStart, position);
+        }
+        delay.playFromStart();
+    }
+
+    /**
+     * Lexes the paragraphs of the damaged range on the background thread.
+     */
+    private void highlight() {
+        if (damageStart < 0) {
+            return;
+        }
+        int length = editorArea.getLength();
+        int firstParagraph = editorArea.offsetToPosition(Math.min(damageStart, length), Bias.Backward).getMajor();
+        int lastParagraph = editorArea.offsetToPosition(Math.min(damageEnd, length), Bias.Forward).getMajor();
+        int start = editorArea.getAbsolutePosition(firstParagraph, 0);
+        int end = editorArea.getAbsolutePosition(lastParagraph, editorArea.getParagraph(lastParagraph).length());
+        String text = editorArea.getText(start, end);
+        int lexedVersion = version;
+
+        LEXER.execute(() -> {
+            List<int[]> keywords = new ArrayList<>();
+            StyleSpans<Collection<String>> spans = EditorHelper.computeHighlighting(text, keywords);
+            FxUpdateQueue.runOnFxThread(() -> apply(lexedVersion, start, spans, keywords));
+        });
+    }
+
+    /**
+     * Applies the style spans lexed from the text starting at the given position, unless the text changed since,
+     * and upper-cases the lexed keywords that are not being typed.
+     */
+    private void apply(int lexedVersion, int start, StyleSpans<Collection<String>> spans, List<int[]> keywords) {
+        if (lexedVersion != version) {
+            // The text changed while it was lexed; the damaged range is highlighted again after the change
+            return;
+        }
+        damageStart = -1;
+        damageEnd = -1;
+
+        int caret = editorArea.getCaretPosition();
+        int anchor = editorArea.getAnchor();
+        boolean changed = false;
+        changingCase = true;
+        try {
+            for (int[] keyword : keywords) {
+                int keywordStart = start + keyword[0];
+                int keywordEnd = start + keyword[1];
+                if (keywordStart <= caret && caret <= keywordEnd) {
+                    continue;
+                }
+                editorArea.replaceText(keywordStart, keywordEnd, editorArea.getText(keywordStart, keywordEnd).toUpperCase());
+                changed = true;
+            }
+        } finally {
+            changingCase = false;
+        }
+        if (changed) {
+            // Replacing text moves the caret to the replacement
+            editorArea.selectRange(anchor, caret);
+        }
+        if (spans.length() > 0) {
+            editorArea.setStyleSpans(start, spans);
+        }
+    }
+}
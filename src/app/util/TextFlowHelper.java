@@ -15,9 +15,16 @@ import javafx.scene.text.TextFlow;
 public class TextFlowHelper {
     private static boolean hasError = false;
 
+    /**
+     * Flag indicating whether scrolling the console to the bottom is already scheduled.
+     */
+    private static boolean scrollPending = false;
+
     /**
      * Updates the content of the given {@link TextFlow} component with the specified message and color.
      * The message is appended to the existing text content if the append flag is set to true.
+     * <p>If called from a background thread, the update is handed to the JavaFX application thread
+     * through {@link FxUpdateQueue}.</p>
      *
      * @param textFlow the {@link TextFlow} component to update
      * @param message  the message to display in the text flow
@@ -25,6 +32,10 @@ public class TextFlowHelper {
      * @param append   true to append the message, false to replace the existing text
      */
     public static void updateResultTextFlow(TextFlow textFlow, String message, Color color, boolean append) {
+        if (!Platform.isFxApplicationThread()) {
+            FxUpdateQueue.runOnFxThread(() -> updateResultTextFlow(textFlow, message, color, append));
+            return;
+        }
         if (!append) {
             clearTextFlow(textFlow);
         }
@@ -34,7 +45,19 @@ public class TextFlowHelper {
         scrollToBottom(textFlow);
     }
 
+    /**
+     * Adds a warning message to the specified {@link TextFlow} component.
+     * <p>If called from a background thread, the update is handed to the JavaFX application thread
+     * through {@link FxUpdateQueue}.</p>
+     *
+     * @param consoleTextFlow the {@link TextFlow} component to update
+     * @param warningText     the warning text
+     */
     public static void addWarningMessage(TextFlow consoleTextFlow, String warningText) {
+        if (!Platform.isFxApplicationThread()) {
+            FxUpdateQueue.runOnFxThread(() -> addWarningMessage(consoleTextFlow, warningText));
+            return;
+        }
         double iconSize = FontConfig.getConsoleFontSize() - 2;
         SVGHelper.SVGIcon warningIcon = SVGHelper.createWarningIcon(iconSize);
         updateResultTextFlow(consoleTextFlow, "\n", Color.TRANSPARENT, true);
@@ -53,7 +76,6 @@ public class TextFlowHelper {
      * @param errorDescription a detailed description of the error
      */
     public static void addErrorMessage(TextFlow textFlow, String errorType, String mainError, String specificError, String errorDescription) {
-        clearTextFlow(textFlow);
         hasError = true;
         String ansiFormattedMessage = String.format(
                 "\n\u001B[1;31m[%s]\u001B[0m \u001B[1;4m%s\u001B[0m%s%s\n\u001B[1;31m\u001B[4mERROR\u001B[0m\u001B[1;31m:\u001B[0m %s",
@@ -64,7 +86,8 @@ public class TextFlowHelper {
                 errorDescription
         );
 
-        AnsiTextParser.parseAnsiText(ansiFormattedMessage, textFlow);
+        // Replaces the previous content in one change, so the console is laid out once
+        AnsiTextParser.replaceWithAnsiText(ansiFormattedMessage, textFlow);
     }
 
     /**
@@ -74,10 +97,24 @@ public class TextFlowHelper {
      * @param executionTime   the execution time in nanoseconds
      */
     public static void addExecutionTime(TextFlow consoleTextFlow, long executionTime) {
+        addExecutionTime(consoleTextFlow, executionTime, "");
+    }
+
+    /**
+     * Adds the execution time followed by additional details to the specified {@link TextFlow} component.
+     *
+     * @param consoleTextFlow the {@link TextFlow} component to update
+     * @param executionTime   the execution time in nanoseconds
+     * @param details         the details shown in parentheses after the execution time, or an empty string for none
+     */
+    public static void addExecutionTime(TextFlow consoleTextFlow, long executionTime, String details) {
         double iconSize = FontConfig.getConsoleFontSize() - 2;
         SVGHelper.SVGIcon timeIcon = SVGHelper.createTimeIcon(iconSize);
 
         String executionTimeText = String.format("%.2f ms", (double) executionTime / 1000000);
+        if (details != null && !details.isEmpty()) {
+            executionTimeText += " (" + details + ")";
+        }
         TextFlow messageLine = createMessageLine("Execution time", executionTimeText, timeIcon, Color.BLACK, true);
 
         addToConsole(consoleTextFlow, messageLine);
@@ -136,16 +173,22 @@ public class TextFlowHelper {
 
     /**
      * Scrolls the given {@link TextFlow} component to the bottom.
+     * <p>The scroll happens once after the layout of the next pulse, however many messages are added before it.</p>
      *
      * @param textFlow the {@link TextFlow} component to scroll
      */
     private static void scrollToBottom(TextFlow textFlow) {
+        if (scrollPending) {
+            return;
+        }
         Parent parent = textFlow.getParent();
         while (parent != null) {
             if (parent instanceof ScrollPane) {
                 ScrollPane scrollPane = (ScrollPane) parent;
+                scrollPending = true;
                 // Use Platform.runLater to ensure the scroll happens after the layout is updated
                 Platform.runLater(() -> {
+                    scrollPending = false;
                     scrollPane.layout();
                     scrollPane.setVvalue(1.0);
                 });
@@ -69,6 +69,16 @@ public class MainWindow extends Window {
                 }
             });
 
+            // Filtered before the editor area handles the key, so the shortcut does not insert a new line
+            KeyCombination runStatementShortcut = new KeyCodeCombination(KeyCode.ENTER, KeyCombination.SHORTCUT_DOWN);
+            scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+                if (runStatementShortcut.match(event)) {
+                    event.consume();
+                    MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(MAIN_WINDOW).getController();
+                    mainWindowController.handleRunStatementAtCaret();
+                }
+            });
+
             this.stage.setOnCloseRequest(event -> {
                 event.consume();
                 MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(MAIN_WINDOW).getController();
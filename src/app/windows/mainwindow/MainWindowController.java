@@ -2,7 +2,12 @@ package app.windows.mainwindow;
 
 import app.ControllerBase;
 import app.Window;
+import app.sql.ResultCache;
 import app.sql.SQLExecutor;
+import app.sql.SchemaCatalog;
+import app.sql.SpillStatistics;
+import app.sql.StatementIndex;
+import app.sql.StatementSplitter;
 import app.util.*;
 import app.windows.settingswindow.SettingsWindowController;
 import cpp.JavaInterface;
@@ -18,6 +23,8 @@ import org.fxmisc.richtext.CodeArea;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -57,6 +64,26 @@ public class MainWindowController extends ControllerBase {
      */
     public TabPane resultTabPane;
 
+    /**
+     * The button for running the SQL queries from the editor area.
+     */
+    public Button runButton;
+
+    /**
+     * The button for stopping the execution of the SQL queries.
+     */
+    public Button stopButton;
+
+    /**
+     * The label for displaying the progress of the running execution.
+     */
+    public Label executionProgressLabel;
+
+    /**
+     * The progress bar for displaying the progress of a running script file.
+     */
+    public ProgressBar executionProgressBar;
+
     /**
      * The {@link JavaInterface} instance for executing SQL queries in the database.
      */
@@ -67,6 +94,11 @@ public class MainWindowController extends ControllerBase {
      */
     private SQLExecutor sqlExecutor;
 
+    /**
+     * The index of the statement boundaries in the editor area, updated on every edit.
+     */
+    private StatementIndex statementIndex;
+
     /**
      * The list of history entries for the executed queries.
      */
@@ -102,6 +134,7 @@ public class MainWindowController extends ControllerBase {
     public void initialize(URL location, ResourceBundle resources) {
         Window.getWindowAt(Window.MAIN_WINDOW).setController(this);
         setupEditorArea();
+        ConsoleBuffer.install(consoleTextFlow);
         setupContextMenus();
         databaseManager = new JavaInterface();
         sqlExecutor = new SQLExecutor(databaseManager, consoleTextFlow, this);
@@ -113,6 +146,9 @@ public class MainWindowController extends ControllerBase {
     private void setupEditorArea() {
         EditorHelper.setupEditorFont(editorArea);
         EditorHelper.setupEditorArea(editorArea);
+        statementIndex = new StatementIndex(new EditorText(editorArea));
+        editorArea.plainTextChanges().subscribe(change -> statementIndex.update(new EditorText(editorArea),
+                change.getPosition(), change.getRemoved().length(), change.getInserted().length()));
     }
 
     /**
@@ -143,6 +179,10 @@ public class MainWindowController extends ControllerBase {
      * @return {@code true} if the database was imported successfully, {@code false} otherwise
      */
     public boolean handleImportDatabase(Stage ownerStage, boolean isFromWelcomeWindow) {
+        if (isExecutionRunning()) {
+            return false;
+        }
+
         boolean result = DatabaseManager.showImportDatabaseDialog(
                 ownerStage,
                 consoleTextFlow,
@@ -154,7 +194,8 @@ public class MainWindowController extends ControllerBase {
 
         if (result) {
             clearTablesList();
-            updateTablesList();
+            ResultCache.clear();
+            reloadSchemaCatalog();
             importedFile = DatabaseManager.getLastSelectedFile();
             hasUnsavedChanges = false;
 
@@ -174,42 +215,143 @@ public class MainWindowController extends ControllerBase {
         System.out.println("[RUN] Run button clicked");
         String code = editorArea.getSelectedText().isEmpty() ? editorArea.getText() : editorArea.getSelectedText();
         if (!code.isEmpty()) {
-            executeQuery(stripComments(code));
+            executeQuery(code);
         } else {
             TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nNo SQL query to execute.", Color.BLACK, true);
         }
     }
 
     /**
-     * Helper function for stripping comments from the given SQL query.
+     * Handles the action of running the statement under the caret in the editor area.
+     * This method is invoked when the user presses the CTRL + ENTER shortcut or clicks "Run Statement at Caret".
+     * <p>The statement is found in the {@link StatementIndex}, so only the statement is read from the editor.</p>
+     */
+    public void handleRunStatementAtCaret() {
+        System.out.println("[RUN] Run statement at caret");
+        String statement = statementIndex.getStatementAt(new EditorText(editorArea), editorArea.getCaretPosition());
+        if (statement != null) {
+            executeStatements(Collections.singletonList(statement));
+        } else {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\nNo SQL query to execute.", Color.BLACK, true);
+        }
+    }
+
+    /**
+     * Handles the action of running an SQL script file without opening it in the editor.
+     * This method is invoked when the user clicks the "Run Script File" option in the File menu.
+     * <p>The statements are read from the file as they are executed, so files too large for the editor
+     * (e.g. database dumps) can be executed.</p>
+     */
+    @FXML
+    private void handleRunScriptFile() {
+        if (isExecutionRunning()) {
+            return;
+        }
+
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Run Script File");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("SQL Files", "*.sql"),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
+        );
+        File file = fileChooser.showOpenDialog(Window.getWindowAt(Window.MAIN_WINDOW).getStage());
+        if (file != null) {
+            System.out.println("[RUN] Run script file: " + file.getAbsolutePath());
+            sqlExecutor.executeScriptFile(file);
+        }
+    }
+
+    /**
+     * Handles the action of stopping the running execution.
+     * This method is invoked when the user clicks the "Stop" button.
+     * <p>The execution stops after the statement that is currently being executed.</p>
+     */
+    @FXML
+    private void handleStop() {
+        sqlExecutor.stopExecution();
+        stopButton.setDisable(true);
+        executionProgressLabel.setText("Stopping...");
+    }
+
+    /**
+     * Updates the Run and Stop buttons and the progress label when the execution starts or finishes.
      *
-     * @param query the SQL query to strip comments from
-     * @return the SQL query without comments
-     */
-    private String stripComments(String query) {
-        StringBuilder result = new StringBuilder();
-        String[] lines = query.split("\n");
-        for (String line : lines) {
-            int commentIndex = line.indexOf("--");
-            if (commentIndex != -1) {
-                result.append(line, 0, commentIndex);
-            } else {
-                result.append(line);
-            }
-            result.append("\n");
+     * @param running {@code true} if the execution has started, {@code false} if it has finished
+     */
+    public void setExecutionRunning(boolean running) {
+        runButton.setDisable(running);
+        stopButton.setDisable(!running);
+        executionProgressLabel.setText("");
+        executionProgressBar.setVisible(false);
+        executionProgressBar.setProgress(0);
+    }
+
+    /**
+     * Displays the progress of the running execution.
+     *
+     * @param current the number of the statement being executed (starting from 1)
+     * @param total   the total number of statements
+     */
+    public void updateExecutionProgress(int current, int total) {
+        if (!stopButton.isDisabled()) {
+            executionProgressLabel.setText("Executing statement " + current + " of " + total);
         }
-        return result.toString().trim();
+    }
+
+    /**
+     * Displays the progress of a running script file.
+     *
+     * @param bytesRead           the number of bytes of the script read so far
+     * @param totalBytes          the size of the script in bytes, or -1 if it is not known
+     * @param statementsPerSecond the number of statements executed per second
+     */
+    public void updateScriptProgress(long bytesRead, long totalBytes, double statementsPerSecond) {
+        if (stopButton.isDisabled()) {
+            return;
+        }
+        executionProgressBar.setVisible(true);
+        executionProgressBar.setProgress(totalBytes > 0 ? Math.min(1.0, (double) bytesRead / totalBytes) : ProgressBar.INDETERMINATE_PROGRESS);
+        String size = totalBytes >= 0 ? SpillStatistics.formatBytes(bytesRead) + " of " + SpillStatistics.formatBytes(totalBytes) : SpillStatistics.formatBytes(bytesRead);
+        executionProgressLabel.setText(size + ", " + Math.round(statementsPerSecond) + " statements/s");
+    }
+
+    /**
+     * Checks if queries are being executed and displays a message in the console if they are.
+     * <p>Used to prevent importing or saving the database while it is being modified.</p>
+     *
+     * @return {@code true} if queries are being executed, {@code false} otherwise
+     */
+    private boolean isExecutionRunning() {
+        if (sqlExecutor.isExecuting()) {
+            TextFlowHelper.updateResultTextFlow(consoleTextFlow, "\n[INFO] Queries are being executed. Wait for the execution to finish or stop it.", Color.BLACK, true);
+            return true;
+        }
+        return false;
     }
 
     /**
      * Executes the given SQL queries in the database and displays the results in the application.
+     * <p>The code is split into statements by the {@link StatementSplitter}, which also removes the comments.</p>
      *
      * @param queries the SQL queries to execute
      */
     public void executeQuery(String queries) {
+        executeStatements(StatementSplitter.split(queries));
+    }
+
+    /**
+     * Executes the given SQL statements in the database and displays the results in the application.
+     *
+     * @param statements the SQL statements to execute, without comments
+     */
+    private void executeStatements(List<String> statements) {
+        if (isExecutionRunning()) {
+            return;
+        }
+
         boolean hasModifyingQuery = false;
-        for (String query : queries.split(";")) {
-            if (!query.trim().isEmpty() && sqlExecutor.isModifyingQuery(query.trim())) {
+        for (String statement : statements) {
+            if (sqlExecutor.isModifyingQuery(statement)) {
                 hasModifyingQuery = true;
                 break;
             }
@@ -217,7 +359,7 @@ public class MainWindowController extends ControllerBase {
         if (hasModifyingQuery) {
             setHasUnsavedChanges(true);
         }
-        sqlExecutor.executeQueries(queries, isQueryFromEditor);
+        sqlExecutor.executeStatements(statements, isQueryFromEditor);
         isQueryFromEditor = true; // Reset flag after execution
     }
 
@@ -232,16 +374,20 @@ public class MainWindowController extends ControllerBase {
     }
 
     /**
-     * Updates the list of tables displayed in the Main Window.
+     * Updates the list of tables displayed in the Main Window from the {@link SchemaCatalog}.
      */
     public void updateTablesList() {
-        databaseManager.executeQuery("SHOW TABLES");
-        File outputFile = new File("output.txt");
-        if (!FileHelper.checkErrors(outputFile, consoleTextFlow)) {
-            List<String> tableNames = FileHelper.readTableNames("output.txt");
-            tablesListView.getItems().clear();
-            tablesListView.getItems().addAll(tableNames);
-        }
+        tablesListView.getItems().clear();
+        tablesListView.getItems().addAll(SchemaCatalog.getTableNames());
+    }
+
+    /**
+     * Reloads the {@link SchemaCatalog} with the tables and columns of the database in the background
+     * and updates the list of tables once it is loaded.
+     * This method is invoked when a database file is imported.
+     */
+    public void reloadSchemaCatalog() {
+        sqlExecutor.reloadSchemaCatalog(this::updateTablesList);
     }
 
     /**
@@ -273,6 +419,21 @@ public class MainWindowController extends ControllerBase {
         queryHistory.add(new HistoryEntry(timestamp, query, success));
     }
 
+    /**
+     * Adds the given queries to the history list, one entry per query, in a single change of the list.
+     *
+     * @param queries the SQL queries to add
+     * @param success {@code true} if the queries were executed successfully, {@code false} otherwise
+     */
+    public void addToHistory(List<String> queries, boolean success) {
+        String timestamp = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        List<HistoryEntry> entries = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            entries.add(new HistoryEntry(timestamp, query, success));
+        }
+        queryHistory.addAll(entries);
+    }
+
     /**
      * Removes the given entry from the history list.
      *
@@ -368,6 +529,10 @@ public class MainWindowController extends ControllerBase {
      * @param file the {@link File} to save the database to
      */
     public void saveFile(File file) {
+        if (isExecutionRunning()) {
+            return;
+        }
+
         boolean isSaveAs = !file.equals(importedFile);
 
         if (!hasUnsavedChanges && !isSaveAs) {
@@ -3,6 +3,8 @@ package app.windows.welcomewindow;
 import app.ControllerBase;
 import app.Window;
 import app.windows.mainwindow.MainWindowController;
+import app.sql.ResultCache;
+import app.sql.SchemaCatalog;
 import app.util.AnsiTextParser;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -62,6 +64,8 @@ public class WelcomeWindowController extends ControllerBase {
         Window.hideWindow(Window.WELCOME_WINDOW);
         MainWindowController mainWindowController = (MainWindowController) Window.getWindowAt(Window.MAIN_WINDOW).getController();
         mainWindowController.databaseManager.createNewDatabase();
+        SchemaCatalog.clear();
+        ResultCache.clear();
         AnsiTextParser.parseAnsiText("Database \"untitled\" has been \033[1;32m\033[1msuccessfully\033[0m created!\n", mainWindowController.consoleTextFlow);
 
         mainWindowController.setCurrentDatabaseName("untitled");
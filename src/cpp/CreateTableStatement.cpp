@@ -45,9 +45,9 @@ void CreateTableStatement::execute(Database& db) {
     db.createTable(tableName, columns);
 
     // Insert into file for native format
-    ofstream outFile("output.txt", ios::out);
+    ostream &outFile = ResultChannel::open();
     db.getTable(tableName).printTableInFile(outFile);
-    outFile.close();
+    ResultChannel::close();
 }
 
 void CreateTableStatement::errors() {
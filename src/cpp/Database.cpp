@@ -150,10 +150,22 @@ void Database::selectFromTable(const string &tableName, const string &tableAlias
 
     Table resultTable("Result", selectedColumns);
 
+    // Stop producing rows once the row limit requested by the Java side (LIMIT/OFFSET without ordering) is reached
+    long long rowLimit = ResultChannel::getRowLimit();
+    auto isFull = [&resultTable, rowLimit]() {
+        return rowLimit >= 0 && (long long) resultTable.getRows().size() >= rowLimit;
+    };
+
     for (const auto &row1 : table.getRows()) {
+        if (isFull()) {
+            break;
+        }
         if (isJoin) {
             Table &joinTable = getTable(joinTableName);
             for (const auto &row2 : joinTable.getRows()) {
+                if (isFull()) {
+                    break;
+                }
                 if (row1.getColumnValue(joinColumn) == row2.getColumnValue(joinColumn2)) {
                     vector<string> combinedRowData;
                     bool shouldAddRow = true;
@@ -203,11 +215,11 @@ void Database::selectFromTable(const string &tableName, const string &tableAlias
         resultTable.printTable();
     }
 
-    // Write result to file
-    ofstream outFile("output.txt");
-    if (outFile.is_open()) {
+    // Write result to the result channel
+    ostream &outFile = ResultChannel::open();
+    if (outFile.good()) {
         resultTable.printTableInFile(outFile, actualColumnNames);
-        outFile.close();
+        ResultChannel::close();
     } else {
         cout << "Unable to open output file." << endl;
     }
@@ -302,7 +314,9 @@ void Database::exportDatabase(const Format& format, const string& filePath) {
 
 void Database::printDatabase() {
     // Insert into file for native format
-    ofstream outFile("output.txt", ios::out);
+    ostream &outFile = ResultChannel::open();
+    // A row limit requested by the Java side (e.g. 0 to read only the table names and headers) also limits the console output
+    long long rowLimit = ResultChannel::getRowLimit();
     cout << endl << "Database: " << name << endl;
     outFile << "Database name: " << name << endl;
     cout << "Tables: " << endl;
@@ -311,19 +325,21 @@ void Database::printDatabase() {
     }
     for(auto it = tables.begin(); it != tables.end(); ++it) {
         cout << " - " << it->first << endl;
-        it->second.printTableInFile(outFile);
+        it->second.printTableInFile(outFile, {}, rowLimit);
         outFile << "#" << endl;
-        it->second.printTable();
+        if (rowLimit < 0) {
+            it->second.printTable();
+        }
         if (next(it) != tables.end()) {
             cout << endl;
         }
     }
-    outFile.close();
+    ResultChannel::close();
 }
 
 void Database::updateTableInFile(const string &tableName) { // for native format
-    ifstream inFile("output.txt");
-    ofstream outFile("output_temp.txt");
+    istringstream inFile(ResultChannel::read());
+    ostream &outFile = ResultChannel::open();
     string line;
     bool isUpdatingTable = false;
 
@@ -343,11 +359,7 @@ void Database::updateTableInFile(const string &tableName) { // for native format
         }
     }
 
-    inFile.close();
-    outFile.close();
-
-    remove("output.txt");
-    rename("output_temp.txt", "output.txt");
+    ResultChannel::close();
 }
 
 const string &Database::getName() const {
@@ -6,6 +6,7 @@
 #include <fstream>
 #include "Table.h"
 #include "DatabaseExceptions.h"
+#include "ResultChannel.h"
 #include "CustomFormat.h"
 #include "SQLFormat.h"
 #include "EqualityFilter.h"
@@ -12,10 +12,7 @@ public:
             : message("\033[1;31m[DATABASE CREATION FAILED]\033[0m Cannot create database with the provided name.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m: "
                       "Database name cannot be empty!\033[0m") {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -31,10 +28,7 @@ public:
             : message("\033[1;31m[INVALID TABLE NAME ERROR]\033[0m Cannot create table with the provided name.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m: "
                       "Table \033[0m" + tableName + "\033[1;31m already exists in the database.\033[0m") {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -50,10 +44,7 @@ public:
             : message("\033[1;31m[TABLE OPERATION FAILED]\033[0m Cannot perform the requested operation.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m: "
                       "Table \033[0m" + tableName + "\033[1;31m does not exist in the database.\033[0m") {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -69,10 +60,7 @@ public:
             : message("\033[1;31m[FILE OPENING FAILED]\033[0m Cannot open the file with the provided name.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m: "
                       "File with path\033[0m " + filename + "\033[1;31m cannot be opened.\033[0m") {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -88,10 +76,7 @@ public:
             : message("\033[1;31m[INVALID FORMAT ERROR]\033[0m Cannot parse the provided format.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m: "
                       + message + "\033[0m") {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -46,9 +46,9 @@ void DeleteFromStatement::execute(Database &db) {
     }
 
     // Insert into file for native format
-    ofstream outFile("output.txt", ios::out);
+    ostream &outFile = ResultChannel::open();
     db.getTable(table_name).printTableInFile(outFile);
-    outFile.close();
+    ResultChannel::close();
 }
 
 void DeleteFromStatement::parseWhereClause(const string &whereClause) {
@@ -41,16 +41,23 @@ bool InsertIntoStatement::parse() {
     return true;
 }
 
-void InsertIntoStatement::execute(Database &db) {
+bool InsertIntoStatement::insert(Database &db) {
     if(!parse()) {
-        return;
+        return false;
     }
     db.insertIntoTable(table_name, column_names, values);
+    return true;
+}
+
+void InsertIntoStatement::execute(Database &db) {
+    if(!insert(db)) {
+        return;
+    }
 
     // Insert into file for native format
-    ofstream outFile("output.txt", ios::out);
+    ostream &outFile = ResultChannel::open();
     db.getTable(table_name).printTableInFile(outFile);
-    outFile.close();
+    ResultChannel::close();
 }
 
 void InsertIntoStatement::errors() {
@@ -16,6 +16,10 @@ public:
     void execute(Database &db) override;
     void errors() override;
 
+    // Parses the statement and inserts the row without writing the table to the result channel,
+    // used when several INSERT statements are executed as a batch
+    bool insert(Database &db);
+
 };
 
 
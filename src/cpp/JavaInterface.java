@@ -3,14 +3,56 @@ package cpp;
 public class JavaInterface {
     static JavaInterface instance = null;
 
+    /**
+     * How the results of executed queries are transported from the native code.
+     * <p>MEMORY returns a {@link QueryResult} directly, FILE writes the results to output.txt.</p>
+     */
+    public enum ResultMode {
+        MEMORY,
+        FILE
+    }
+
+    private static volatile ResultMode resultMode = ResultMode.MEMORY;
+
     public static JavaInterface getInstance() {
         if (instance == null) {
             instance = new JavaInterface();
         }
         return instance;
     }
+
+    public static ResultMode getResultMode() {
+        return resultMode;
+    }
+
+    public static void setResultMode(ResultMode mode) {
+        resultMode = mode;
+    }
+
     public native void createNewDatabase();
     public native void executeQuery(String query);
+    public native QueryResult executeQueryResult(String query);
+    public native QueryResult executeQueryResultWithLimit(String query, int maxRows);
+    /**
+     * Executes the given query and keeps its rows in native memory if they do not fit in the first page.
+     * <p>The result then holds only the first {@code pageRows} rows and the cursor the remaining rows are fetched from
+     * (see {@link QueryResult#getCursor()}). Other results are returned whole, like {@link #executeQueryResult(String)}.</p>
+     */
+    public native QueryResult executeQueryCursor(String query, int pageRows);
+    /**
+     * Returns at most {@code count} rows of the given cursor starting at row {@code from}.
+     * Cursors are independent of the database, so they can be fetched while other statements are executed.
+     */
+    public native String[][] fetchCursorRows(int cursor, int from, int count);
+    /**
+     * Releases the rows of the given cursor.
+     */
+    public native void closeCursor(int cursor);
+    /**
+     * Executes the given INSERT statements in one call, stopping at the first statement that fails.
+     * <p>The result is empty, or holds the error of the failed statement and its index (see {@link QueryResult#getFailedStatement()}).</p>
+     */
+    public native QueryResult executeBatchResult(String[] queries);
     public native void importDatabase(String file_path);
     public native void exportDatabase(String formatStr, String file_path);
 }
@@ -4,6 +4,7 @@
 
 #include <exception>
 #include <string>
+#include "ResultChannel.h"
 
 using namespace std;
 
@@ -14,10 +15,7 @@ public:
     InvalidFileExportException(const string& details)
             : message("\033[1;31m[INVALID FILE EXPORT]\033[0m Cannot export database to the provided file path.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -32,10 +30,7 @@ public:
     InvalidFileImportException(const string& details)
             : message("\033[1;31m[INVALID FILE IMPORT]\033[0m Cannot import database from the provided file path.\n"
                       "\033[1;31m\033[4mERROR\033[0m\033[1;31m:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char* what() const noexcept override {
@@ -0,0 +1,258 @@
+package cpp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory result of a single statement executed in the native database.
+ * <p>Holds the same information the native code writes to the output file: the execution status,
+ * the error text (if any), the database name (for SHOW TABLES) and the resulting tables.</p>
+ */
+public class QueryResult {
+
+    /**
+     * The execution status of the statement.
+     */
+    public enum Status {
+        SUCCESS,
+        ERROR
+    }
+
+    /**
+     * The execution status of the statement.
+     */
+    private final Status status;
+    /**
+     * The error text (ANSI formatted), or {@code null} if the statement was executed successfully.
+     */
+    private final String errorText;
+    /**
+     * The database name written by SHOW TABLES, or {@code null} for other statements.
+     */
+    private final String databaseName;
+    /**
+     * The tables contained in the result.
+     */
+    private final List<Table> tables = new ArrayList<>();
+    /**
+     * The index of the statement that failed when a batch of statements was executed, or -1.
+     */
+    private int failedStatement = -1;
+    /**
+     * The native cursor holding the rows of the table that were not returned, or -1.
+     */
+    private int cursor = -1;
+    /**
+     * The total number of rows of the table if the result has a cursor, or -1.
+     */
+    private int cursorRowCount = -1;
+
+    /**
+     * Creates a new instance of {@link QueryResult}.
+     * <p>Called from the native code, which afterwards adds the tables using {@link #addTable}.</p>
+     *
+     * @param error        {@code true} if the statement failed, {@code false} otherwise
+     * @param errorText    the error text, or {@code null} if the statement was executed successfully
+     * @param databaseName the database name, or {@code null} if the result does not contain it
+     */
+    public QueryResult(boolean error, String errorText, String databaseName) {
+        this.status = error ? Status.ERROR : Status.SUCCESS;
+        this.errorText = errorText;
+        this.databaseName = databaseName;
+    }
+
+    /**
+     * Adds a table to the result.
+     *
+     * @param name    the name of the table
+     * @param headers the column names of the table
+     * @param rows    the rows of the table
+     */
+    public void addTable(String name, String[] headers, String[][] rows) {
+        tables.add(new Table(name, Arrays.asList(headers), new ArrayList<>(Arrays.asList(rows))));
+    }
+
+    /**
+     * Adds a table to the result.
+     *
+     * @param table the table to add
+     */
+    public void addTable(Table table) {
+        tables.add(table);
+    }
+
+    /**
+     * Returns the execution status of the statement.
+     *
+     * @return the execution status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Checks if the statement failed.
+     *
+     * @return {@code true} if the statement failed, {@code false} otherwise
+     */
+    public boolean isError() {
+        return status == Status.ERROR;
+    }
+
+    /**
+     * Returns the error text of the failed statement.
+     *
+     * @return the error text, or {@code null} if the statement was executed successfully
+     */
+    public String getErrorText() {
+        return errorText;
+    }
+
+    /**
+     * Returns the index of the statement that failed when a batch of statements was executed.
+     *
+     * @return the index of the failed statement in the batch, or -1 if no statement failed or the result is not of a batch
+     */
+    public int getFailedStatement() {
+        return failedStatement;
+    }
+
+    /**
+     * Sets the index of the statement that failed in a batch.
+     * <p>Called from the native code.</p>
+     *
+     * @param failedStatement the index of the failed statement in the batch
+     */
+    public void setFailedStatement(int failedStatement) {
+        this.failedStatement = failedStatement;
+    }
+
+    /**
+     * Returns the native cursor holding the rows of the single table of the result that were not returned.
+     *
+     * @return the cursor, or -1 if the result holds all its rows
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Returns the total number of rows of the single table of the result, including the rows left in the cursor.
+     *
+     * @return the total number of rows, or -1 if the result holds all its rows
+     */
+    public int getCursorRowCount() {
+        return cursorRowCount;
+    }
+
+    /**
+     * Sets the native cursor holding the rows that were not returned.
+     * <p>Called from the native code when only the first page of the rows is returned.</p>
+     *
+     * @param cursor         the cursor
+     * @param cursorRowCount the total number of rows
+     */
+    public void setCursor(int cursor, int cursorRowCount) {
+        this.cursor = cursor;
+        this.cursorRowCount = cursorRowCount;
+    }
+
+    /**
+     * Returns the database name written by SHOW TABLES.
+     *
+     * @return the database name, or {@code null} if the result does not contain it
+     */
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    /**
+     * Returns the tables contained in the result.
+     *
+     * @return the {@link List} of tables
+     */
+    public List<Table> getTables() {
+        return tables;
+    }
+
+    /**
+     * Checks if the result contains at least one table.
+     *
+     * @return {@code true} if the result contains tables, {@code false} otherwise
+     */
+    public boolean hasTables() {
+        return !tables.isEmpty();
+    }
+
+    /**
+     * A single table of the result (table name, column names and rows).
+     */
+    public static class Table {
+
+        /**
+         * The name of the table.
+         */
+        private final String name;
+        /**
+         * The column names of the table.
+         */
+        private List<String> headers;
+        /**
+         * The rows of the table, each row holding one value per column.
+         */
+        private List<String[]> rows;
+
+        /**
+         * Creates a new instance of {@link Table}.
+         *
+         * @param name    the name of the table
+         * @param headers the column names of the table
+         * @param rows    the rows of the table
+         */
+        public Table(String name, List<String> headers, List<String[]> rows) {
+            this.name = name;
+            this.headers = headers;
+            this.rows = rows;
+        }
+
+        /**
+         * Returns the name of the table.
+         *
+         * @return the name of the table
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the column names of the table.
+         *
+         * @return the {@link List} of column names
+         */
+        public List<String> getHeaders() {
+            return Collections.unmodifiableList(headers);
+        }
+
+        /**
+         * Returns the rows of the table.
+         *
+         * @return the {@link List} of rows
+         */
+        public List<String[]> getRows() {
+            return rows;
+        }
+
+        /**
+         * Replaces the column names and rows of the table (e.g. after applying the query modifiers).
+         *
+         * @param headers the new column names
+         * @param rows    the new rows
+         */
+        public void setData(List<String> headers, List<String[]> rows) {
+            this.headers = headers;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+
+#include "ResultChannel.h"
+
+const string ResultChannel::FILE_NAME = "output.txt";
+
+ResultChannel::Mode ResultChannel::mode = ResultChannel::Mode::FILE;
+long long ResultChannel::rowLimit = -1;
+ofstream ResultChannel::fileStream;
+ostringstream ResultChannel::memoryStream;
+
+void ResultChannel::setMode(Mode newMode) {
+    if (fileStream.is_open()) {
+        fileStream.close();
+    }
+    mode = newMode;
+}
+
+ResultChannel::Mode ResultChannel::getMode() {
+    return mode;
+}
+
+ostream &ResultChannel::open() {
+    if (mode == Mode::MEMORY) {
+        memoryStream.str("");
+        memoryStream.clear();
+        return memoryStream;
+    }
+    if (fileStream.is_open()) {
+        fileStream.close();
+    }
+    fileStream.clear();
+    fileStream.open(FILE_NAME, ios::out | ios::trunc);
+    return fileStream;
+}
+
+void ResultChannel::close() {
+    if (mode == Mode::FILE && fileStream.is_open()) {
+        fileStream.close();
+    }
+}
+
+void ResultChannel::writeError(const string &message) {
+    ostream &out = open();
+    out << "!" << endl;
+    out << message << endl;
+    close();
+}
+
+string ResultChannel::read() {
+    if (mode == Mode::MEMORY) {
+        return memoryStream.str();
+    }
+    ifstream inFile(FILE_NAME);
+    if (!inFile.is_open()) {
+        return "";
+    }
+    stringstream content;
+    content << inFile.rdbuf();
+    return content.str();
+}
+
+void ResultChannel::setRowLimit(long long limit) {
+    rowLimit = limit;
+}
+
+long long ResultChannel::getRowLimit() {
+    return rowLimit;
+}
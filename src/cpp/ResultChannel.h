@@ -0,0 +1,49 @@
+
+#ifndef ELEMENTAL_SQL_IMPLEMENTATION_RESULTCHANNEL_H
+#define ELEMENTAL_SQL_IMPLEMENTATION_RESULTCHANNEL_H
+
+#include <fstream>
+#include <sstream>
+#include <string>
+
+using namespace std;
+
+// Destination of the native result format (tables, "!" errors) that the Java side reads back.
+// FILE mode keeps the original output.txt behaviour, MEMORY mode keeps the result in a buffer
+// that is handed to Java directly (see Java_cpp_JavaInterface_executeQueryResult).
+class ResultChannel {
+
+public:
+    enum class Mode {
+        FILE,
+        MEMORY
+    };
+
+    static const string FILE_NAME;
+
+    static void setMode(Mode newMode);
+    static Mode getMode();
+
+    // Starts a new result, discarding the previous one
+    static ostream& open();
+    static void close();
+
+    static void writeError(const string& message);
+
+    // Returns the current result as text
+    static string read();
+
+    // Maximum number of rows a SELECT writes to the result, -1 for no limit
+    static void setRowLimit(long long limit);
+    static long long getRowLimit();
+
+private:
+    static Mode mode;
+    static long long rowLimit;
+    static ofstream fileStream;
+    static ostringstream memoryStream;
+
+};
+
+
+#endif //ELEMENTAL_SQL_IMPLEMENTATION_RESULTCHANNEL_H
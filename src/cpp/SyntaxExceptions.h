@@ -9,10 +9,7 @@ class MissingArgumentsException : public exception {
 public:
     MissingArgumentsException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR]\033[0m \033[1mMissing required arguments:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -26,10 +23,7 @@ class InvalidArgumentsException : public exception {
 public:
     InvalidArgumentsException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR] Invalid arguments:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -43,10 +37,7 @@ class SyntaxException : public exception {
 public:
     SyntaxException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR]\033[0m \033[1mSyntax error:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -60,10 +51,7 @@ class MissingSemicolonException : public exception {
 public:
     MissingSemicolonException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR]\033[0m \033[1mMissing semicolon:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -77,10 +65,7 @@ class InvalidColumnReferenceException : public exception {
 public:
     InvalidColumnReferenceException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR]\033[0m \033[1mInvalid column reference:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -94,10 +79,7 @@ class IncompleteInputException : public exception {
 public:
     IncompleteInputException(const string &details)
             : message("\033[1;31m[SYNTAX ERROR]\033[0m \033[1mIncomplete input:\033[0m " + details) {
-        ofstream outFile("output.txt", ios::out);
-        outFile << "!" << endl;
-        outFile << message << endl;
-        outFile.close();
+        ResultChannel::writeError(message);
     }
 
     const char *what() const noexcept override {
@@ -57,7 +57,7 @@ public:
 //        }
 //    }
 
-    void printTableInFile(ostream &os, const vector<string>& selectedColumns = {}) const {
+    void printTableInFile(ostream &os, const vector<string>& selectedColumns = {}, long long maxRows = -1) const {
         os << "\t" << name << endl;
 
         if (selectedColumns.empty()) {
@@ -66,7 +66,11 @@ public:
             }
             os << endl;
 
+            long long printedRows = 0;
             for (const auto &row: rows) {
+                if (maxRows >= 0 && printedRows++ >= maxRows) {
+                    break;
+                }
                 for (const auto &data: row.getData()) {
                     os << data << "~";
                 }
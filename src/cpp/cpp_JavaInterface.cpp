@@ -1,13 +1,205 @@
 #include <jni.h>
 #include "cpp_JavaInterface.h"
 #include <string>
+#include <map>
+#include <mutex>
 #include "Database.h"
 #include "Menu.h"
+#include "ResultChannel.h"
+#include "InsertIntoStatement.h"
 
 using namespace std;
 
 shared_ptr<Database> database = nullptr;
 
+namespace {
+
+    // Splits a row of the native result format, where every value is terminated by '~'
+    vector<string> splitResultRow(const string &line) {
+        vector<string> values;
+        size_t start = 0;
+        size_t end;
+        while ((end = line.find('~', start)) != string::npos) {
+            values.push_back(line.substr(start, end - start));
+            start = end + 1;
+        }
+        if (start < line.size()) {
+            values.push_back(line.substr(start));
+        }
+        return values;
+    }
+
+    jobjectArray toJavaStringArray(JNIEnv *env, jclass stringClass, const vector<string> &values) {
+        jobjectArray array = env->NewObjectArray((jsize) values.size(), stringClass, nullptr);
+        for (size_t i = 0; i < values.size(); i++) {
+            jstring value = env->NewStringUTF(values[i].c_str());
+            env->SetObjectArrayElement(array, (jsize) i, value);
+            env->DeleteLocalRef(value);
+        }
+        return array;
+    }
+
+    void addTableToResult(JNIEnv *env, jobject result, jmethodID addTable, const string &tableName,
+                          const vector<string> &lines) {
+        jclass stringClass = env->FindClass("java/lang/String");
+        jclass stringArrayClass = env->FindClass("[Ljava/lang/String;");
+
+        jstring name = env->NewStringUTF(tableName.c_str());
+        jobjectArray headers = toJavaStringArray(env, stringClass, lines.empty() ? vector<string>() : splitResultRow(lines[0]));
+        jsize rowCount = lines.empty() ? 0 : (jsize) lines.size() - 1;
+        jobjectArray rows = env->NewObjectArray(rowCount, stringArrayClass, nullptr);
+        for (jsize i = 0; i < rowCount; i++) {
+            jobjectArray row = toJavaStringArray(env, stringClass, splitResultRow(lines[i + 1]));
+            env->SetObjectArrayElement(rows, i, row);
+            env->DeleteLocalRef(row);
+        }
+
+        env->CallVoidMethod(result, addTable, name, headers, rows);
+
+        env->DeleteLocalRef(rows);
+        env->DeleteLocalRef(headers);
+        env->DeleteLocalRef(name);
+        env->DeleteLocalRef(stringArrayClass);
+        env->DeleteLocalRef(stringClass);
+    }
+
+    // Converts the content of the result channel to a cpp.QueryResult object
+    jobject toQueryResult(JNIEnv *env, const string &content) {
+        jclass resultClass = env->FindClass("cpp/QueryResult");
+        jmethodID constructor = env->GetMethodID(resultClass, "<init>", "(ZLjava/lang/String;Ljava/lang/String;)V");
+        jmethodID addTable = env->GetMethodID(resultClass, "addTable", "(Ljava/lang/String;[Ljava/lang/String;[[Ljava/lang/String;)V");
+
+        istringstream stream(content);
+        string line;
+
+        if (content.rfind('!', 0) == 0) {
+            getline(stream, line); // skip the error marker
+            string errorText;
+            while (getline(stream, line)) {
+                errorText += line + "\n";
+            }
+            jstring jerrorText = env->NewStringUTF(errorText.c_str());
+            jobject result = env->NewObject(resultClass, constructor, JNI_TRUE, jerrorText, nullptr);
+            env->DeleteLocalRef(jerrorText);
+            env->DeleteLocalRef(resultClass);
+            return result;
+        }
+
+        const string databaseNamePrefix = "Database name: ";
+        string databaseName;
+        bool hasDatabaseName = false;
+        vector<pair<string, vector<string>>> tables;
+        bool inTable = false;
+
+        while (getline(stream, line)) {
+            if (!line.empty() && line[0] == '\t') {
+                tables.emplace_back(line.substr(1), vector<string>());
+                inTable = true;
+            } else if (line == "#") {
+                inTable = false;
+            } else if (inTable) {
+                tables.back().second.push_back(line);
+            } else if (line.rfind(databaseNamePrefix, 0) == 0) {
+                databaseName = line.substr(databaseNamePrefix.size());
+                hasDatabaseName = true;
+            }
+        }
+
+        jstring jdatabaseName = hasDatabaseName ? env->NewStringUTF(databaseName.c_str()) : nullptr;
+        jobject result = env->NewObject(resultClass, constructor, JNI_FALSE, nullptr, jdatabaseName);
+        for (const auto &table : tables) {
+            addTableToResult(env, result, addTable, table.first, table.second);
+        }
+
+        if (jdatabaseName != nullptr) {
+            env->DeleteLocalRef(jdatabaseName);
+        }
+        env->DeleteLocalRef(resultClass);
+        return result;
+    }
+
+    // Executes a statement with the result channel in memory mode and returns its result as text
+    string executeToContent(JNIEnv *env, jstring jquery) {
+        const char *jquery_ptr = env->GetStringUTFChars(jquery, 0);
+        string query(jquery_ptr);
+        env->ReleaseStringUTFChars(jquery, jquery_ptr);
+
+        ResultChannel::Mode previousMode = ResultChannel::getMode();
+        ResultChannel::setMode(ResultChannel::Mode::MEMORY);
+        ResultChannel::open(); // discard the result of the previous statement
+
+        try {
+            shared_ptr<Statement> statement = Menu::parseSQLQuery(query);
+            statement->execute(*database);
+            cout << "Query has been " << green << "successfully" << resetColor << " executed!" << endl;
+        } catch (exception &e) {
+            cout << e.what() << endl;
+            if (ResultChannel::read().rfind('!', 0) != 0) {
+                // Exception that did not report itself to the result channel
+                ResultChannel::writeError(e.what());
+            }
+        }
+
+        string content = ResultChannel::read();
+        ResultChannel::open();
+        ResultChannel::setMode(previousMode);
+        return content;
+    }
+
+    // Executes a statement with the result channel in memory mode and converts its result to a cpp.QueryResult object
+    jobject executeToQueryResult(JNIEnv *env, jstring jquery) {
+        return toQueryResult(env, executeToContent(env, jquery));
+    }
+
+    // Result of a SELECT kept in native memory, whose rows are fetched by the Java side a page at a time
+    struct ResultCursor {
+        string content;
+        vector<size_t> rowStarts; // the position of every row line of the table in the content
+    };
+
+    // The cursors are fetched from the result grid while other statements are executed,
+    // so they are only accessed under this mutex and never touch the database
+    mutex cursorsMutex;
+    map<jint, shared_ptr<ResultCursor>> cursors;
+    jint nextCursorId = 0;
+
+    string lineAt(const string &content, size_t start) {
+        size_t end = content.find('\n', start);
+        return content.substr(start, end == string::npos ? string::npos : end - start);
+    }
+
+    // Finds the lines of a result holding a single table, returns false for any other result
+    bool indexSingleTable(const string &content, string &tableName, size_t &headerStart, vector<size_t> &rowStarts) {
+        int tableCount = 0;
+        bool inTable = false;
+        bool hasHeader = false;
+        size_t start = 0;
+        while (start < content.size()) {
+            size_t end = content.find('\n', start);
+            if (end == string::npos) {
+                end = content.size();
+            }
+            if (content[start] == '\t') {
+                if (++tableCount > 1) {
+                    return false;
+                }
+                tableName = content.substr(start + 1, end - start - 1);
+                inTable = true;
+            } else if (end - start == 1 && content[start] == '#') {
+                inTable = false;
+            } else if (inTable && !hasHeader) {
+                headerStart = start;
+                hasHeader = true;
+            } else if (inTable) {
+                rowStarts.push_back(start);
+            }
+            start = end + 1;
+        }
+        return tableCount == 1 && hasHeader;
+    }
+
+}
+
 JNIEXPORT void JNICALL Java_cpp_JavaInterface_createNewDatabase (JNIEnv *env, jobject obj) {
     database = make_shared<Database>("untitled");
     cout << "Database \"" << database->getName() << "\" has been " << green << "successfully" << resetColor << " created!" << endl;
@@ -28,6 +220,144 @@ JNIEXPORT void JNICALL Java_cpp_JavaInterface_executeQuery (JNIEnv *env, jobject
     cout << "Query has been " << green << "successfully" << resetColor << " executed!" << endl;
 };
 
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryResult (JNIEnv *env, jobject obj, jstring jquery) {
+    return executeToQueryResult(env, jquery);
+};
+
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryResultWithLimit (JNIEnv *env, jobject obj, jstring jquery, jint maxRows) {
+    ResultChannel::setRowLimit(maxRows);
+    jobject result = executeToQueryResult(env, jquery);
+    ResultChannel::setRowLimit(-1);
+    return result;
+};
+
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryCursor (JNIEnv *env, jobject obj, jstring jquery, jint pageRows) {
+    string content = executeToContent(env, jquery);
+
+    string tableName;
+    size_t headerStart = 0;
+    vector<size_t> rowStarts;
+    if (content.rfind('!', 0) == 0 || !indexSingleTable(content, tableName, headerStart, rowStarts)
+            || rowStarts.size() <= (size_t) pageRows) {
+        // Errors, other statements and results fitting in the first page are returned whole
+        return toQueryResult(env, content);
+    }
+
+    jclass resultClass = env->FindClass("cpp/QueryResult");
+    jmethodID constructor = env->GetMethodID(resultClass, "<init>", "(ZLjava/lang/String;Ljava/lang/String;)V");
+    jmethodID addTable = env->GetMethodID(resultClass, "addTable", "(Ljava/lang/String;[Ljava/lang/String;[[Ljava/lang/String;)V");
+    jmethodID setCursor = env->GetMethodID(resultClass, "setCursor", "(II)V");
+    jobject result = env->NewObject(resultClass, constructor, JNI_FALSE, nullptr, nullptr);
+
+    vector<string> firstPage;
+    firstPage.push_back(lineAt(content, headerStart));
+    for (jint i = 0; i < pageRows; i++) {
+        firstPage.push_back(lineAt(content, rowStarts[i]));
+    }
+    addTableToResult(env, result, addTable, tableName, firstPage);
+
+    jint rowCount = (jint) rowStarts.size();
+    shared_ptr<ResultCursor> cursor = make_shared<ResultCursor>();
+    cursor->content = move(content);
+    cursor->rowStarts = move(rowStarts);
+    jint cursorId;
+    {
+        lock_guard<mutex> lock(cursorsMutex);
+        cursorId = nextCursorId++;
+        cursors[cursorId] = cursor;
+    }
+    env->CallVoidMethod(result, setCursor, cursorId, rowCount);
+    env->DeleteLocalRef(resultClass);
+    return result;
+};
+
+JNIEXPORT jobjectArray JNICALL Java_cpp_JavaInterface_fetchCursorRows (JNIEnv *env, jobject obj, jint cursorId, jint from, jint count) {
+    shared_ptr<ResultCursor> cursor;
+    {
+        lock_guard<mutex> lock(cursorsMutex);
+        auto it = cursors.find(cursorId);
+        if (it != cursors.end()) {
+            cursor = it->second;
+        }
+    }
+    if (!cursor) {
+        jclass exceptionClass = env->FindClass("java/lang/IllegalStateException");
+        env->ThrowNew(exceptionClass, "The result cursor is closed");
+        return nullptr;
+    }
+
+    jint rowCount = (jint) cursor->rowStarts.size();
+    jint start = max(0, min(from, rowCount));
+    jint end = max(start, min(rowCount, from + count));
+
+    jclass stringClass = env->FindClass("java/lang/String");
+    jclass stringArrayClass = env->FindClass("[Ljava/lang/String;");
+    jobjectArray rows = env->NewObjectArray(end - start, stringArrayClass, nullptr);
+    for (jint i = start; i < end; i++) {
+        jobjectArray row = toJavaStringArray(env, stringClass, splitResultRow(lineAt(cursor->content, cursor->rowStarts[i])));
+        env->SetObjectArrayElement(rows, i - start, row);
+        env->DeleteLocalRef(row);
+    }
+    env->DeleteLocalRef(stringArrayClass);
+    env->DeleteLocalRef(stringClass);
+    return rows;
+};
+
+JNIEXPORT void JNICALL Java_cpp_JavaInterface_closeCursor (JNIEnv *env, jobject obj, jint cursorId) {
+    lock_guard<mutex> lock(cursorsMutex);
+    cursors.erase(cursorId);
+};
+
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeBatchResult (JNIEnv *env, jobject obj, jobjectArray jqueries) {
+    jsize count = env->GetArrayLength(jqueries);
+
+    ResultChannel::Mode previousMode = ResultChannel::getMode();
+    ResultChannel::setMode(ResultChannel::Mode::MEMORY);
+    ResultChannel::open(); // discard the result of the previous statement
+
+    // The modified table is not written to the result, since the results of INSERT statements are not shown
+    jsize failedStatement = -1;
+    for (jsize i = 0; i < count && failedStatement == -1; i++) {
+        jstring jquery = (jstring) env->GetObjectArrayElement(jqueries, i);
+        const char *jquery_ptr = env->GetStringUTFChars(jquery, 0);
+        string query(jquery_ptr);
+        env->ReleaseStringUTFChars(jquery, jquery_ptr);
+        env->DeleteLocalRef(jquery);
+
+        try {
+            shared_ptr<Statement> statement = Menu::parseSQLQuery(query);
+            shared_ptr<InsertIntoStatement> insert = dynamic_pointer_cast<InsertIntoStatement>(statement);
+            if (insert) {
+                insert->insert(*database);
+            } else {
+                statement->execute(*database);
+            }
+        } catch (exception &e) {
+            cout << e.what() << endl;
+            if (ResultChannel::read().rfind('!', 0) != 0) {
+                // Exception that did not report itself to the result channel
+                ResultChannel::writeError(e.what());
+            }
+            failedStatement = i;
+        }
+    }
+
+    if (failedStatement == -1) {
+        cout << count << " queries have been " << green << "successfully" << resetColor << " executed!" << endl;
+    }
+
+    jobject result = toQueryResult(env, ResultChannel::read());
+    if (failedStatement != -1) {
+        jclass resultClass = env->GetObjectClass(result);
+        jmethodID setFailedStatement = env->GetMethodID(resultClass, "setFailedStatement", "(I)V");
+        env->CallVoidMethod(result, setFailedStatement, failedStatement);
+        env->DeleteLocalRef(resultClass);
+    }
+    ResultChannel::open();
+    ResultChannel::setMode(previousMode);
+    return result;
+};
+
 JNIEXPORT void JNICALL Java_cpp_JavaInterface_importDatabase (JNIEnv *env, jobject obj, jstring jfile_path) {
     const char *file_path_ptr = env->GetStringUTFChars(jfile_path, 0);
     string file_path(file_path_ptr);
@@ -23,6 +23,54 @@ JNIEXPORT void JNICALL Java_cpp_JavaInterface_createNewDatabase
 JNIEXPORT void JNICALL Java_cpp_JavaInterface_executeQuery
   (JNIEnv *, jobject, jstring);
 
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    executeQueryResult
+ * Signature: (Ljava/lang/String;)Lcpp/QueryResult;
+ */
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryResult
+  (JNIEnv *, jobject, jstring);
+
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    executeQueryResultWithLimit
+ * Signature: (Ljava/lang/String;I)Lcpp/QueryResult;
+ */
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryResultWithLimit
+  (JNIEnv *, jobject, jstring, jint);
+
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    executeQueryCursor
+ * Signature: (Ljava/lang/String;I)Lcpp/QueryResult;
+ */
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeQueryCursor
+  (JNIEnv *, jobject, jstring, jint);
+
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    fetchCursorRows
+ * Signature: (III)[[Ljava/lang/String;
+ */
+JNIEXPORT jobjectArray JNICALL Java_cpp_JavaInterface_fetchCursorRows
+  (JNIEnv *, jobject, jint, jint, jint);
+
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    closeCursor
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL Java_cpp_JavaInterface_closeCursor
+  (JNIEnv *, jobject, jint);
+
+/*
+ * Class:     cpp_JavaInterface
+ * Method:    executeBatchResult
+ * Signature: ([Ljava/lang/String;)Lcpp/QueryResult;
+ */
+JNIEXPORT jobject JNICALL Java_cpp_JavaInterface_executeBatchResult
+  (JNIEnv *, jobject, jobjectArray);
+
 /*
  * Class:     cpp_JavaInterface
  * Method:    importDatabase
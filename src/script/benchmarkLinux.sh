@@ -0,0 +1,23 @@
+#!/bin/bash
+
+# This script compiles the application together with the benchmarks in the benchmark folder and runs a benchmark.
+# Usage: ./benchmarkLinux.sh <benchmark class> [arguments], e.g. ./benchmarkLinux.sh app.util.ResultReaderBenchmark 1000000
+# If the JDK does not include JavaFX, set PATH_TO_FX to the lib directory of the JavaFX SDK.
+
+if [ -z "$1" ]; then
+    echo "Usage: $0 <benchmark class> [arguments]"
+    exit 1
+fi
+
+cd "/project_path"
+
+CLASSPATH="src/libraries/*"
+if [ -n "$PATH_TO_FX" ]; then
+    CLASSPATH="$CLASSPATH:$PATH_TO_FX/*"
+fi
+
+rm -rf out/benchmark
+mkdir -p out/benchmark
+javac -encoding UTF-8 -d out/benchmark -cp "$CLASSPATH" $(find src/app src/cpp benchmark -name "*.java") || exit 1
+
+java -Xmx2g -Djava.library.path=native -cp "out/benchmark:$CLASSPATH" "$@"
@@ -1,13 +1,13 @@
 #!/bin/bash
 
-TOTAL_COMMANDS=24
+TOTAL_COMMANDS=25
 COUNTER=$TOTAL_COMMANDS
 
 cd "/project_path/src/cpp"
 
 echo "$COUNTER commands remaining"
 ((COUNTER--))
-javac -h . JavaInterface.java 
+javac -h . JavaInterface.java QueryResult.java 
 
 # Compile all .cpp files to object files
 echo "$COUNTER commands remaining"
@@ -58,6 +58,10 @@ echo "$COUNTER commands remaining"
 ((COUNTER--))
 g++ -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/linux" Menu.cpp -o Menu.o
 
+echo "$COUNTER commands remaining"
+((COUNTER--))
+g++ -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/linux" ResultChannel.cpp -o ResultChannel.o
+
 echo "$COUNTER commands remaining"
 ((COUNTER--))
 g++ -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/linux" Row.cpp -o Row.o
@@ -93,7 +97,7 @@ g++ -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/linux" Upda
 # Link all object files into a single shared object
 echo "$COUNTER commands remaining"
 ((COUNTER--))
-g++ -shared -o libnative.so cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
+g++ -shared -o libnative.so cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o ResultChannel.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
 
 # Move the shared object to the specified directory
 echo "$COUNTER commands remaining"
@@ -1,13 +1,13 @@
 #!/bin/bash
 
-TOTAL_COMMANDS=24
+TOTAL_COMMANDS=25
 COUNTER=$TOTAL_COMMANDS
 
 cd "/project_path/src/cpp"
 
 echo "$COUNTER commands remaining"
 ((COUNTER--))
-javac -h . JavaInterface.java
+javac -h . JavaInterface.java QueryResult.java
 
 echo "$COUNTER commands remaining"
 ((COUNTER--))
@@ -57,6 +57,10 @@ echo "$COUNTER commands remaining"
 ((COUNTER--))
 /opt/homebrew/bin/g++-14 -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/darwin" Menu.cpp -o Menu.o
 
+echo "$COUNTER commands remaining"
+((COUNTER--))
+/opt/homebrew/bin/g++-14 -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/darwin" ResultChannel.cpp -o ResultChannel.o
+
 echo "$COUNTER commands remaining"
 ((COUNTER--))
 /opt/homebrew/bin/g++-14 -std=c++17 -c -fPIC -I"$JAVA_HOME/include" -I"$JAVA_HOME/include/darwin" Row.cpp -o Row.o
@@ -91,7 +95,7 @@ echo "$COUNTER commands remaining"
 
 echo "$COUNTER commands remaining"
 ((COUNTER--))
-/opt/homebrew/bin/g++-14 -dynamiclib -o libnative.dylib cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
+/opt/homebrew/bin/g++-14 -dynamiclib -o libnative.dylib cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o ResultChannel.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
 
 echo "$COUNTER commands remaining"
 ((COUNTER--))
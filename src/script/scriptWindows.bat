@@ -2,14 +2,14 @@
 
 rem This script is used to create .o files and create the native.dll library in the project. 
 
-set TOTAL_COMMANDS=24
+set TOTAL_COMMANDS=25
 set /A COUNTER=%TOTAL_COMMANDS%
 
 cd /d "\project_path\cpp"
 
 echo %COUNTER% commands remaining
 set /A COUNTER-=1
-javac -h . JavaInterface.java 
+javac -h . JavaInterface.java QueryResult.java 
 
 rem Compile all .cpp files to object files
 echo %COUNTER% commands remaining
@@ -61,6 +61,10 @@ echo %COUNTER% commands remaining
 set /A COUNTER-=1
 g++ -std=c++17 -c -I"%JAVA_HOME%\include" -I"%JAVA_HOME%\include\win32" Menu.cpp -o Menu.o -m64
 
+echo %COUNTER% commands remaining
+set /A COUNTER-=1
+g++ -std=c++17 -c -I"%JAVA_HOME%\include" -I"%JAVA_HOME%\include\win32" ResultChannel.cpp -o ResultChannel.o -m64
+
 echo %COUNTER% commands remaining
 set /A COUNTER-=1
 g++ -std=c++17 -c -I"%JAVA_HOME%\include" -I"%JAVA_HOME%\include\win32" Row.cpp -o Row.o -m64
@@ -96,7 +100,7 @@ g++ -std=c++17 -c -I"%JAVA_HOME%\include" -I"%JAVA_HOME%\include\win32" UpdateSt
 rem Link all object files into a single DLL
 echo %COUNTER% commands remaining
 set /A COUNTER-=1
-g++ -shared -o native.dll -m64 cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
+g++ -shared -o native.dll -m64 cpp_JavaInterface.o Column.o ConsoleUtils.o CreateTableStatement.o CustomFormat.o Database.o DeleteFromStatement.o DropTableStatement.o EqualityFilter.o InequalityFilter.o InsertIntoStatement.o Menu.o ResultChannel.o Row.o SelectStatement.o ShowTablesStatement.o SQLFormat.o Statement.o SyntaxRegexPatterns.o Table.o UpdateStatement.o
 
 rem Move the DLL to the specified directory
 echo %COUNTER% commands remaining